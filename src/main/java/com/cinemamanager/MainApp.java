@@ -28,6 +28,9 @@ import javafx.stage.Stage;
  */
 public class MainApp extends Application {
 
+	/** The root view, kept so resources can be released on exit. */
+	private MainView mainView;
+
 	/**
 	 * Initializes and displays the primary stage of the JavaFX application.
 	 * 
@@ -43,7 +46,7 @@ public class MainApp extends Application {
 	@Override
 	public void start(Stage primaryStage) {
 		// Create the main view (layout + controllers are bootstrapped inside MainView)
-		MainView mainView = new MainView();
+		mainView = new MainView();
 
 		// Define the scene with specified width and height
 		Scene scene = new Scene(mainView, 1200, 600);
@@ -54,6 +57,21 @@ public class MainApp extends Application {
 		primaryStage.show();
 	}
 
+	/**
+	 * Called by the JavaFX runtime when the application exits.
+	 * 
+	 * <p>
+	 * Gives the main view a chance to release resources such as pooled database
+	 * connections.
+	 * </p>
+	 */
+	@Override
+	public void stop() {
+		if (mainView != null) {
+			mainView.shutdown();
+		}
+	}
+
 	/**
 	 * Launches the Cinema Manager application.
 	 * 
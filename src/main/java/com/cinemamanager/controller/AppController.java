@@ -2,36 +2,57 @@ package com.cinemamanager.controller;
 
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.sql.Connection;
-import java.util.List;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
+import javax.sql.DataSource;
+
+import com.cinemamanager.dao.CachingHallDao;
+import com.cinemamanager.dao.CachingMovieDao;
 import com.cinemamanager.dao.CustomerDao;
 import com.cinemamanager.dao.CustomerDaoImpl;
 import com.cinemamanager.dao.HallDao;
 import com.cinemamanager.dao.HallDaoImpl;
+import com.cinemamanager.dao.IndexedScreeningDao;
 import com.cinemamanager.dao.MovieDao;
 import com.cinemamanager.dao.MovieDaoImpl;
+import com.cinemamanager.dao.ReservationSeatDao;
+import com.cinemamanager.dao.ReservationSeatDaoImpl;
 import com.cinemamanager.dao.ReservationsDao;
 import com.cinemamanager.dao.ReservationsDaoImpl;
 import com.cinemamanager.dao.ScreeningDao;
 import com.cinemamanager.dao.ScreeningDaoImpl;
-import com.cinemamanager.model.Customer;
+import com.cinemamanager.dao.TransactionManager;
+import com.cinemamanager.model.Hall;
 import com.cinemamanager.model.Movie;
-import com.cinemamanager.model.Reservation;
+import com.cinemamanager.service.ReservationService;
+import com.cinemamanager.service.ReservationServiceImpl;
+import com.cinemamanager.service.ReservationWriteQueue;
+import com.cinemamanager.service.ScreeningServiceImpl;
+import com.cinemamanager.service.SeatHoldService;
+import com.cinemamanager.service.SeatInventory;
 import com.cinemamanager.util.AlertUtils;
+import com.cinemamanager.util.AsyncExecutors;
 import com.cinemamanager.util.DatabaseConnection;
+import com.cinemamanager.util.HashedTimerWheel;
+import com.cinemamanager.util.LruCache;
 import com.cinemamanager.view.MainView;
 
 import javafx.application.Platform;
+import javafx.scene.Scene;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.Window;
 
 public class AppController {
 
 	private final MainView mainView;
-	private Connection conn;
+	private DataSource dataSource;
 
 	// DAOs (used by export + controllers)
 	private CustomerDao customerDao;
@@ -40,38 +61,117 @@ public class AppController {
 	private ScreeningDao screeningDao;
 	private HallDao hallDao;
 
+	private HashedTimerWheel holdTimer;
+	private ReservationWriteQueue reservationWriteQueue;
+	private SeatHoldService seatHoldService;
+
+	// tabs get their controller (and data) when first shown or while the window is idle
+	private LazyTabLoader tabs;
+
+	// ms from start() to the first frame with the wired UI; -1 until it is rendered
+	private volatile long firstFrameMillis = -1;
+
 	public AppController(MainView mainView) {
 		this.mainView = mainView;
 	}
 
 	public void start() {
-		// one shared connection
-		conn = DatabaseConnection.getConnection();
+		long startNanos = System.nanoTime();
+		tabs = new LazyTabLoader(mainView.getTabPane());
+		recordFirstFrame(startNanos);
+
+		// one shared connection pool
+		dataSource = DatabaseConnection.getDataSource();
+		customerDao = new CustomerDaoImpl(dataSource);
 
 		// Controllers that don't need DB
-		new CustomerController(mainView.getCustomerView());
-
-		if (conn != null) {
-			// Create DAOs that need a connection
-			movieDao = new MovieDaoImpl(conn);
-			reservationsDao = new ReservationsDaoImpl(conn);
-			screeningDao = new ScreeningDaoImpl(conn);
-			hallDao = new HallDaoImpl(conn);
-
-			// Your CustomerDaoImpl doesn't require a Connection
-			customerDao = new CustomerDaoImpl();
-
-			// Wire controllers (pass interfaces)
-			new MovieController(mainView.getMovieView(), movieDao);
-			new ReservationsController(mainView.getReservationView(), reservationsDao, customerDao, screeningDao);
-			new SchedullingController(mainView.getScheduleScreeningView(), movieDao, hallDao, screeningDao);
-		} else {
-			// Still init DAOs that don't require DB so "Export" can at least export
-			// customers
-			customerDao = new CustomerDaoImpl();
-		}
+		tabs.register(mainView.getCustomerView(), () -> new CustomerController(mainView.getCustomerView(), customerDao));
 
 		attachMenuHandlers();
+
+		// Probe the database off the FX thread, then wire the DB-backed tabs
+		AsyncExecutors.supply(this::isDatabaseReachable).thenAccept(reachable -> {
+			if (reachable)
+				startDatabaseControllers();
+		}).whenComplete((v, ex) -> {
+			// otherwise a wiring failure would leave the DB-backed tabs empty without a word
+			if (ex != null) {
+				ex.printStackTrace();
+				AlertUtils.showError("Failed to start the database-backed tabs:\n" + ex.getMessage());
+			}
+		});
+	}
+
+	private void startDatabaseControllers() {
+		Properties props = DatabaseConnection.getProperties();
+		TransactionManager transactions = DatabaseConnection.getTransactionManager();
+
+		// Create DAOs that need a connection; movies and halls are read through an LRU cache
+		// (their hit rates are on getCache() / toString())
+		LruCache<Integer, Movie> movieCache = LruCache.fromProperties(props, "cache.movie", 1000, 600);
+		LruCache<Integer, String> movieDescriptionCache = LruCache.fromProperties(props, "cache.movieDescription",
+				500, 600);
+		LruCache<Integer, Hall> hallCache = LruCache.fromProperties(props, "cache.hall", 100, 3600);
+		movieDao = new CachingMovieDao(new MovieDaoImpl(dataSource), movieCache, movieDescriptionCache, transactions);
+		reservationsDao = new ReservationsDaoImpl(dataSource);
+		// overlap checks are answered from memory; saves always re-check the DB
+		screeningDao = new IndexedScreeningDao(new ScreeningDaoImpl(dataSource), transactions);
+		hallDao = new CachingHallDao(new HallDaoImpl(dataSource), hallCache, transactions);
+
+		// Wire controllers (pass interfaces); each is created when its tab is first needed
+		int movieSearchThreshold = DatabaseConnection.intProperty(props, "movies.serverSearchThreshold",
+				MovieController.DEFAULT_SERVER_SEARCH_THRESHOLD);
+		tabs.register(mainView.getMovieView(),
+				() -> new MovieController(mainView.getMovieView(), movieDao, movieSearchThreshold));
+		ReservationSeatDao reservationSeatDao = new ReservationSeatDaoImpl(dataSource);
+		SeatInventory seatInventory = new SeatInventory(screeningDao, hallDao, reservationSeatDao);
+		// optional write-behind: bookings are committed in groups by one writer thread
+		reservationWriteQueue = ReservationWriteQueue.fromProperties(props, reservationsDao, screeningDao,
+				reservationSeatDao, transactions);
+		ReservationService reservationService = new ReservationServiceImpl(reservationsDao, screeningDao,
+				reservationSeatDao, seatInventory, transactions, reservationWriteQueue);
+		// counter holds expire on one timer-wheel thread (100 ms ticks)
+		holdTimer = new HashedTimerWheel("seat-hold-timer", 100, 512);
+		seatHoldService = new SeatHoldService(seatInventory, reservationService, holdTimer,
+				Duration.ofSeconds(
+						Math.max(1, DatabaseConnection.longProperty(props, "holds.durationSeconds", 300))));
+		tabs.register(mainView.getReservationView(), () -> new ReservationsController(mainView.getReservationView(),
+				reservationsDao, customerDao, screeningDao, reservationService, seatHoldService));
+		tabs.register(mainView.getScheduleScreeningView(),
+				() -> new SchedullingController(mainView.getScheduleScreeningView(), movieDao, hallDao, screeningDao,
+						new ScreeningServiceImpl(screeningDao, movieDao, hallDao, transactions)));
+		tabs.prefetchWhenIdle(Math.max(0, DatabaseConnection.longProperty(props, "ui.prefetchIdleMs", 1500)));
+	}
+
+	/**
+	 * @return milliseconds from {@link #start()} until the first frame with the
+	 *         wired UI was rendered, or {@code -1} before that
+	 */
+	public long getFirstFrameMillis() {
+		return firstFrameMillis;
+	}
+
+	// records how long it took until the first frame with the wired UI was rendered
+	private void recordFirstFrame(long startNanos) {
+		Scene scene = mainView.getScene();
+		if (scene == null) {
+			return;
+		}
+		Runnable[] listener = new Runnable[1];
+		listener[0] = () -> {
+			scene.removePostLayoutPulseListener(listener[0]);
+			firstFrameMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+		};
+		scene.addPostLayoutPulseListener(listener[0]);
+	}
+
+	// borrow and immediately return one pooled connection
+	private boolean isDatabaseReachable() {
+		try (Connection probe = DatabaseConnection.getConnection()) {
+			return probe != null;
+		} catch (Exception ex) {
+			return false;
+		}
 	}
 
 	private void attachMenuHandlers() {
@@ -83,15 +183,15 @@ public class AppController {
 	}
 
 	private void handleCheckDb() {
-		try (Connection test = DatabaseConnection.getConnection()) {
-			if (test != null && !test.isClosed()) {
+		AsyncExecutors.supply(this::isDatabaseReachable).whenComplete((ok, ex) -> {
+			if (ex != null) {
+				AlertUtils.showError("Failed to connect to the database:\n" + ex.getMessage());
+			} else if (ok) {
 				AlertUtils.showInfo("Database Connection", "Successfully connected to the database.");
 			} else {
 				AlertUtils.showError("Could not establish a database connection.");
 			}
-		} catch (Exception ex) {
-			AlertUtils.showError("Failed to connect to the database:\n" + ex.getMessage());
-		}
+		});
 	}
 
 	private void handleExport() {// should have been in the specific class/package
@@ -102,69 +202,79 @@ public class AppController {
 		if (dir == null)
 			return;
 
-		try {
-			// Ensure DAOs exist (movies/reservations require DB)
-			if (customerDao == null)
-				customerDao = new CustomerDaoImpl();
-			if (movieDao == null || reservationsDao == null) {
-				try (Connection tmp = DatabaseConnection.getConnection()) {
-					if (tmp != null) {
-						if (movieDao == null)
-							movieDao = new MovieDaoImpl(tmp);
-						if (reservationsDao == null)
-							reservationsDao = new ReservationsDaoImpl(tmp);
-					}
-				}
+		// Queries and file writing run in the background; only the alerts touch the UI
+		AsyncExecutors.run(() -> {
+			try {
+				exportCsv(dir);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
 			}
-
-			// Export Customers
-			List<Customer> customers = customerDao.getAllCustomers();
-			File customersCsv = new File(dir, "customers.csv");
-			try (BufferedWriter w = Files.newBufferedWriter(customersCsv.toPath(), StandardCharsets.UTF_8)) {
-				w.write("id,first_name,last_name,email");
-				w.newLine();
-				for (Customer c : customers) {
-					w.write(csv(c.getId()) + "," + csv(c.getFirstName()) + "," + csv(c.getLastName()) + ","
-							+ csv(c.getEmail()));
-					w.newLine();
-				}
+		}).whenComplete((v, ex) -> {
+			if (ex != null) {
+				AlertUtils.showError("Export failed:\n" + ex.getMessage());
+			} else {
+				AlertUtils.showInfo("Export Complete", "CSV files were exported to:\n" + dir.getAbsolutePath());
 			}
+		});
+	}
 
-			// Export Movies (if DAO available)
-			if (movieDao != null) {
-				List<Movie> movies = movieDao.findAll();
-				File moviesCsv = new File(dir, "movies.csv");
-				try (BufferedWriter w = Files.newBufferedWriter(moviesCsv.toPath(), StandardCharsets.UTF_8)) {
-					w.write("movie_id,title,description,genre,language,duration,release_year");
-					w.newLine();
-					for (Movie m : movies) {
-						w.write(csv(m.getMovieId()) + "," + csv(m.getTitle()) + "," + csv(m.getDescription()) + ","
-								+ csv(m.getGenre()) + "," + csv(m.getLanguage()) + "," + csv(m.getDuration()) + ","
-								+ csv(m.getReleaseYear()));
-						w.newLine();
-					}
-				}
+	private void exportCsv(File dir) throws IOException {
+		// Ensure DAOs exist (movies/reservations require DB)
+		CustomerDao customerDao = this.customerDao != null ? this.customerDao : new CustomerDaoImpl();
+		MovieDao movieDao = this.movieDao;
+		ReservationsDao reservationsDao = this.reservationsDao;
+		if ((movieDao == null || reservationsDao == null) && isDatabaseReachable()) {
+			DataSource ds = DatabaseConnection.getDataSource();
+			if (movieDao == null)
+				movieDao = new MovieDaoImpl(ds);
+			if (reservationsDao == null)
+				reservationsDao = new ReservationsDaoImpl(ds);
+		}
+
+		// Export Customers (rows are streamed straight from the DB to the file)
+		File customersCsv = new File(dir, "customers.csv");
+		try (BufferedWriter w = Files.newBufferedWriter(customersCsv.toPath(), StandardCharsets.UTF_8)) {
+			w.write("id,first_name,last_name,email");
+			w.newLine();
+			customerDao.forEach(c -> writeLine(w, csv(c.getId()) + "," + csv(c.getFirstName()) + ","
+					+ csv(c.getLastName()) + "," + csv(c.getEmail())));
+		}
+
+		// Export Movies (if DAO available)
+		if (movieDao != null) {
+			File moviesCsv = new File(dir, "movies.csv");
+			try (BufferedWriter w = Files.newBufferedWriter(moviesCsv.toPath(), StandardCharsets.UTF_8)) {
+				w.write("movie_id,title,description,genre,language,duration,release_year");
+				w.newLine();
+				movieDao.forEach(m -> writeLine(w,
+						csv(m.getMovieId()) + "," + csv(m.getTitle()) + "," + csv(m.getDescription()) + ","
+								+ csv(m.getGenre()) + "," + csv(m.getLanguage()) + "," + csv(m.getDuration())
+								+ "," + csv(m.getReleaseYear())));
 			}
+		}
 
-			// Export Reservations (if DAO available)
-			if (reservationsDao != null) {
-				List<Reservation> reservations = reservationsDao.findAll();
-				File reservationsCsv = new File(dir, "reservations.csv");
-				try (BufferedWriter w = Files.newBufferedWriter(reservationsCsv.toPath(), StandardCharsets.UTF_8)) {
-					w.write("reservation_id,customer_id,screening_id,reservation_time");
-					w.newLine();
-					for (Reservation r : reservations) {
-						String time = r.getReservationTime() != null ? r.getReservationTime().toString() : "";
-						w.write(csv(r.getReservationId()) + "," + csv(r.getCustomerId()) + "," + csv(r.getScreeningId())
-								+ "," + csv(time));
-						w.newLine();
-					}
-				}
+		// Export Reservations (if DAO available)
+		if (reservationsDao != null) {
+			File reservationsCsv = new File(dir, "reservations.csv");
+			try (BufferedWriter w = Files.newBufferedWriter(reservationsCsv.toPath(), StandardCharsets.UTF_8)) {
+				w.write("reservation_id,customer_id,screening_id,reservation_time");
+				w.newLine();
+				reservationsDao.forEach(r -> {
+					String time = r.getReservationTime() != null ? r.getReservationTime().toString() : "";
+					writeLine(w, csv(r.getReservationId()) + "," + csv(r.getCustomerId()) + ","
+							+ csv(r.getScreeningId()) + "," + csv(time));
+				});
 			}
+		}
+	}
 
-			AlertUtils.showInfo("Export Complete", "CSV files were exported to:\n" + dir.getAbsolutePath());
-		} catch (Exception ex) {
-			AlertUtils.showError("Export failed:\n" + ex.getMessage());
+	// write one CSV line from inside a forEach callback
+	private void writeLine(BufferedWriter w, String line) {
+		try {
+			w.write(line);
+			w.newLine();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
 	}
 
@@ -178,10 +288,14 @@ public class AppController {
 	}
 
 	public void stop() {
-		try {
-			if (conn != null && !conn.isClosed())
-				conn.close();
-		} catch (Exception ignored) {
+		if (holdTimer != null) {
+			holdTimer.close();
+		}
+		if (reservationWriteQueue != null) {
+			// flush queued bookings before the pool goes away
+			reservationWriteQueue.close();
 		}
+		AsyncExecutors.shutdown();
+		DatabaseConnection.shutdown();
 	}
 }
@@ -1,8 +1,11 @@
 package com.cinemamanager.controller;
 
+import com.cinemamanager.dao.AsyncDao;
 import com.cinemamanager.dao.CustomerDao;
 import com.cinemamanager.dao.CustomerDaoImpl;
 import com.cinemamanager.model.Customer;
+import com.cinemamanager.util.AlertUtils;
+import com.cinemamanager.util.ListPatches;
 import com.cinemamanager.view.CustomerView;
 
 import javafx.collections.FXCollections;
@@ -11,12 +14,16 @@ import javafx.collections.ObservableList;
 public class CustomerController {
 
 	private final CustomerView view;
-	private final CustomerDao customerDao;
+	private final AsyncDao<CustomerDao> customerDao;
 	private final ObservableList<Customer> customerList;
 
 	public CustomerController(CustomerView view) {
+		this(view, new CustomerDaoImpl());
+	}
+
+	public CustomerController(CustomerView view, CustomerDao customerDao) {
 		this.view = view;
-		this.customerDao = new CustomerDaoImpl();
+		this.customerDao = new AsyncDao<>(customerDao);
 		this.customerList = FXCollections.observableArrayList();
 
 		initialize();
@@ -43,8 +50,13 @@ public class CustomerController {
 	}
 
 	private void loadCustomers() {
-		customerList.clear();
-		customerList.addAll(customerDao.getAllCustomers());
+		customerDao.supply(CustomerDao::getAllCustomers).whenComplete((customers, ex) -> {
+			if (ex != null) {
+				AlertUtils.showError("Failed to load customers:\n" + ex.getMessage());
+			} else {
+				customerList.setAll(customers);
+			}
+		});
 	}
 
 	private void addCustomer() {
@@ -54,8 +66,13 @@ public class CustomerController {
 
 		if (!first.isEmpty() && !last.isEmpty() && !email.isEmpty()) {
 			Customer newCustomer = new Customer(first, last, email);
-			customerDao.addCustomer(newCustomer);
-			loadCustomers();
+			customerDao.supply(dao -> dao.addCustomer(newCustomer)).whenComplete((saved, ex) -> {
+				if (ex != null) {
+					AlertUtils.showError("Failed to add customer:\n" + ex.getMessage());
+				} else if (saved != null) {
+					customerList.add(saved);
+				}
+			});
 			clearForm();
 		}
 	}
@@ -67,8 +84,13 @@ public class CustomerController {
 			selected.setLastName(view.getLastNameField().getText().trim());
 			selected.setEmail(view.getEmailField().getText().trim());
 
-			customerDao.updateCustomer(selected);
-			loadCustomers();
+			customerDao.supply(dao -> dao.updateCustomer(selected)).whenComplete((updated, ex) -> {
+				if (ex != null) {
+					AlertUtils.showError("Failed to update customer:\n" + ex.getMessage());
+				} else if (updated != null) {
+					ListPatches.upsert(customerList, updated, Customer::getId);
+				}
+			});
 			clearForm();
 		}
 	}
@@ -76,8 +98,13 @@ public class CustomerController {
 	private void deleteCustomer() {
 		Customer selected = view.getCustomerTable().getSelectionModel().getSelectedItem();
 		if (selected != null) {
-			customerDao.deleteCustomer(selected.getId());
-			loadCustomers();
+			customerDao.supply(dao -> dao.deleteCustomer(selected.getId())).whenComplete((deleted, ex) -> {
+				if (ex != null) {
+					AlertUtils.showError("Failed to delete customer:\n" + ex.getMessage());
+				} else if (deleted) {
+					ListPatches.remove(customerList, selected.getId(), Customer::getId);
+				}
+			});
 			clearForm();
 		}
 	}
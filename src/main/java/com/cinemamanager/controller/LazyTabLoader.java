@@ -0,0 +1,93 @@
+package com.cinemamanager.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.animation.PauseTransition;
+import javafx.event.Event;
+import javafx.scene.Node;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.util.Duration;
+
+/**
+ * Creates each tab's controller the first time its tab is shown, so startup
+ * only pays for the tab the user sees.
+ *
+ * <p>
+ * Tabs the user has not opened yet are initialised one at a time while the
+ * window is idle (no mouse or key input for the idle delay); their controllers
+ * load data on background threads, so by the time a tab is opened its table is
+ * usually filled already. All methods must be called on the FX thread.
+ * </p>
+ */
+final class LazyTabLoader {
+
+	private final TabPane tabPane;
+	// content node of a tab -> initialiser not run yet, in registration order
+	private final Map<Node, Runnable> pending = new LinkedHashMap<>();
+	private PauseTransition idle;
+
+	LazyTabLoader(TabPane tabPane) {
+		this.tabPane = tabPane;
+		tabPane.getSelectionModel().selectedItemProperty().addListener((obs, old, tab) -> {
+			if (tab != null) {
+				load(tab.getContent());
+			}
+			restartIdleTimer();
+		});
+	}
+
+	/**
+	 * Registers the initialiser of the tab showing {@code content}. It runs at
+	 * once if that tab is selected, otherwise on first selection or idle
+	 * prefetch, and never twice.
+	 */
+	void register(Node content, Runnable init) {
+		pending.put(content, init);
+		Tab selected = tabPane.getSelectionModel().getSelectedItem();
+		if (selected != null && selected.getContent() == content) {
+			load(content);
+		}
+		restartIdleTimer();
+	}
+
+	/**
+	 * Starts prefetching: after {@code idleMillis} without user input, the next
+	 * pending tab is initialised, then the timer starts again.
+	 */
+	void prefetchWhenIdle(long idleMillis) {
+		if (idle != null) {
+			return;
+		}
+		idle = new PauseTransition(Duration.millis(idleMillis));
+		idle.setOnFinished(e -> {
+			if (!pending.isEmpty()) {
+				load(pending.keySet().iterator().next());
+				restartIdleTimer();
+			}
+		});
+		tabPane.addEventFilter(MouseEvent.ANY, this::onInput);
+		tabPane.addEventFilter(KeyEvent.ANY, this::onInput);
+		restartIdleTimer();
+	}
+
+	private void onInput(Event e) {
+		restartIdleTimer();
+	}
+
+	private void restartIdleTimer() {
+		if (idle != null && !pending.isEmpty()) {
+			idle.playFromStart();
+		}
+	}
+
+	private void load(Node content) {
+		Runnable init = pending.remove(content);
+		if (init != null) {
+			init.run();
+		}
+	}
+}
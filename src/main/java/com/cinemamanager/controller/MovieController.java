@@ -1,11 +1,16 @@
 package com.cinemamanager.controller;
 
-import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
 
+import javax.sql.DataSource;
+
+import com.cinemamanager.dao.AsyncDao;
 import com.cinemamanager.dao.MovieDao;
 import com.cinemamanager.dao.MovieDaoImpl;
 import com.cinemamanager.model.Movie;
+import com.cinemamanager.model.MovieSummary;
 import com.cinemamanager.util.AlertUtils;
+import com.cinemamanager.util.ListPatches;
 import com.cinemamanager.view.MovieView;
 
 /**
@@ -19,6 +24,11 @@ import com.cinemamanager.view.MovieView;
  * </p>
  * 
  * <p>
+ * All DAO calls go through an {@link AsyncDao}, so they run on background
+ * (virtual) threads and the JavaFX application thread never blocks on JDBC.
+ * </p>
+ * 
+ * <p>
  * It also uses {@link AlertUtils} to display feedback to the user, such as
  * success messages, warnings, or error dialogs.
  * </p>
@@ -31,8 +41,17 @@ public class MovieController {
 	/** The view (UI) this controller manages. */
 	private final MovieView view;
 
-	/** DAO used for persistence operations on movies. */
-	private final MovieDao movieDao;
+	/** Catalogue size above which searching is done by the database by default. */
+	public static final int DEFAULT_SERVER_SEARCH_THRESHOLD = 20_000;
+
+	/** Most rows shown for one server-side search. */
+	private static final int SEARCH_LIMIT = 200;
+
+	/** DAO used for persistence operations on movies (called asynchronously). */
+	private final AsyncDao<MovieDao> movieDao;
+
+	/** Row count above which the view searches the database instead of memory. */
+	private final int serverSearchThreshold;
 
 	/**
 	 * Constructs a controller with an explicit view and DAO.
@@ -41,23 +60,36 @@ public class MovieController {
 	 * @param movieDao the data access object for movies
 	 */
 	public MovieController(MovieView view, MovieDao movieDao) {
+		this(view, movieDao, DEFAULT_SERVER_SEARCH_THRESHOLD);
+	}
+
+	/**
+	 * Constructs a controller that switches the view to server-side search when
+	 * the catalogue has more than {@code serverSearchThreshold} movies.
+	 *
+	 * @param view                  the movie view
+	 * @param movieDao              the data access object for movies
+	 * @param serverSearchThreshold largest catalogue that is loaded into memory
+	 */
+	public MovieController(MovieView view, MovieDao movieDao, int serverSearchThreshold) {
 		this.view = view;
-		this.movieDao = movieDao;
+		this.movieDao = new AsyncDao<>(movieDao);
+		this.serverSearchThreshold = serverSearchThreshold;
 		initialize();
 	}
 
 	/**
-	 * Constructs a controller with a view and a JDBC connection.
+	 * Constructs a controller with a view and a data source.
 	 * 
 	 * <p>
 	 * This constructor creates a {@link MovieDaoImpl} internally.
 	 * </p>
 	 *
 	 * @param view       the movie view
-	 * @param connection the JDBC connection to be wrapped in a DAO
+	 * @param dataSource the data source to be wrapped in a DAO
 	 */
-	public MovieController(MovieView view, Connection connection) {
-		this(view, new MovieDaoImpl(connection));
+	public MovieController(MovieView view, DataSource dataSource) {
+		this(view, new MovieDaoImpl(dataSource));
 	}
 
 	/**
@@ -69,6 +101,7 @@ public class MovieController {
 	 * </p>
 	 */
 	private void initialize() {
+		view.setDescriptionLoader(movieDao.blocking()::findDescription);
 		refresh();
 		view.getAddButton().setOnAction(e -> addMovie());
 		view.getUpdateButton().setOnAction(e -> updateSelected());
@@ -79,16 +112,31 @@ public class MovieController {
 	 * Refreshes the movie list in the view.
 	 * 
 	 * <p>
-	 * Fetches movies from the DAO and updates the table in the UI.
+	 * Counts the movies first. Up to the server search threshold, all movies are
+	 * fetched in the background as summaries (without descriptions) and searched
+	 * in memory; above it, the view is switched to server-side search and only
+	 * the rows of each search are loaded. Either way the description of a movie
+	 * is loaded when it is selected.
 	 * </p>
 	 * Displays an error alert if loading fails.
 	 */
 	public void refresh() {
-		try {
-			view.setMovies(movieDao.findAll());
-		} catch (Exception ex) {
-			AlertUtils.showError("Failed to load movies:\n" + ex.getMessage());
+		if (view.isServerSearch()) {
+			view.refreshSearch();
+			return;
 		}
+		movieDao.supply(MovieDao::count).thenCompose(count -> {
+			if (count > serverSearchThreshold) {
+				MovieDao dao = movieDao.blocking();
+				view.useServerSearch(q -> dao.search(q, SEARCH_LIMIT, 0));
+				return CompletableFuture.<Void>completedFuture(null);
+			}
+			return movieDao.supply(MovieDao::findAllSummaries).thenAccept(view::setMovies);
+		}).whenComplete((done, ex) -> {
+			if (ex != null) {
+				AlertUtils.showError("Failed to load movies:\n" + ex.getMessage());
+			}
+		});
 	}
 
 	/**
@@ -96,8 +144,9 @@ public class MovieController {
 	 * 
 	 * <p>
 	 * Validates that the title is provided and that duration/release year are
-	 * numeric values. If validation passes, the movie is saved via the DAO, and a
-	 * confirmation is shown. Otherwise, a warning or error alert is displayed.
+	 * numeric values. If validation passes, the movie is saved via the DAO, added
+	 * to the table and a confirmation is shown. Otherwise, a warning or error
+	 * alert is displayed.
 	 * </p>
 	 */
 	private void addMovie() {
@@ -123,9 +172,18 @@ public class MovieController {
 			newMovie.setDuration(duration);
 			newMovie.setReleaseYear(year);
 
-			movieDao.save(newMovie);
-			AlertUtils.showInfo("Movie Added", "Movie \"" + title + "\" added successfully.");
-			refresh();
+			movieDao.supply(dao -> dao.save(newMovie)).whenComplete((saved, ex) -> {
+				if (ex != null || saved == null) {
+					AlertUtils.showError("Failed to add movie:\n" + (ex != null ? ex.getMessage() : title));
+				} else {
+					AlertUtils.showInfo("Movie Added", "Movie \"" + title + "\" added successfully.");
+					if (view.isServerSearch()) {
+						view.refreshSearch();
+					} else {
+						view.getMovies().add(saved);
+					}
+				}
+			});
 
 		} catch (NumberFormatException nfe) {
 			AlertUtils.showWarning("Duration and Release Year must be numbers.");
@@ -140,17 +198,20 @@ public class MovieController {
 	 * <p>
 	 * If no movie is selected, a warning is shown. Otherwise, the details are read
 	 * from the input fields, validated, and persisted via the DAO. A confirmation
-	 * is shown on success.
+	 * is shown on success. A row that is only a summary is replaced by a full
+	 * movie built from its ID and the input fields.
 	 * </p>
 	 */
 	private void updateSelected() {
-		Movie selected = view.getMovieTable().getSelectionModel().getSelectedItem();
-		if (selected == null) {
+		MovieSummary row = view.getMovieTable().getSelectionModel().getSelectedItem();
+		if (row == null) {
 			AlertUtils.showWarning("Please select a movie to update.");
 			return;
 		}
 
 		try {
+			Movie selected = row instanceof Movie m ? m : new Movie();
+			selected.setMovieId(row.getMovieId());
 			selected.setTitle(view.getTitleField().getText().trim());
 			selected.setDescription(view.getDescriptionArea().getText().trim());
 			selected.setGenre(view.getGenreField().getText().trim());
@@ -158,9 +219,19 @@ public class MovieController {
 			selected.setDuration(Integer.parseInt(view.getDurationField().getText().trim()));
 			selected.setReleaseYear(Integer.parseInt(view.getReleaseYearField().getText().trim()));
 
-			movieDao.update(selected);
-			AlertUtils.showInfo("Movie Updated", "Changes to \"" + selected.getTitle() + "\" saved.");
-			refresh();
+			movieDao.supply(dao -> dao.update(selected)).whenComplete((updated, ex) -> {
+				if (ex != null || updated == null) {
+					AlertUtils.showError(
+							"Failed to update movie:\n" + (ex != null ? ex.getMessage() : selected.getTitle()));
+				} else {
+					AlertUtils.showInfo("Movie Updated", "Changes to \"" + selected.getTitle() + "\" saved.");
+					if (view.isServerSearch()) {
+						view.refreshSearch();
+					} else {
+						ListPatches.upsert(view.getMovies(), updated, MovieSummary::getMovieId);
+					}
+				}
+			});
 		} catch (NumberFormatException nfe) {
 			AlertUtils.showWarning("Duration and Release Year must be numbers.");
 		} catch (Exception ex) {
@@ -173,21 +244,28 @@ public class MovieController {
 	 * 
 	 * <p>
 	 * If no movie is selected, a warning is shown. Otherwise, the movie is deleted
-	 * via the DAO, and the list is refreshed.
+	 * via the DAO and removed from the table; the rest of the list is not
+	 * reloaded.
 	 * </p>
 	 */
 	private void deleteSelected() {
-		Movie selected = view.getMovieTable().getSelectionModel().getSelectedItem();
+		MovieSummary selected = view.getMovieTable().getSelectionModel().getSelectedItem();
 		if (selected == null) {
 			AlertUtils.showWarning("Please select a movie to delete.");
 			return;
 		}
-		try {
-			movieDao.delete(selected.getMovieId());
-			AlertUtils.showInfo("Movie Deleted", "Movie \"" + selected.getTitle() + "\" deleted successfully.");
-			refresh();
-		} catch (Exception ex) {
-			AlertUtils.showError("Failed to delete movie:\n" + ex.getMessage());
-		}
+		movieDao.supply(dao -> dao.delete(selected.getMovieId())).whenComplete((deleted, ex) -> {
+			if (ex != null || !deleted) {
+				AlertUtils.showError(
+						"Failed to delete movie:\n" + (ex != null ? ex.getMessage() : selected.getTitle()));
+			} else {
+				AlertUtils.showInfo("Movie Deleted", "Movie \"" + selected.getTitle() + "\" deleted successfully.");
+				if (view.isServerSearch()) {
+					view.refreshSearch();
+				} else {
+					ListPatches.remove(view.getMovies(), selected.getMovieId(), MovieSummary::getMovieId);
+				}
+			}
+		});
 	}
 }
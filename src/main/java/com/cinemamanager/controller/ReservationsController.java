@@ -1,66 +1,97 @@
 package com.cinemamanager.controller;
 
-import java.sql.Connection;
-import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
 
+import com.cinemamanager.dao.AsyncDao;
 import com.cinemamanager.dao.CustomerDao;
 import com.cinemamanager.dao.ReservationsDao;
-import com.cinemamanager.dao.ReservationsDaoImpl;
 import com.cinemamanager.dao.ScreeningDao;
-import com.cinemamanager.dao.ScreeningDaoImpl;
 import com.cinemamanager.model.Customer;
 import com.cinemamanager.model.Reservation;
 import com.cinemamanager.model.Screening;
+import com.cinemamanager.model.ScreeningDetails;
+import com.cinemamanager.service.ReservationService;
+import com.cinemamanager.service.SeatHoldService;
 import com.cinemamanager.util.AlertUtils;
+import com.cinemamanager.util.AsyncExecutors;
+import com.cinemamanager.util.LruCache;
+import com.cinemamanager.util.PagedList;
 import com.cinemamanager.view.ReservationView;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-
 public class ReservationsController {
 
-	private final ReservationView view;
-	private final ReservationsDao reservationsDao;
-	private final CustomerDao customerDao;
-	private final ScreeningDao screeningDao;
+	private static final int RESERVATION_PAGE_SIZE = 200;
+	private static final int RESERVATION_PAGES_KEPT = 10;
+	// room for the names of every loaded row with some to spare
+	private static final int CUSTOMER_NAMES_CACHED = 2 * RESERVATION_PAGE_SIZE * RESERVATION_PAGES_KEPT;
+	private static final int CUSTOMER_MATCHES = 20;
+	private static final DateTimeFormatter HOLD_TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
 
-	private final ObservableList<Reservation> reservationList = FXCollections.observableArrayList();
+	private final ReservationView view;
+	private final AsyncDao<ReservationsDao> reservationsDao;
+	private final AsyncDao<CustomerDao> customerDao;
+	private final AsyncDao<ScreeningDao> screeningDao;
+	private final ReservationService reservationService;
+	private final SeatHoldService seatHoldService;
+
+	// seat held for the customer at the counter, confirmed by "Add" (FX thread only)
+	private SeatHoldService.Hold pendingHold;
+	// idempotency token of an Add whose outcome is unknown, for customer:screening
+	private String pendingToken;
+	private String pendingTokenKey;
+
+	// only the pages around the visible rows are in memory
+	private final PagedList<Reservation> reservationList;
+	// names of the customers on loaded pages, filled when a page is fetched
+	private final LruCache<Integer, String> customerNames = new LruCache<>(CUSTOMER_NAMES_CACHED, 0);
 
 	public ReservationsController(ReservationView view, ReservationsDao reservationsDao, CustomerDao customerDao,
-			ScreeningDao screeningDao) {
+			ScreeningDao screeningDao, ReservationService reservationService, SeatHoldService seatHoldService) {
 		this.view = view;
-		this.reservationsDao = reservationsDao;
-		this.customerDao = customerDao;
-		this.screeningDao = screeningDao;
-		initialize();
-	}
+		this.reservationsDao = new AsyncDao<>(reservationsDao);
+		this.reservationList = new PagedList<>(new PagedList.PageSource<>() {
+			@Override
+			public int count() {
+				return reservationsDao.count();
+			}
 
-	public static ReservationsController withConnection(ReservationView view, Connection connection,
-			CustomerDao customerDao) {
-		return new ReservationsController(view, new ReservationsDaoImpl(connection), customerDao,
-				new ScreeningDaoImpl(connection));
+			@Override
+			public List<Reservation> fetch(int offset, int limit, Reservation after) {
+				// seek from the previous page when it is loaded, OFFSET only for jumps
+				List<Reservation> rows = after != null ? reservationsDao.findPage(after, limit).getItems()
+						: reservationsDao.findSlice(offset, limit);
+				loadCustomerNames(rows);
+				return rows;
+			}
+		}, RESERVATION_PAGE_SIZE, RESERVATION_PAGES_KEPT);
+		this.customerDao = new AsyncDao<>(customerDao);
+		this.screeningDao = new AsyncDao<>(screeningDao);
+		this.reservationService = reservationService;
+		this.seatHoldService = seatHoldService;
+		initialize();
 	}
 
 	private void initialize() {
-		try {
-			view.setCustomers(customerDao.getAllCustomers());
-
-			// Try upcoming first; if none, show all
-			List<Screening> screenings = screeningDao.findUpcoming();
-			if (screenings == null || screenings.isEmpty()) {
-				screenings = screeningDao.findAll();
-			}
-			view.setScreenings(screenings);
-
-		} catch (Exception ex) {
-			AlertUtils.showError("Failed to load customers/screenings:\n" + ex.getMessage());
-		}
+		view.setCustomerSearch(text -> customerDao.blocking().search(text, CUSTOMER_MATCHES));
+		view.setCustomerNames(id -> customerNames.getIfPresent(id));
+		loadScreenings();
 
 		loadReservations();
 		view.getReservationTable().setItems(reservationList);
 
 		view.getAddButton().setOnAction(e -> addReservation());
+		if (seatHoldService != null) {
+			view.getHoldButton().setOnAction(e -> holdSeat());
+		} else {
+			view.getHoldButton().setVisible(false);
+		}
 		view.getUpdateButton().setOnAction(e -> updateReservation());
 		view.getDeleteButton().setOnAction(e -> deleteReservation());
 		view.getRefreshButton().setOnAction(e -> refreshReservations()); // 🔹 new
@@ -70,23 +101,35 @@ public class ReservationsController {
 	}
 
 	private void loadReservations() {
-		reservationList.setAll(reservationsDao.findAll());
+		reservationList.refresh().whenComplete((v, ex) -> {
+			if (ex != null) {
+				AlertUtils.showError("Failed to load reservations:\n" + ex.getMessage());
+			}
+		});
 	}
 
-	private void refreshReservations() {
-		// Reload reservations
-		loadReservations();
+	// called on the page fetch thread: one query for the names the cells will need
+	private void loadCustomerNames(List<Reservation> rows) {
+		Set<Integer> missing = new HashSet<>();
+		for (Reservation r : rows) {
+			if (customerNames.getIfPresent(r.getCustomerId()) == null) {
+				missing.add(r.getCustomerId());
+			}
+		}
+		if (!missing.isEmpty()) {
+			customerDao.blocking().findNames(missing).forEach(customerNames::put);
+		}
+	}
 
-		// Reload customers
-		List<Customer> customers = customerDao.getAllCustomers();
-		view.setCustomers(customers);
+	private void rememberCustomerName(Customer customer) {
+		customerNames.put(customer.getId(), customer.getFirstName() + " " + customer.getLastName());
+	}
 
-		// Reload screenings (upcoming preferred)
-		List<Screening> screenings = screeningDao.findUpcoming();
-		if (screenings == null || screenings.isEmpty()) {
-			screenings = screeningDao.findAll();
-		}
-		view.setScreenings(screenings);
+	private void refreshReservations() {
+		// Reload reservations (with fresh customer names) and screenings (upcoming preferred)
+		customerNames.invalidateAll();
+		loadReservations();
+		loadScreenings();
 
 		// Clear form after refresh
 		view.clearForm();
@@ -94,11 +137,24 @@ public class ReservationsController {
 
 	/** If screenings change elsewhere, call this to repopulate the combo. */
 	public void refreshScreenings() {
-		List<Screening> screenings = screeningDao.findUpcoming();
-		if (screenings == null || screenings.isEmpty()) {
-			screenings = screeningDao.findAll();
-		}
-		view.setScreenings(screenings);
+		loadScreenings();
+	}
+
+	private void loadScreenings() {
+		screeningDao.supply(dao -> {
+			// Try upcoming first; if none, show all
+			List<ScreeningDetails> screenings = dao.findUpcomingDetails();
+			if (screenings == null || screenings.isEmpty()) {
+				screenings = dao.findAllDetails();
+			}
+			return screenings;
+		}).whenComplete((screenings, ex) -> {
+			if (ex != null) {
+				AlertUtils.showError("Failed to load screenings:\n" + ex.getMessage());
+			} else {
+				view.setScreenings(screenings);
+			}
+		});
 	}
 
 	private void onReservationSelected(Reservation sel) {
@@ -107,13 +163,17 @@ public class ReservationsController {
 			return;
 		}
 
-		// Select matching customer
-		view.getCustomerCombo().getItems().stream().filter(c -> c.getId() == sel.getCustomerId()).findFirst()
-				.ifPresent(c -> view.getCustomerCombo().getSelectionModel().select(c));
-
-		// Select matching screening
-		view.getScreeningCombo().getItems().stream().filter(s -> s.getScreeningId() == sel.getScreeningId()).findFirst()
-				.ifPresent(s -> view.getScreeningCombo().getSelectionModel().select(s));
+		// both combos are indexed by id; only a customer not in the picker is loaded
+		view.selectScreening(sel.getScreeningId());
+		int customerId = sel.getCustomerId();
+		if (!view.selectCustomer(customerId)) {
+			customerDao.supply(dao -> dao.getCustomerById(customerId)).whenComplete((customer, ex) -> {
+				if (ex == null && customer != null
+						&& view.getReservationTable().getSelectionModel().getSelectedItem() == sel) {
+					view.selectCustomer(customer);
+				}
+			});
+		}
 	}
 
 	private void addReservation() {
@@ -129,19 +189,88 @@ public class ReservationsController {
 			return;
 		}
 
-		try {
-			Reservation r = new Reservation();
-			r.setCustomerId(customer.getId());
-			r.setScreeningId(screening.getScreeningId());
-			r.setReservationTime(LocalDateTime.now());
+		// a retry for the same selection reuses the token, so a booking that went
+		// through before the failure is returned instead of made twice
+		String key = customer.getId() + ":" + screening.getScreeningId();
+		if (pendingToken == null || !key.equals(pendingTokenKey)) {
+			pendingToken = UUID.randomUUID().toString();
+			pendingTokenKey = key;
+		}
+		String token = pendingToken;
+
+		// confirm the seat held for this customer, or book the best free seat; seat
+		// count and insert are one transaction and a sold-out screening is refused
+		SeatHoldService.Hold hold = pendingHold;
+		pendingHold = null;
+		Supplier<Reservation> booking;
+		if (hold != null && hold.getCustomerId() == customer.getId()
+				&& hold.getScreeningId() == screening.getScreeningId()) {
+			booking = () -> seatHoldService.confirm(hold.getId(), token);
+		} else {
+			if (hold != null) {
+				seatHoldService.release(hold.getId());
+			}
+			booking = () -> reservationService.reserve(customer.getId(), screening.getScreeningId(), token);
+		}
 
-			reservationsDao.save(r);
-			AlertUtils.showInfo("Reservation Added", "Reservation created successfully.");
-			loadReservations();
-			view.clearForm();
-		} catch (Exception ex) {
-			AlertUtils.showError("Failed to add reservation:\n" + ex.getMessage());
+		view.getAddButton().setDisable(true);
+		AsyncExecutors.supply(booking).whenComplete((r, ex) -> {
+			view.getAddButton().setDisable(false);
+			if (ex == null || ex instanceof IllegalStateException) {
+				// settled either way: the next Add is a new request
+				pendingToken = null;
+				pendingTokenKey = null;
+			}
+			if (ex instanceof IllegalStateException) {
+				AlertUtils.showWarning(ex.getMessage());
+			} else if (ex != null) {
+				AlertUtils.showError("Failed to add reservation:\n" + ex.getMessage());
+			} else {
+				AlertUtils.showInfo("Reservation Added", "Reservation created successfully.");
+				rememberCustomerName(customer);
+				// newest first: the booking is row 0; a replayed request is already listed
+				if (!reservationList.replaceLoaded(r, Reservation::getReservationId)) {
+					reservationList.addFirst(r);
+				}
+				loadScreenings(); // seat counts changed
+				view.clearForm();
+			}
+		});
+	}
+
+	private void holdSeat() {
+		Customer customer = view.getSelectedCustomer();
+		Screening screening = view.getSelectedScreening();
+
+		if (customer == null) {
+			AlertUtils.showWarning("Please select a customer.");
+			return;
+		}
+		if (screening == null) {
+			AlertUtils.showWarning("Please select a screening.");
+			return;
 		}
+
+		// one hold per counter: a new hold gives the previous seat back
+		SeatHoldService.Hold previous = pendingHold;
+		pendingHold = null;
+		AsyncExecutors.supply(() -> {
+			if (previous != null) {
+				seatHoldService.release(previous.getId());
+			}
+			return seatHoldService.holdBestAvailable(customer.getId(), screening.getScreeningId(), 1);
+		}).whenComplete((hold, ex) -> {
+			if (ex instanceof IllegalStateException) {
+				AlertUtils.showWarning(ex.getMessage());
+			} else if (ex != null) {
+				AlertUtils.showError("Failed to hold a seat:\n" + ex.getMessage());
+			} else {
+				pendingHold = hold;
+				String until = HOLD_TIME.format(LocalTime.ofInstant(hold.getExpiresAt(), ZoneId.systemDefault()));
+				AlertUtils.showInfo("Seat Held", "Seat " + hold.getSeats().get(0) + " is held until " + until
+						+ ".\nClick Add to confirm the reservation.");
+			}
+		});
 	}
 
 	private void updateReservation() {
@@ -163,18 +292,28 @@ public class ReservationsController {
 			return;
 		}
 
-		try {
-			selected.setCustomerId(customer.getId());
-			selected.setScreeningId(screening.getScreeningId());
-			selected.setReservationTime(LocalDateTime.now());
-
-			reservationsDao.update(selected);
-			AlertUtils.showInfo("Reservation Updated", "Reservation updated successfully.");
-			loadReservations();
-			view.clearForm();
-		} catch (Exception ex) {
-			AlertUtils.showError("Failed to update reservation:\n" + ex.getMessage());
-		}
+		// the service edits a copy on a background thread; the shown row changes only on success
+		Reservation changed = selected.copy();
+		AsyncExecutors.run(() -> reservationService.change(changed, customer.getId(), screening.getScreeningId()))
+				.whenComplete((v, ex) -> {
+					if (ex instanceof IllegalStateException) {
+						AlertUtils.showWarning(ex.getMessage());
+					} else if (ex != null) {
+						AlertUtils.showError("Failed to update reservation:\n" + ex.getMessage());
+					} else {
+						AlertUtils.showInfo("Reservation Updated", "Reservation updated successfully.");
+						rememberCustomerName(customer);
+						// the new reservation time moves it to the top; if its page was
+						// evicted its position is unknown, so re-count instead
+						if (reservationList.removeLoaded(selected, Reservation::getReservationId)) {
+							reservationList.addFirst(changed);
+						} else {
+							loadReservations();
+						}
+						loadScreenings(); // seat counts changed
+						view.clearForm();
+					}
+				});
 	}
 
 	private void deleteReservation() {
@@ -183,13 +322,17 @@ public class ReservationsController {
 			AlertUtils.showWarning("Please select a reservation to delete.");
 			return;
 		}
-		try {
-			reservationsDao.delete(selected.getReservationId());
-			AlertUtils.showInfo("Reservation Deleted", "Reservation deleted successfully.");
-			loadReservations();
-			view.clearForm();
-		} catch (Exception ex) {
-			AlertUtils.showError("Failed to delete reservation:\n" + ex.getMessage());
-		}
+		AsyncExecutors.run(() -> reservationService.cancel(selected)).whenComplete((v, ex) -> {
+			if (ex != null) {
+				AlertUtils.showError("Failed to delete reservation:\n" + ex.getMessage());
+			} else {
+				AlertUtils.showInfo("Reservation Deleted", "Reservation deleted successfully.");
+				if (!reservationList.removeLoaded(selected, Reservation::getReservationId)) {
+					loadReservations();
+				}
+				loadScreenings(); // seat counts changed
+				view.clearForm();
+			}
+		});
 	}
 }
@@ -3,6 +3,7 @@ package com.cinemamanager.controller;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.cinemamanager.dao.HallDao;
@@ -10,8 +11,10 @@ import com.cinemamanager.dao.MovieDao;
 import com.cinemamanager.dao.ScreeningDao;
 import com.cinemamanager.model.Hall;
 import com.cinemamanager.model.Movie;
-import com.cinemamanager.model.Screening;
+import com.cinemamanager.model.ScreeningDetails;
+import com.cinemamanager.service.ScreeningService;
 import com.cinemamanager.util.AlertUtils;
+import com.cinemamanager.util.AsyncExecutors;
 import com.cinemamanager.view.ScheduleScreeningView;
 
 public class SchedullingController {
@@ -20,47 +23,52 @@ public class SchedullingController {
 	private final MovieDao movieDao;
 	private final HallDao hallDao;
 	private final ScreeningDao screeningDao;
+	private final ScreeningService screeningService;
 
 	public SchedullingController(ScheduleScreeningView view, MovieDao movieDao, HallDao hallDao,
-			ScreeningDao screeningDao) {
+			ScreeningDao screeningDao, ScreeningService screeningService) {
 		this.view = view;
 		this.movieDao = movieDao;
 		this.hallDao = hallDao;
 		this.screeningDao = screeningDao;
+		this.screeningService = screeningService;
 		initialize();
 	}
 
-	private void initialize() {
-		try {
-			List<Movie> movies = movieDao.findAll();
-			List<Hall> halls = hallDao.findAll();
-			view.setMovies(movies);
-			view.setHalls(halls);
-
-			// 🔹 Load existing screenings into the table
-			List<Screening> screenings = screeningDao.findAll();
-			for (Screening s : screenings) {
-				// lookup movie and hall names
-				String movieTitle = movies.stream().filter(m -> m.getMovieId() == s.getMovieId()).map(Movie::getTitle)
-						.findFirst().orElse("Unknown");
-
-				String hallName = halls.stream().filter(h -> h.getHallId() == s.getHallId()).map(Hall::getName)
-						.findFirst().orElse("Unknown");
-
-				view.getItems().add(new ScheduleScreeningView.ScreeningRow(movieTitle, hallName,
-						s.getStartTime().toLocalDate(), s.getStartTime().toLocalTime(), 120.0 // TODO: replace if you
-																								// persist price later
-				));
-			}
+	// everything the tab needs, loaded in one background task
+	private record InitialData(List<Movie> movies, List<Hall> halls, List<ScreeningDetails> screenings) {
+	}
 
-		} catch (Exception ex) {
-			AlertUtils.showError("Failed to load movies/halls/screenings:\n" + ex.getMessage());
-		}
+	private void initialize() {
+		AsyncExecutors.supply(() -> new InitialData(movieDao.findAll(), hallDao.findAll(), screeningDao.findAllDetails()))
+				.whenComplete((data, ex) -> {
+					if (ex != null) {
+						AlertUtils.showError("Failed to load movies/halls/screenings:\n" + ex.getMessage());
+					} else {
+						showInitialData(data);
+					}
+				});
 
 		// IMPORTANT: override the UI-only handler from the view with a DB-backed one
 		view.getScheduleButton().setOnAction(e -> handleSchedule());
 	}
 
+	private void showInitialData(InitialData data) {
+		view.setMovies(data.movies());
+		view.setHalls(data.halls());
+
+		// 🔹 Load existing screenings into the table (titles and names come joined
+		// from the DB; one setAll instead of a change event per row)
+		List<ScheduleScreeningView.ScreeningRow> rows = new ArrayList<>(data.screenings().size());
+		for (ScreeningDetails s : data.screenings()) {
+			rows.add(new ScheduleScreeningView.ScreeningRow(s.getMovieTitle(), s.getHallName(),
+					s.getStartTime().toLocalDate(), s.getStartTime().toLocalTime(), 120.0 // TODO: replace if you
+																							// persist price later
+			));
+		}
+		view.getItems().setAll(rows);
+	}
+
 	private void handleSchedule() {
 		Movie movie = view.getMovieCombo().getValue();
 		Hall hall = view.getHallCombo().getValue();
@@ -83,40 +91,24 @@ public class SchedullingController {
 		}
 
 		LocalDateTime start = LocalDateTime.of(date, LocalTime.of(h, m));
-		LocalDateTime end = start.plusMinutes(movie.getDuration()); // end = start + movie duration
-
-		// Optional: check overlap
-		try {
-			boolean overlaps = screeningDao.existsOverlap(hall.getHallId(), start, end);
-			if (overlaps) {
-				AlertUtils.showWarning("There is already a screening that overlaps in this hall.");
-				return;
-			}
-		} catch (Exception ex) {
-			AlertUtils.showError("Failed to check overlaps:\n" + ex.getMessage());
-			return;
-		}
-
-		// Persist screening
-		try {
-			Screening s = new Screening();
-			s.setMovieId(movie.getMovieId());
-			s.setHallId(hall.getHallId());
-			s.setStartTime(start);
-			s.setEndTime(end);
-
-			screeningDao.save(s);
-
-			// Update the UI table (purely presentational)
-			double price = parsePriceOrDefault(view.getPriceField().getText(), 120.0); // not saved (see note)
-			view.getItems().add(new ScheduleScreeningView.ScreeningRow(movie.getTitle(), hall.getName(), date,
-					LocalTime.of(h, m), price));
-			view.getTable().scrollTo(view.getItems().size() - 1);
-			view.getFormMessageLabel().setText("Screening saved to database.");
-
-		} catch (Exception ex) {
-			AlertUtils.showError("Failed to save screening:\n" + ex.getMessage());
-		}
+		double price = parsePriceOrDefault(view.getPriceField().getText(), 120.0); // not saved (see note)
+
+		// Overlap check and insert run atomically in the background (the service
+		// locks the hall); the UI thread never waits on JDBC
+		AsyncExecutors.supply(() -> screeningService.scheduleScreening(movie.getMovieId(), hall.getHallId(), start))
+				.whenComplete((saved, ex) -> {
+				if (ex instanceof IllegalStateException) {
+					AlertUtils.showWarning("There is already a screening that overlaps in this hall.");
+				} else if (ex != null) {
+					AlertUtils.showError("Failed to save screening:\n" + ex.getMessage());
+				} else {
+					// Update the UI table (purely presentational)
+					view.getItems().add(new ScheduleScreeningView.ScreeningRow(movie.getTitle(), hall.getName(), date,
+							LocalTime.of(h, m), price));
+					view.getTable().scrollTo(view.getItems().size() - 1);
+					view.getFormMessageLabel().setText("Screening saved to database.");
+				}
+			});
 	}
 
 	private double parsePriceOrDefault(String text, double def) {
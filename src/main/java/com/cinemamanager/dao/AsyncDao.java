@@ -0,0 +1,53 @@
+package com.cinemamanager.dao;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.cinemamanager.util.AsyncExecutors;
+
+/**
+ * Asynchronous facade over any DAO interface.
+ *
+ * <p>
+ * Each call runs on a virtual thread and the returned future completes on the
+ * JavaFX application thread, so controllers can update views from the callback
+ * while the UI thread never blocks on JDBC:
+ * </p>
+ *
+ * <pre>
+ * AsyncDao&lt;MovieDao&gt; movies = new AsyncDao&lt;&gt;(movieDao);
+ * movies.supply(MovieDao::findAll).whenComplete((list, ex) -&gt; {
+ * 	if (ex != null)
+ * 		AlertUtils.showError(ex.getMessage());
+ * 	else
+ * 		view.setMovies(list);
+ * });
+ * </pre>
+ *
+ * @param <D> the DAO interface, e.g. {@link MovieDao}
+ */
+public class AsyncDao<D> {
+
+	private final D dao;
+
+	public AsyncDao(D dao) {
+		this.dao = Objects.requireNonNull(dao);
+	}
+
+	/** Runs a query against the DAO in the background. */
+	public <R> CompletableFuture<R> supply(Function<? super D, ? extends R> query) {
+		return AsyncExecutors.supply(() -> query.apply(dao));
+	}
+
+	/** Runs a command (save/update/delete) against the DAO in the background. */
+	public CompletableFuture<Void> run(Consumer<? super D> command) {
+		return AsyncExecutors.run(() -> command.accept(dao));
+	}
+
+	/** @return the wrapped (blocking) DAO, for use on background threads only */
+	public D blocking() {
+		return dao;
+	}
+}
@@ -0,0 +1,78 @@
+package com.cinemamanager.dao;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.cinemamanager.model.Hall;
+import com.cinemamanager.util.LruCache;
+
+/**
+ * Read-through cache in front of a {@link HallDao}; see {@link CachingMovieDao}.
+ * {@link #lockById(int)} always goes to the database, since its point is the
+ * row lock, and so does every read inside a transaction.
+ */
+public class CachingHallDao implements HallDao {
+
+	private final HallDao delegate;
+	private final LruCache<Integer, Hall> cache;
+	private final TransactionManager transactions;
+
+	public CachingHallDao(HallDao delegate, LruCache<Integer, Hall> cache, TransactionManager transactions) {
+		this.delegate = Objects.requireNonNull(delegate);
+		this.cache = Objects.requireNonNull(cache);
+		this.transactions = transactions;
+	}
+
+	/** @return the cache backing {@link #findById(int)}, for its metrics */
+	public LruCache<Integer, Hall> getCache() {
+		return cache;
+	}
+
+	@Override
+	public Hall findById(int id) {
+		if (transactions != null && transactions.isActive()) {
+			return delegate.findById(id);
+		}
+		return cache.get(id, delegate::findById);
+	}
+
+	@Override
+	public Hall lockById(int id) {
+		return delegate.lockById(id);
+	}
+
+	@Override
+	public List<Hall> findAll() {
+		return delegate.findAll();
+	}
+
+	@Override
+	public Page<Hall> findPage(Hall after, int limit) {
+		return delegate.findPage(after, limit);
+	}
+
+	@Override
+	public void save(Hall hall) {
+		delegate.save(hall);
+		invalidate(hall.getHallId());
+	}
+
+	@Override
+	public void update(Hall hall) {
+		delegate.update(hall);
+		invalidate(hall.getHallId());
+	}
+
+	@Override
+	public void delete(int id) {
+		delegate.delete(id);
+		invalidate(id);
+	}
+
+	private void invalidate(int id) {
+		cache.invalidate(id);
+		if (transactions != null) {
+			transactions.afterCommit(() -> cache.invalidate(id));
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package com.cinemamanager.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import com.cinemamanager.model.Movie;
+import com.cinemamanager.model.MovieSummary;
+import com.cinemamanager.util.LruCache;
+
+/**
+ * Read-through cache in front of a {@link MovieDao}.
+ * 
+ * <p>
+ * {@link #findById(int)} is answered from an {@link LruCache}, and
+ * {@link #findDescription(int)} from the cached movie or a second, separately
+ * bounded cache of descriptions; every other read goes to the wrapped DAO.
+ * Writes through this decorator invalidate the affected entries right away and
+ * again once the surrounding transaction commits. A reader that loaded the old
+ * row before the commit may still return it, but cannot cache it: the cache
+ * drops values loaded across an invalidation. Inside a transaction the cache is
+ * neither read nor filled, so the transaction sees its own writes and a row it
+ * has not committed (and may roll back) never reaches other callers. Cached
+ * movies are shared between callers and must be treated as read-only.
+ * </p>
+ */
+public class CachingMovieDao implements MovieDao {
+
+	private final MovieDao delegate;
+	private final LruCache<Integer, Movie> cache;
+	private final LruCache<Integer, String> descriptions;
+	private final TransactionManager transactions;
+
+	/**
+	 * Creates the decorator without a description cache.
+	 *
+	 * @param delegate     the JDBC-backed DAO
+	 * @param cache        the cache to use (its size and TTL decide eviction)
+	 * @param transactions used to bypass the cache inside transactions and to
+	 *                     repeat invalidation after commit; may be
+	 *                     {@code null}
+	 */
+	public CachingMovieDao(MovieDao delegate, LruCache<Integer, Movie> cache, TransactionManager transactions) {
+		this(delegate, cache, new LruCache<>(0, 0), transactions);
+	}
+
+	/**
+	 * @param delegate     the JDBC-backed DAO
+	 * @param cache        the cache of whole movies
+	 * @param descriptions the cache of descriptions loaded on their own
+	 * @param transactions used to bypass the cache inside transactions and to
+	 *                     repeat invalidation after commit; may be
+	 *                     {@code null}
+	 */
+	public CachingMovieDao(MovieDao delegate, LruCache<Integer, Movie> cache, LruCache<Integer, String> descriptions,
+			TransactionManager transactions) {
+		this.delegate = Objects.requireNonNull(delegate);
+		this.cache = Objects.requireNonNull(cache);
+		this.descriptions = Objects.requireNonNull(descriptions);
+		this.transactions = transactions;
+	}
+
+	/**
+	 * Returns the cache, e.g. to read its hit rate and eviction count.
+	 * 
+	 * @return the cache backing {@link #findById(int)}
+	 */
+	public LruCache<Integer, Movie> getCache() {
+		return cache;
+	}
+
+	@Override
+	public Movie findById(int id) {
+		if (inTransaction()) {
+			return delegate.findById(id);
+		}
+		return cache.get(id, delegate::findById);
+	}
+
+	/**
+	 * Returns the description cache, e.g. to read its hit rate.
+	 * 
+	 * @return the cache backing {@link #findDescription(int)}
+	 */
+	public LruCache<Integer, String> getDescriptionCache() {
+		return descriptions;
+	}
+
+	@Override
+	public List<Movie> findAll() {
+		return delegate.findAll();
+	}
+
+	@Override
+	public List<MovieSummary> findAllSummaries() {
+		return delegate.findAllSummaries();
+	}
+
+	@Override
+	public String findDescription(int id) {
+		if (inTransaction()) {
+			return delegate.findDescription(id);
+		}
+		Movie movie = cache.getIfPresent(id);
+		if (movie != null) {
+			return movie.getDescription() != null ? movie.getDescription() : "";
+		}
+		return descriptions.get(id, delegate::findDescription);
+	}
+
+	@Override
+	public Page<Movie> findPage(Movie after, int limit) {
+		return delegate.findPage(after, limit);
+	}
+
+	@Override
+	public int count() {
+		return delegate.count();
+	}
+
+	@Override
+	public List<MovieSummary> search(String query, int limit, int offset) {
+		return delegate.search(query, limit, offset);
+	}
+
+	@Override
+	public Stream<Movie> streamAll() {
+		return delegate.streamAll();
+	}
+
+	@Override
+	public Movie save(Movie movie) {
+		Movie saved = delegate.save(movie);
+		invalidate(movie.getMovieId());
+		return saved;
+	}
+
+	@Override
+	public void saveAll(Collection<Movie> movies, int batchSize) {
+		delegate.saveAll(movies, batchSize);
+		for (Movie movie : movies) {
+			invalidate(movie.getMovieId());
+		}
+	}
+
+	@Override
+	public Movie update(Movie movie) {
+		Movie updated = delegate.update(movie);
+		invalidate(movie.getMovieId());
+		return updated;
+	}
+
+	@Override
+	public boolean delete(int id) {
+		boolean deleted = delegate.delete(id);
+		invalidate(id);
+		return deleted;
+	}
+
+	private boolean inTransaction() {
+		return transactions != null && transactions.isActive();
+	}
+
+	private void invalidate(int id) {
+		cache.invalidate(id);
+		descriptions.invalidate(id);
+		if (transactions != null) {
+			transactions.afterCommit(() -> {
+				cache.invalidate(id);
+				descriptions.invalidate(id);
+			});
+		}
+	}
+}
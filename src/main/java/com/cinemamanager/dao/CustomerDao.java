@@ -1,17 +1,73 @@
 package com.cinemamanager.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import com.cinemamanager.model.Customer;
 
 public interface CustomerDao {
-	void addCustomer(Customer customer);
+	/** Inserts a customer and sets its generated id. @return the customer, or {@code null} if the insert failed */
+	Customer addCustomer(Customer customer);
 
-	void updateCustomer(Customer customer);
+	/** @return the customer, or {@code null} if the update failed */
+	Customer updateCustomer(Customer customer);
 
-	void deleteCustomer(int customerId);
+	/** @return {@code true} if a row was deleted */
+	boolean deleteCustomer(int customerId);
 
 	Customer getCustomerById(int customerId);
 
 	List<Customer> getAllCustomers();
+
+	/**
+	 * Typeahead lookup for customer pickers. A single word matches the start of
+	 * the last name or the e-mail address; several words match the start of the
+	 * first name (first word) and of the last name (the rest), as names are shown
+	 * "First Last". Both paths are served by the {@code last_name} and
+	 * {@code email} indexes, so the cost does not grow with the customer count.
+	 *
+	 * @param prefix text typed by the user
+	 * @param limit  maximum number of results
+	 * @return matches ordered by last name, first name; empty for a blank prefix
+	 */
+	List<Customer> search(String prefix, int limit);
+
+	/**
+	 * Loads the display names ("First Last") of the given customers in one query,
+	 * for rendering customer columns without loading every customer.
+	 *
+	 * @return customer id to name; ids that do not exist are missing
+	 */
+	Map<Integer, String> findNames(Collection<Integer> customerIds);
+
+	/**
+	 * Keyset-paginated variant of {@link #getAllCustomers()}, ordered by id.
+	 *
+	 * @param after the last customer of the previous page, or {@code null}
+	 * @param limit maximum number of rows in the page
+	 */
+	Page<Customer> getCustomersPage(Customer after, int limit);
+
+	/**
+	 * Streams every customer without materialising a list. The stream holds a database
+	 * connection until it is closed, so use try-with-resources.
+	 *
+	 * @throws DataAccessException if the query fails
+	 */
+	Stream<Customer> streamAll();
+
+	/**
+	 * Calls {@code action} for every customer, streaming rows from the database so
+	 * memory use stays flat.
+	 *
+	 * @throws DataAccessException if the query fails
+	 */
+	default void forEach(Consumer<? super Customer> action) {
+		try (Stream<Customer> rows = streamAll()) {
+			rows.forEach(action);
+		}
+	}
 }
@@ -4,71 +4,83 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
 
 import com.cinemamanager.model.Customer;
 import com.cinemamanager.util.AlertUtils;
 import com.cinemamanager.util.DatabaseConnection;
 
+import javafx.application.Platform;
+
 public class CustomerDaoImpl implements CustomerDao {
 
+	private final DataSource dataSource;
+
+	public CustomerDaoImpl() {
+		this(DatabaseConnection.getDataSource());
+	}
+
+	public CustomerDaoImpl(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
 	@Override
-	public void addCustomer(Customer customer) {
+	public Customer addCustomer(Customer customer) {
 		String sql = "INSERT INTO customer (first_name, last_name, email) VALUES (?, ?, ?)";
 
-		Connection conn = DatabaseConnection.getConnection();
-		if (conn == null) {
-			AlertUtils.showError("Failed to add customer. No database connection.");
-			return;
-		}
-
-		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+		try (Connection conn = openConnection();
+				PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 			stmt.setString(1, customer.getFirstName());
 			stmt.setString(2, customer.getLastName());
 			stmt.setString(3, customer.getEmail());
 			stmt.executeUpdate();
+			try (ResultSet keys = stmt.getGeneratedKeys()) {
+				if (keys.next())
+					customer.setId(keys.getInt(1));
+			}
+			return customer;
 		} catch (SQLException e) {
-			AlertUtils.showError("Error while adding customer: " + e.getMessage());
+			showError("Error while adding customer: " + e.getMessage());
+			return null;
 		}
 	}
 
 	@Override
-	public void updateCustomer(Customer customer) {
+	public Customer updateCustomer(Customer customer) {
 		String sql = "UPDATE customer SET first_name = ?, last_name = ?, email = ? WHERE customer_id = ?";
 
-		Connection conn = DatabaseConnection.getConnection();
-		if (conn == null) {
-			AlertUtils.showError("Failed to update customer. No database connection.");
-			return;
-		}
-
-		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+		try (Connection conn = openConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
 			stmt.setString(1, customer.getFirstName());
 			stmt.setString(2, customer.getLastName());
 			stmt.setString(3, customer.getEmail());
 			stmt.setInt(4, customer.getId());
 			stmt.executeUpdate();
+			return customer;
 		} catch (SQLException e) {
-			AlertUtils.showError("Error while updating customer: " + e.getMessage());
+			showError("Error while updating customer: " + e.getMessage());
+			return null;
 		}
 	}
 
 	@Override
-	public void deleteCustomer(int customerId) {
+	public boolean deleteCustomer(int customerId) {
 		String sql = "DELETE FROM customer WHERE customer_id = ?";
 
-		Connection conn = DatabaseConnection.getConnection();
-		if (conn == null) {
-			AlertUtils.showError("Failed to delete customer. No database connection.");
-			return;
-		}
-
-		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+		try (Connection conn = openConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
 			stmt.setInt(1, customerId);
-			stmt.executeUpdate();
+			return stmt.executeUpdate() > 0;
 		} catch (SQLException e) {
-			AlertUtils.showError("Error while deleting customer: " + e.getMessage());
+			showError("Error while deleting customer: " + e.getMessage());
+			return false;
 		}
 	}
 
@@ -77,21 +89,15 @@ public class CustomerDaoImpl implements CustomerDao {
 		String sql = "SELECT * FROM customer WHERE customer_id = ?";
 		Customer customer = null;
 
-		Connection conn = DatabaseConnection.getConnection();
-		if (conn == null) {
-			AlertUtils.showError("Failed to fetch customer. No database connection.");
-			return null;
-		}
-
-		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+		try (Connection conn = openConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
 			stmt.setInt(1, customerId);
-			ResultSet rs = stmt.executeQuery();
-			if (rs.next()) {
-				customer = new Customer(rs.getInt("customer_id"), rs.getString("first_name"), rs.getString("last_name"),
-						rs.getString("email"));
+			try (ResultSet rs = stmt.executeQuery()) {
+				if (rs.next()) {
+					customer = mapRow(rs);
+				}
 			}
 		} catch (SQLException e) {
-			AlertUtils.showError("Error while retrieving customer: " + e.getMessage());
+			showError("Error while retrieving customer: " + e.getMessage());
 		}
 
 		return customer;
@@ -102,24 +108,140 @@ public class CustomerDaoImpl implements CustomerDao {
 		String sql = "SELECT * FROM customer";
 		List<Customer> customers = new ArrayList<>();
 
-		Connection conn = DatabaseConnection.getConnection();
-		if (conn == null) {
-			AlertUtils.showError("Failed to load customers. No database connection.");
-			return customers;
-		}
-
-		try (PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+		try (Connection conn = openConnection();
+				PreparedStatement stmt = conn.prepareStatement(sql);
+				ResultSet rs = stmt.executeQuery()) {
 
 			while (rs.next()) {
-				Customer customer = new Customer(rs.getInt("customer_id"), rs.getString("first_name"),
-						rs.getString("last_name"), rs.getString("email"));
+				Customer customer = mapRow(rs);
 				customers.add(customer);
 			}
 
 		} catch (SQLException e) {
-			AlertUtils.showError("Error while loading customers: " + e.getMessage());
+			showError("Error while loading customers: " + e.getMessage());
 		}
 
 		return customers;
 	}
+
+	@Override
+	public Page<Customer> getCustomersPage(Customer after, int limit) {
+		int size = Math.max(1, limit);
+		String sql = "SELECT * FROM customer " + (after == null ? "" : "WHERE customer_id > ? ")
+				+ "ORDER BY customer_id ASC LIMIT ?";
+		List<Customer> customers = new ArrayList<>(size + 1);
+
+		try (Connection conn = openConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+			int i = 1;
+			if (after != null) {
+				stmt.setInt(i++, after.getId());
+			}
+			stmt.setInt(i, size + 1);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					customers.add(mapRow(rs));
+				}
+			}
+		} catch (SQLException e) {
+			showError("Error while loading customers: " + e.getMessage());
+		}
+
+		return Page.of(customers, size);
+	}
+
+	@Override
+	public List<Customer> search(String prefix, int limit) {
+		List<Customer> customers = new ArrayList<>();
+		String[] words = prefix == null ? new String[0] : prefix.trim().split("\\s+");
+		if (words.length == 0 || words[0].isEmpty()) {
+			return customers;
+		}
+
+		String sql;
+		List<Object> params = new ArrayList<>();
+		if (words.length == 1) {
+			// each branch reads its own index; the outer query merges the two short lists
+			sql = "(SELECT * FROM customer WHERE last_name LIKE ? ESCAPE '!' ORDER BY last_name, first_name LIMIT ?) "
+					+ "UNION (SELECT * FROM customer WHERE email LIKE ? ESCAPE '!' ORDER BY email LIMIT ?) "
+					+ "ORDER BY last_name, first_name, customer_id LIMIT ?";
+			String pattern = escapeLike(words[0]) + "%";
+			params.addAll(List.of(pattern, limit, pattern, limit, limit));
+		} else {
+			sql = "SELECT * FROM customer WHERE last_name LIKE ? ESCAPE '!' AND first_name LIKE ? ESCAPE '!' "
+					+ "ORDER BY last_name, first_name, customer_id LIMIT ?";
+			String lastName = String.join(" ", List.of(words).subList(1, words.length));
+			params.addAll(List.of(escapeLike(lastName) + "%", escapeLike(words[0]) + "%", limit));
+		}
+
+		try (Connection conn = openConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+			for (int i = 0; i < params.size(); i++) {
+				stmt.setObject(i + 1, params.get(i));
+			}
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					customers.add(mapRow(rs));
+				}
+			}
+		} catch (SQLException e) {
+			showError("Error while searching customers: " + e.getMessage());
+		}
+
+		return customers;
+	}
+
+	@Override
+	public Map<Integer, String> findNames(Collection<Integer> customerIds) {
+		Map<Integer, String> names = new HashMap<>();
+		if (customerIds.isEmpty()) {
+			return names;
+		}
+		String sql = "SELECT customer_id, first_name, last_name FROM customer WHERE customer_id IN ("
+				+ String.join(", ", Collections.nCopies(customerIds.size(), "?")) + ")";
+
+		try (Connection conn = openConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+			int i = 1;
+			for (int id : customerIds) {
+				stmt.setInt(i++, id);
+			}
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					names.put(rs.getInt("customer_id"), rs.getString("first_name") + " " + rs.getString("last_name"));
+				}
+			}
+		} catch (SQLException e) {
+			showError("Error while loading customer names: " + e.getMessage());
+		}
+
+		return names;
+	}
+
+	@Override
+	public Stream<Customer> streamAll() {
+		if (dataSource == null) {
+			throw new DataAccessException("No database connection.", null);
+		}
+		return JdbcStreams.stream(dataSource, "SELECT * FROM customer ORDER BY customer_id", this::mapRow);
+	}
+
+	private Customer mapRow(ResultSet rs) throws SQLException {
+		return new Customer(rs.getInt("customer_id"), rs.getString("first_name"), rs.getString("last_name"),
+				rs.getString("email"));
+	}
+
+	// '!' is the LIKE escape character, so typed % and _ match literally
+	private static String escapeLike(String s) {
+		return s.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+	}
+
+	// DAO calls run on background threads; alerts must be shown on the FX thread
+	private static void showError(String message) {
+		Platform.runLater(() -> AlertUtils.showError(message));
+	}
+
+	private Connection openConnection() throws SQLException {
+		if (dataSource == null) {
+			throw new SQLException("No database connection.");
+		}
+		return dataSource.getConnection();
+	}
 }
@@ -0,0 +1,15 @@
+package com.cinemamanager.dao;
+
+/**
+ * Unchecked wrapper for a {@link java.sql.SQLException} raised where a checked
+ * exception cannot be thrown, e.g. while a {@link java.util.stream.Stream} of
+ * rows is being consumed.
+ */
+public class DataAccessException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public DataAccessException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -7,8 +7,28 @@ import com.cinemamanager.model.Hall;
 public interface HallDao {
 	Hall findById(int id);
 
+	/**
+	 * Loads a hall and locks its row ({@code SELECT ... FOR UPDATE}) until the
+	 * current transaction ends, so concurrent writers for the same hall queue up
+	 * behind each other. Only meaningful inside
+	 * {@link TransactionManager#inTransaction}; in auto-commit mode the lock is
+	 * released as soon as the statement finishes.
+	 *
+	 * @return the hall, or {@code null} if it does not exist
+	 */
+	Hall lockById(int id);
+
 	List<Hall> findAll();
 
+	/**
+	 * Keyset-paginated variant of {@link #findAll()}, ordered by
+	 * {@code name, hall_id}.
+	 *
+	 * @param after the last hall of the previous page, or {@code null}
+	 * @param limit maximum number of rows in the page
+	 */
+	Page<Hall> findPage(Hall after, int limit);
+
 	void save(Hall hall);
 
 	void update(Hall hall);
@@ -8,20 +8,39 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.sql.DataSource;
+
 import com.cinemamanager.model.Hall;
 
 public class HallDaoImpl implements HallDao {
 
-	private final Connection connection;
+	private final DataSource dataSource;
 
-	public HallDaoImpl(Connection connection) {
-		this.connection = connection;
+	public HallDaoImpl(DataSource dataSource) {
+		this.dataSource = dataSource;
 	}
 
 	@Override
 	public Hall findById(int id) {
-		String sql = "SELECT hall_id, name, capacity FROM hall WHERE hall_id = ?";
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		String sql = "SELECT hall_id, name, capacity, seat_rows, seats_per_row FROM hall WHERE hall_id = ?";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.setInt(1, id);
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next())
+					return mapRow(rs);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	@Override
+	public Hall lockById(int id) {
+		String sql = "SELECT hall_id, name, capacity, seat_rows, seats_per_row FROM hall WHERE hall_id = ? FOR UPDATE";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setInt(1, id);
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next())
@@ -36,8 +55,10 @@ public class HallDaoImpl implements HallDao {
 	@Override
 	public List<Hall> findAll() {
 		List<Hall> list = new ArrayList<>();
-		String sql = "SELECT hall_id, name, capacity FROM hall ORDER BY name ASC";
-		try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+		String sql = "SELECT hall_id, name, capacity, seat_rows, seats_per_row FROM hall ORDER BY name ASC";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql);
+				ResultSet rs = ps.executeQuery()) {
 			while (rs.next())
 				list.add(mapRow(rs));
 		} catch (SQLException e) {
@@ -46,12 +67,41 @@ public class HallDaoImpl implements HallDao {
 		return list;
 	}
 
+	@Override
+	public Page<Hall> findPage(Hall after, int limit) {
+		int size = Math.max(1, limit);
+		String sql = "SELECT hall_id, name, capacity, seat_rows, seats_per_row FROM hall "
+				+ (after == null ? "" : "WHERE name >= ? AND (name > ? OR hall_id > ?) ")
+				+ "ORDER BY name ASC, hall_id ASC LIMIT ?";
+		List<Hall> list = new ArrayList<>(size + 1);
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			int i = 1;
+			if (after != null) {
+				ps.setString(i++, after.getName());
+				ps.setString(i++, after.getName());
+				ps.setInt(i++, after.getHallId());
+			}
+			ps.setInt(i, size + 1);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next())
+					list.add(mapRow(rs));
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return Page.of(list, size);
+	}
+
 	@Override
 	public void save(Hall h) {
-		String sql = "INSERT INTO hall (name, capacity) VALUES (?, ?)";
-		try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+		String sql = "INSERT INTO hall (name, capacity, seat_rows, seats_per_row) VALUES (?, ?, ?, ?)";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 			ps.setString(1, h.getName());
 			ps.setInt(2, h.getCapacity());
+			ps.setInt(3, h.getSeatRows());
+			ps.setInt(4, h.getSeatsPerRow());
 			ps.executeUpdate();
 
 			try (ResultSet keys = ps.getGeneratedKeys()) {
@@ -65,11 +115,14 @@ public class HallDaoImpl implements HallDao {
 
 	@Override
 	public void update(Hall h) {
-		String sql = "UPDATE hall SET name = ?, capacity = ? WHERE hall_id = ?";
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		String sql = "UPDATE hall SET name = ?, capacity = ?, seat_rows = ?, seats_per_row = ? WHERE hall_id = ?";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setString(1, h.getName());
 			ps.setInt(2, h.getCapacity());
-			ps.setInt(3, h.getHallId());
+			ps.setInt(3, h.getSeatRows());
+			ps.setInt(4, h.getSeatsPerRow());
+			ps.setInt(5, h.getHallId());
 			ps.executeUpdate();
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -79,7 +132,8 @@ public class HallDaoImpl implements HallDao {
 	@Override
 	public void delete(int id) {
 		String sql = "DELETE FROM hall WHERE hall_id = ?";
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setInt(1, id);
 			ps.executeUpdate();
 		} catch (SQLException e) {
@@ -92,6 +146,8 @@ public class HallDaoImpl implements HallDao {
 		h.setHallId(rs.getInt("hall_id"));
 		h.setName(rs.getString("name"));
 		h.setCapacity(rs.getInt("capacity"));
+		h.setSeatRows(rs.getInt("seat_rows"));
+		h.setSeatsPerRow(rs.getInt("seats_per_row"));
 		return h;
 	}
 }
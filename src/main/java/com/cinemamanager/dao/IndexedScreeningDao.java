@@ -0,0 +1,162 @@
+package com.cinemamanager.dao;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import com.cinemamanager.model.Screening;
+import com.cinemamanager.model.ScreeningDetails;
+
+/**
+ * {@link ScreeningDao} decorator that answers {@link #existsOverlap} from a
+ * {@link ScreeningIntervalIndex} instead of a {@code COUNT(*)} query.
+ *
+ * <p>
+ * Writes go to the wrapped DAO and are applied to the index once they are
+ * committed (immediately in auto-commit mode, after commit inside
+ * {@link TransactionManager#inTransaction}). Because the index only learns of
+ * a screening after commit, when the caller's hall lock is already released,
+ * and does not see screenings written by other processes at all, it is never
+ * trusted for an insert: {@link #save} always re-checks the slot against the
+ * database inside the caller's transaction, refuses the insert with an
+ * {@link IllegalStateException} on conflict and reloads the hall.
+ * </p>
+ */
+public class IndexedScreeningDao implements ScreeningDao {
+
+	private final ScreeningDao delegate;
+	private final TransactionManager transactions;
+	private final ScreeningIntervalIndex index;
+
+	/**
+	 * @param delegate     the JDBC-backed DAO
+	 * @param transactions used to defer index updates until commit; may be
+	 *                     {@code null} if writes always auto-commit
+	 */
+	public IndexedScreeningDao(ScreeningDao delegate, TransactionManager transactions) {
+		this.delegate = Objects.requireNonNull(delegate);
+		this.transactions = transactions;
+		this.index = new ScreeningIntervalIndex(delegate::findByHallId);
+	}
+
+	/** @return the index, e.g. to {@link ScreeningIntervalIndex#clear() clear} it */
+	public ScreeningIntervalIndex getIndex() {
+		return index;
+	}
+
+	@Override
+	public boolean existsOverlap(int hallId, LocalDateTime startTime, LocalDateTime endTime) {
+		return index.overlaps(hallId, startTime, endTime);
+	}
+
+	@Override
+	public void save(Screening screening) {
+		// authoritative check under the caller's hall lock; the index may lag behind
+		if (delegate.existsOverlap(screening.getHallId(), screening.getStartTime(), screening.getEndTime())) {
+			index.invalidate(screening.getHallId());
+			throw new IllegalStateException("Overlap detected for hall " + screening.getHallId());
+		}
+		delegate.save(screening);
+		afterCommit(() -> index.put(screening));
+	}
+
+	@Override
+	public void saveAll(Collection<Screening> screenings, int batchSize) {
+		delegate.saveAll(screenings, batchSize);
+		List<Screening> saved = new ArrayList<>(screenings);
+		afterCommit(() -> saved.forEach(index::put));
+	}
+
+	@Override
+	public void update(Screening screening) {
+		delegate.update(screening);
+		afterCommit(() -> index.put(screening));
+	}
+
+	@Override
+	public void delete(int id) {
+		delegate.delete(id);
+		afterCommit(() -> index.remove(id));
+	}
+
+	@Override
+	public boolean tryReserveSeats(int screeningId, int seats) {
+		return delegate.tryReserveSeats(screeningId, seats);
+	}
+
+	@Override
+	public void releaseSeats(int screeningId, int seats) {
+		delegate.releaseSeats(screeningId, seats);
+	}
+
+	private void afterCommit(Runnable change) {
+		if (transactions != null) {
+			transactions.afterCommit(change);
+		} else {
+			change.run();
+		}
+	}
+
+	@Override
+	public Screening findById(int id) {
+		return delegate.findById(id);
+	}
+
+	@Override
+	public List<Screening> findAll() {
+		return delegate.findAll();
+	}
+
+	@Override
+	public Page<Screening> findPage(Screening after, int limit) {
+		return delegate.findPage(after, limit);
+	}
+
+	@Override
+	public List<Screening> findByMovieId(int movieId) {
+		return delegate.findByMovieId(movieId);
+	}
+
+	@Override
+	public Stream<Screening> streamAll() {
+		return delegate.streamAll();
+	}
+
+	@Override
+	public List<Screening> findByHallId(int hallId) {
+		return delegate.findByHallId(hallId);
+	}
+
+	@Override
+	public List<Screening> findUpcoming() {
+		return delegate.findUpcoming();
+	}
+
+	@Override
+	public List<ScreeningDetails> findAllDetails() {
+		return delegate.findAllDetails();
+	}
+
+	@Override
+	public List<ScreeningDetails> findUpcomingDetails() {
+		return delegate.findUpcomingDetails();
+	}
+
+	@Override
+	public List<Screening> findByHallAndRange(int hallId, LocalDateTime from, LocalDateTime to) {
+		return delegate.findByHallAndRange(hallId, from, to);
+	}
+
+	@Override
+	public List<Screening> findByRange(LocalDateTime from, LocalDateTime to) {
+		return delegate.findByRange(from, to);
+	}
+
+	@Override
+	public List<Screening> findUpcomingByHall(int hallId, int limit) {
+		return delegate.findUpcomingByHall(hallId, limit);
+	}
+}
@@ -0,0 +1,100 @@
+package com.cinemamanager.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+import javax.sql.DataSource;
+
+/**
+ * Shared JDBC batching logic for the {@code saveAll} methods of the DAOs.
+ *
+ * <p>
+ * Rows are bound to one prepared INSERT, sent in chunks of {@code batchSize}
+ * with {@link PreparedStatement#executeBatch()}, and committed once at the end.
+ * Generated keys of every chunk are written back to the row objects in order.
+ * If the connection is already part of a larger transaction (auto-commit off),
+ * the caller's transaction is left to commit or roll back.
+ * </p>
+ */
+final class JdbcBatch {
+
+	/** Binds one row's values to the INSERT statement. */
+	@FunctionalInterface
+	interface Binder<T> {
+		void bind(PreparedStatement ps, T row) throws SQLException;
+	}
+
+	private JdbcBatch() {
+	}
+
+	/**
+	 * Inserts all rows in batches within a single transaction.
+	 *
+	 * @param dataSource where to borrow the connection from
+	 * @param sql        the INSERT statement
+	 * @param rows       rows to insert
+	 * @param batchSize  rows per JDBC batch (values below 1 are treated as 1)
+	 * @param binder     binds a row's values to the statement
+	 * @param keySetter  receives each row together with its generated key
+	 * @throws SQLException if any chunk fails; nothing is committed in that case
+	 */
+	static <T> void insertAll(DataSource dataSource, String sql, Collection<T> rows, int batchSize,
+			Binder<? super T> binder, ObjIntConsumer<? super T> keySetter) throws SQLException {
+		if (rows == null || rows.isEmpty()) {
+			return;
+		}
+		int chunkSize = Math.max(1, batchSize);
+
+		try (Connection connection = dataSource.getConnection()) {
+			boolean ownTransaction = connection.getAutoCommit();
+			if (ownTransaction) {
+				connection.setAutoCommit(false);
+			}
+			try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+				List<T> pending = new ArrayList<>(Math.min(chunkSize, rows.size()));
+				for (T row : rows) {
+					binder.bind(ps, row);
+					ps.addBatch();
+					pending.add(row);
+					if (pending.size() == chunkSize) {
+						flush(ps, pending, keySetter);
+					}
+				}
+				if (!pending.isEmpty()) {
+					flush(ps, pending, keySetter);
+				}
+				if (ownTransaction) {
+					connection.commit();
+				}
+			} catch (SQLException | RuntimeException e) {
+				if (ownTransaction) {
+					connection.rollback();
+				}
+				throw e;
+			} finally {
+				if (ownTransaction) {
+					connection.setAutoCommit(true);
+				}
+			}
+		}
+	}
+
+	private static <T> void flush(PreparedStatement ps, List<T> pending, ObjIntConsumer<? super T> keySetter)
+			throws SQLException {
+		ps.executeBatch();
+		try (ResultSet keys = ps.getGeneratedKeys()) {
+			int i = 0;
+			while (keys.next() && i < pending.size()) {
+				keySetter.accept(pending.get(i++), keys.getInt(1));
+			}
+		}
+		pending.clear();
+	}
+}
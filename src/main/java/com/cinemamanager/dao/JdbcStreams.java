@@ -0,0 +1,82 @@
+package com.cinemamanager.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * Turns a query into a lazily consumed {@link Stream} of rows.
+ *
+ * <p>
+ * The statement is forward-only and read-only with a fetch size of
+ * {@link Integer#MIN_VALUE}, which tells MySQL Connector/J to stream rows one at
+ * a time instead of buffering the whole result in memory. The connection,
+ * statement and result set stay open until the stream is closed, so callers
+ * must use try-with-resources.
+ * </p>
+ */
+final class JdbcStreams {
+
+	/** Maps the current row of a result set to an object. */
+	@FunctionalInterface
+	interface RowMapper<T> {
+		T map(ResultSet rs) throws SQLException;
+	}
+
+	private JdbcStreams() {
+	}
+
+	static <T> Stream<T> stream(DataSource dataSource, String sql, RowMapper<T> mapper) {
+		Connection connection = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			connection = dataSource.getConnection();
+			ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(Integer.MIN_VALUE);
+			rs = ps.executeQuery();
+		} catch (SQLException e) {
+			closeAll(rs, ps, connection);
+			throw new DataAccessException("Failed to open streaming query: " + e.getMessage(), e);
+		}
+
+		ResultSet results = rs;
+		PreparedStatement statement = ps;
+		Connection conn = connection;
+		Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(Consumer<? super T> action) {
+				try {
+					if (!results.next()) {
+						return false;
+					}
+					action.accept(mapper.map(results));
+					return true;
+				} catch (SQLException e) {
+					throw new DataAccessException("Failed to read streaming query: " + e.getMessage(), e);
+				}
+			}
+		};
+		return StreamSupport.stream(rows, false).onClose(() -> closeAll(results, statement, conn));
+	}
+
+	private static void closeAll(AutoCloseable... resources) {
+		for (AutoCloseable r : resources) {
+			if (r == null)
+				continue;
+			try {
+				r.close();
+			} catch (Exception ignored) {
+			}
+		}
+	}
+}
@@ -1,8 +1,12 @@
 package com.cinemamanager.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import com.cinemamanager.model.Movie;
+import com.cinemamanager.model.MovieSummary;
 
 /**
  * Data Access Object (DAO) interface for {@link Movie} entities.
@@ -23,6 +27,9 @@ import com.cinemamanager.model.Movie;
  */
 public interface MovieDao {
 
+	/** Number of rows sent per JDBC batch by {@link #saveAll(Collection)}. */
+	int DEFAULT_BATCH_SIZE = 100;
+
 	/**
 	 * Finds a movie by its unique identifier.
 	 * 
@@ -38,24 +45,126 @@ public interface MovieDao {
 	 */
 	List<Movie> findAll();
 
+	/**
+	 * Retrieves all movies without their descriptions, for list views that do
+	 * not show them.
+	 * 
+	 * @return a list of all movie summaries, or an empty list if none are found
+	 */
+	List<MovieSummary> findAllSummaries();
+
+	/**
+	 * Loads the description of a single movie, e.g. when it is selected in a
+	 * list of summaries.
+	 * 
+	 * @param id the unique ID of the movie
+	 * @return the description ({@code ""} if it has none), or {@code null} if
+	 *         the movie is not found
+	 */
+	String findDescription(int id);
+
+	/**
+	 * Retrieves one page of movies ordered by title (then ID), using keyset
+	 * pagination.
+	 * 
+	 * @param after the last movie of the previous page, or {@code null} for the
+	 *              first page
+	 * @param limit the maximum number of movies to return
+	 * @return the page of movies
+	 */
+	Page<Movie> findPage(Movie after, int limit);
+
+	/**
+	 * Counts the movies in the data store.
+	 * 
+	 * @return the number of movies
+	 */
+	int count();
+
+	/**
+	 * Searches movies by title and description on the server, best matches
+	 * first, returning summaries without the description.
+	 * 
+	 * <p>
+	 * Every word of the query must match the start of a word in the title or
+	 * description. A blank query lists all movies by title.
+	 * </p>
+	 * 
+	 * @param query  the text typed by the user
+	 * @param limit  the maximum number of results
+	 * @param offset the number of results to skip (for paging)
+	 * @return the matching movies, or an empty list
+	 */
+	List<MovieSummary> search(String query, int limit, int offset);
+
+	/**
+	 * Streams all movies without loading them into a list.
+	 * 
+	 * <p>
+	 * The stream keeps a database connection open until it is closed, so it must
+	 * be used in a try-with-resources block.
+	 * </p>
+	 * 
+	 * @return a lazily populated stream of movies
+	 * @throws DataAccessException if the query fails
+	 */
+	Stream<Movie> streamAll();
+
+	/**
+	 * Performs an action for every movie, reading rows one at a time.
+	 * 
+	 * @param action the action to perform for each movie
+	 * @throws DataAccessException if the query fails
+	 */
+	default void forEach(Consumer<? super Movie> action) {
+		try (Stream<Movie> movies = streamAll()) {
+			movies.forEach(action);
+		}
+	}
+
 	/**
 	 * Saves a new movie to the data store.
 	 * 
-	 * @param movie the movie to save
+	 * @param movie the movie to save; its generated ID is set on it
+	 * @return the saved movie, or {@code null} if the insert failed
+	 */
+	Movie save(Movie movie);
+
+	/**
+	 * Saves several new movies in one transaction using JDBC batching.
+	 * 
+	 * <p>
+	 * The generated ID of every movie is set on the corresponding object.
+	 * </p>
+	 * 
+	 * @param movies the movies to save
+	 */
+	default void saveAll(Collection<Movie> movies) {
+		saveAll(movies, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Saves several new movies in one transaction, sending {@code batchSize} rows
+	 * per JDBC batch.
+	 * 
+	 * @param movies    the movies to save
+	 * @param batchSize number of rows per batch
 	 */
-	void save(Movie movie);
+	void saveAll(Collection<Movie> movies, int batchSize);
 
 	/**
 	 * Updates an existing movie in the data store.
 	 * 
 	 * @param movie the movie with updated information
+	 * @return the updated movie, or {@code null} if the update failed
 	 */
-	void update(Movie movie);
+	Movie update(Movie movie);
 
 	/**
 	 * Deletes a movie from the data store.
 	 * 
 	 * @param id the ID of the movie to delete
+	 * @return {@code true} if a movie was deleted
 	 */
-	void delete(int id);
+	boolean delete(int id);
 }
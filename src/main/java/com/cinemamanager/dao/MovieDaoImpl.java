@@ -6,9 +6,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
 
 import com.cinemamanager.model.Movie;
+import com.cinemamanager.model.MovieSummary;
 
 /**
  * JDBC implementation of the {@link MovieDao} interface.
@@ -31,14 +36,15 @@ import com.cinemamanager.model.Movie;
  *   genre        VARCHAR(100),
  *   language     VARCHAR(50),
  *   duration     INT,
- *   release_year INT
+ *   release_year INT,
+ *   FULLTEXT INDEX ft_movie_text (title, description)
  * );
  * </pre>
  *
  * <p>
- * <b>Note:</b> This implementation does not use connection pooling or
- * transactions. In a production system, those concerns should be handled at a
- * higher layer or with frameworks like JPA/Hibernate or Spring JDBC.
+ * <b>Note:</b> Every operation borrows a connection from the supplied
+ * {@link DataSource} (normally the shared pool from
+ * {@link com.cinemamanager.util.DatabaseConnection}) and returns it when done.
  * </p>
  * 
  * @author Boban Vesin
@@ -46,16 +52,22 @@ import com.cinemamanager.model.Movie;
  */
 public class MovieDaoImpl implements MovieDao {
 
-	/** The JDBC connection used for all database operations. */
-	private final Connection connection;
+	/** Columns of a {@link MovieSummary}: everything but the TEXT description. */
+	private static final String SUMMARY_COLUMNS = "movie_id, title, genre, language, duration, release_year";
+
+	/** Columns of a full {@link Movie}. */
+	private static final String MOVIE_COLUMNS = SUMMARY_COLUMNS + ", description";
+
+	/** The data source connections are borrowed from. */
+	private final DataSource dataSource;
 
 	/**
-	 * Constructs a MovieDaoImpl with the given JDBC connection.
+	 * Constructs a MovieDaoImpl backed by the given data source.
 	 * 
-	 * @param connection the active JDBC connection
+	 * @param dataSource the (pooled) data source
 	 */
-	public MovieDaoImpl(Connection connection) {
-		this.connection = connection;
+	public MovieDaoImpl(DataSource dataSource) {
+		this.dataSource = dataSource;
 	}
 
 	/**
@@ -67,12 +79,14 @@ public class MovieDaoImpl implements MovieDao {
 	@Override
 	public Movie findById(int id) {
 		Movie movie = null;
-		String query = "SELECT * FROM movie WHERE movie_id = ?";
-		try (PreparedStatement stmt = connection.prepareStatement(query)) {
+		String query = "SELECT " + MOVIE_COLUMNS + " FROM movie WHERE movie_id = ?";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(query)) {
 			stmt.setInt(1, id);
-			ResultSet rs = stmt.executeQuery();
-			if (rs.next()) {
-				movie = mapRow(rs);
+			try (ResultSet rs = stmt.executeQuery()) {
+				if (rs.next()) {
+					movie = mapRow(rs);
+				}
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -88,9 +102,10 @@ public class MovieDaoImpl implements MovieDao {
 	@Override
 	public List<Movie> findAll() {
 		List<Movie> movies = new ArrayList<>();
-		String query = "SELECT * FROM movie";
-		try (Statement stmt = connection.createStatement()) {
-			ResultSet rs = stmt.executeQuery(query);
+		String query = "SELECT " + MOVIE_COLUMNS + " FROM movie";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(query);
+				ResultSet rs = stmt.executeQuery()) {
 			while (rs.next()) {
 				movies.add(mapRow(rs));
 			}
@@ -100,16 +115,202 @@ public class MovieDaoImpl implements MovieDao {
 		return movies;
 	}
 
+	/**
+	 * Retrieves all movies without their descriptions.
+	 *
+	 * @return a list of movie summaries (empty if none found)
+	 */
+	@Override
+	public List<MovieSummary> findAllSummaries() {
+		return querySummaries("SELECT " + SUMMARY_COLUMNS + " FROM movie");
+	}
+
+	/**
+	 * Reads the description of one movie.
+	 *
+	 * @param id the movie ID
+	 * @return the description ({@code ""} if it is empty), or {@code null} if
+	 *         the movie does not exist or the query fails
+	 */
+	@Override
+	public String findDescription(int id) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement stmt = connection.prepareStatement("SELECT description FROM movie WHERE movie_id = ?")) {
+			stmt.setInt(1, id);
+			try (ResultSet rs = stmt.executeQuery()) {
+				if (rs.next()) {
+					String description = rs.getString(1);
+					return description != null ? description : "";
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Retrieves one page of movies ordered by title and ID. Instead of an
+	 * {@code OFFSET}, the query seeks past the given movie, so deep pages are as
+	 * cheap as the first one.
+	 *
+	 * @param after the last movie of the previous page, or {@code null}
+	 * @param limit the maximum number of movies to return
+	 * @return the page of movies
+	 */
+	@Override
+	public Page<Movie> findPage(Movie after, int limit) {
+		int size = Math.max(1, limit);
+		String query = "SELECT " + MOVIE_COLUMNS + " FROM movie "
+				+ (after == null ? "" : "WHERE title >= ? AND (title > ? OR movie_id > ?) ")
+				+ "ORDER BY title ASC, movie_id ASC LIMIT ?";
+		List<Movie> movies = new ArrayList<>(size + 1);
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(query)) {
+			int i = 1;
+			if (after != null) {
+				stmt.setString(i++, after.getTitle());
+				stmt.setString(i++, after.getTitle());
+				stmt.setInt(i++, after.getMovieId());
+			}
+			stmt.setInt(i, size + 1);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					movies.add(mapRow(rs));
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return Page.of(movies, size);
+	}
+
+	/**
+	 * Counts the rows of the movie table.
+	 *
+	 * @return the number of movies, or {@code 0} if the query fails
+	 */
+	@Override
+	public int count() {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement stmt = connection.prepareStatement("SELECT COUNT(*) FROM movie");
+				ResultSet rs = stmt.executeQuery()) {
+			if (rs.next()) {
+				return rs.getInt(1);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return 0;
+	}
+
+	/**
+	 * Searches with the {@code FULLTEXT} index on {@code (title, description)} in
+	 * boolean mode, every word as a required prefix ({@code +word*}), ordered by
+	 * relevance. Words shorter than InnoDB's minimum token size (3) cannot be
+	 * found that way; if the query has no longer word, the full-text search finds
+	 * nothing or the index is missing, a title prefix search ({@code LIKE 'q%'}
+	 * on {@code idx_movie_title}) is used instead.
+	 *
+	 * @param query  the text typed by the user
+	 * @param limit  the maximum number of results
+	 * @param offset the number of results to skip
+	 * @return the matching movie summaries
+	 */
+	@Override
+	public List<MovieSummary> search(String query, int limit, int offset) {
+		String q = query == null ? "" : query.trim();
+		int rows = Math.max(0, limit);
+		int skip = Math.max(0, offset);
+		if (q.isEmpty()) {
+			return querySummaries("SELECT " + SUMMARY_COLUMNS + " FROM movie ORDER BY title, movie_id LIMIT ? OFFSET ?",
+					rows, skip);
+		}
+
+		String terms = toBooleanQuery(q);
+		if (!terms.isEmpty()) {
+			try {
+				List<MovieSummary> hits = querySummariesOrThrow("SELECT " + SUMMARY_COLUMNS + " FROM movie "
+						+ "WHERE MATCH(title, description) AGAINST (? IN BOOLEAN MODE) "
+						+ "ORDER BY MATCH(title, description) AGAINST (? IN BOOLEAN MODE) DESC, title, movie_id "
+						+ "LIMIT ? OFFSET ?", terms, terms, rows, skip);
+				if (!hits.isEmpty() || skip > 0) {
+					return hits;
+				}
+			} catch (SQLException e) {
+				// e.g. no FULLTEXT index yet: fall through to the prefix search
+				e.printStackTrace();
+			}
+		}
+		return querySummaries("SELECT " + SUMMARY_COLUMNS + " FROM movie WHERE title LIKE ? ESCAPE '!' "
+				+ "ORDER BY title, movie_id LIMIT ? OFFSET ?", escapeLike(q) + "%", rows, skip);
+	}
+
+	// "star wa" -> "+star* +wa*"; words under the minimum token size are dropped
+	private static String toBooleanQuery(String q) {
+		StringBuilder sb = new StringBuilder();
+		for (String word : q.split("[\\s+\\-<>()~*\"@]+")) {
+			if (word.length() >= 3) {
+				sb.append(sb.length() == 0 ? "" : " ").append('+').append(word).append('*');
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String escapeLike(String s) {
+		return s.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+	}
+
+	private List<MovieSummary> querySummaries(String query, Object... params) {
+		try {
+			return querySummariesOrThrow(query, params);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return new ArrayList<>();
+		}
+	}
+
+	private List<MovieSummary> querySummariesOrThrow(String query, Object... params) throws SQLException {
+		List<MovieSummary> movies = new ArrayList<>();
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(query)) {
+			for (int i = 0; i < params.length; i++) {
+				stmt.setObject(i + 1, params[i]);
+			}
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					MovieSummary movie = new MovieSummary();
+					mapSummary(rs, movie);
+					movies.add(movie);
+				}
+			}
+		}
+		return movies;
+	}
+
+	/**
+	 * Streams all movies ordered by ID using a MySQL streaming result set.
+	 *
+	 * @return a stream that must be closed by the caller
+	 */
+	@Override
+	public Stream<Movie> streamAll() {
+		return JdbcStreams.stream(dataSource, "SELECT " + MOVIE_COLUMNS + " FROM movie ORDER BY movie_id",
+				this::mapRow);
+	}
+
 	/**
 	 * Inserts a new movie into the database.
 	 *
-	 * @param movie the movie to save
+	 * @param movie the movie to save; its generated ID is set on it
+	 * @return the saved movie, or {@code null} if the insert failed
 	 */
 	@Override
-	public void save(Movie movie) {
+	public Movie save(Movie movie) {
 		String query = "INSERT INTO movie (title, description, genre, language, duration, release_year) "
 				+ "VALUES (?, ?, ?, ?, ?, ?)";
-		try (PreparedStatement stmt = connection.prepareStatement(query)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 			stmt.setString(1, movie.getTitle());
 			stmt.setString(2, movie.getDescription());
 			stmt.setString(3, movie.getGenre());
@@ -117,6 +318,37 @@ public class MovieDaoImpl implements MovieDao {
 			stmt.setInt(5, movie.getDuration());
 			stmt.setInt(6, movie.getReleaseYear());
 			stmt.executeUpdate();
+			try (ResultSet keys = stmt.getGeneratedKeys()) {
+				if (keys.next()) {
+					movie.setMovieId(keys.getInt(1));
+				}
+			}
+			return movie;
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Inserts several movies using JDBC batching in a single transaction.
+	 *
+	 * @param movies    the movies to save; generated IDs are set on them
+	 * @param batchSize number of rows per batch
+	 */
+	@Override
+	public void saveAll(Collection<Movie> movies, int batchSize) {
+		String query = "INSERT INTO movie (title, description, genre, language, duration, release_year) "
+				+ "VALUES (?, ?, ?, ?, ?, ?)";
+		try {
+			JdbcBatch.insertAll(dataSource, query, movies, batchSize, (stmt, movie) -> {
+				stmt.setString(1, movie.getTitle());
+				stmt.setString(2, movie.getDescription());
+				stmt.setString(3, movie.getGenre());
+				stmt.setString(4, movie.getLanguage());
+				stmt.setInt(5, movie.getDuration());
+				stmt.setInt(6, movie.getReleaseYear());
+			}, Movie::setMovieId);
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
@@ -126,12 +358,14 @@ public class MovieDaoImpl implements MovieDao {
 	 * Updates an existing movie in the database.
 	 *
 	 * @param movie the movie with updated values (must have a valid ID)
+	 * @return the updated movie, or {@code null} if the update failed
 	 */
 	@Override
-	public void update(Movie movie) {
+	public Movie update(Movie movie) {
 		String query = "UPDATE movie SET title=?, description=?, genre=?, language=?, duration=?, release_year=? "
 				+ "WHERE movie_id=?";
-		try (PreparedStatement stmt = connection.prepareStatement(query)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(query)) {
 			stmt.setString(1, movie.getTitle());
 			stmt.setString(2, movie.getDescription());
 			stmt.setString(3, movie.getGenre());
@@ -140,8 +374,10 @@ public class MovieDaoImpl implements MovieDao {
 			stmt.setInt(6, movie.getReleaseYear());
 			stmt.setInt(7, movie.getMovieId());
 			stmt.executeUpdate();
+			return movie;
 		} catch (SQLException e) {
 			e.printStackTrace();
+			return null;
 		}
 	}
 
@@ -149,15 +385,18 @@ public class MovieDaoImpl implements MovieDao {
 	 * Deletes a movie from the database.
 	 *
 	 * @param id the ID of the movie to delete
+	 * @return {@code true} if a movie was deleted
 	 */
 	@Override
-	public void delete(int id) {
+	public boolean delete(int id) {
 		String query = "DELETE FROM movie WHERE movie_id=?";
-		try (PreparedStatement stmt = connection.prepareStatement(query)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(query)) {
 			stmt.setInt(1, id);
-			stmt.executeUpdate();
+			return stmt.executeUpdate() > 0;
 		} catch (SQLException e) {
 			e.printStackTrace();
+			return false;
 		}
 	}
 
@@ -170,13 +409,24 @@ public class MovieDaoImpl implements MovieDao {
 	 */
 	private Movie mapRow(ResultSet rs) throws SQLException {
 		Movie movie = new Movie();
+		mapSummary(rs, movie);
+		movie.setDescription(rs.getString("description"));
+		return movie;
+	}
+
+	/**
+	 * Copies the summary columns of the current row into {@code movie}.
+	 *
+	 * @param rs    the result set positioned at a row
+	 * @param movie the object to fill
+	 * @throws SQLException if a database access error occurs
+	 */
+	private void mapSummary(ResultSet rs, MovieSummary movie) throws SQLException {
 		movie.setMovieId(rs.getInt("movie_id"));
 		movie.setTitle(rs.getString("title"));
-		movie.setDescription(rs.getString("description"));
 		movie.setGenre(rs.getString("genre"));
 		movie.setLanguage(rs.getString("language"));
 		movie.setDuration(rs.getInt("duration"));
 		movie.setReleaseYear(rs.getInt("release_year"));
-		return movie;
 	}
 }
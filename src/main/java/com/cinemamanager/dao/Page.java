@@ -0,0 +1,65 @@
+package com.cinemamanager.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated query.
+ *
+ * <p>
+ * DAOs fetch pages by "seeking" past the last row of the previous page instead
+ * of using {@code OFFSET}, so page 10,000 costs the same as page 1. To get the
+ * next page, pass {@link #getLast()} as the {@code after} argument of the same
+ * {@code findPage} call:
+ * </p>
+ *
+ * <pre>
+ * Page&lt;Reservation&gt; page = reservationsDao.findPage(null, 200);
+ * while (page.hasMore()) {
+ * 	page = reservationsDao.findPage(page.getLast(), 200);
+ * }
+ * </pre>
+ *
+ * @param <T> the entity type
+ */
+public final class Page<T> {
+
+	private final List<T> items;
+	private final boolean hasMore;
+
+	public Page(List<T> items, boolean hasMore) {
+		this.items = Collections.unmodifiableList(items);
+		this.hasMore = hasMore;
+	}
+
+	/**
+	 * Builds a page from a query that fetched up to {@code limit + 1} rows; the
+	 * extra row only signals that another page exists and is dropped.
+	 */
+	static <T> Page<T> of(List<T> rows, int limit) {
+		if (rows.size() > limit) {
+			return new Page<>(rows.subList(0, limit), true);
+		}
+		return new Page<>(rows, false);
+	}
+
+	/** @return the rows of this page, in the query's sort order */
+	public List<T> getItems() {
+		return items;
+	}
+
+	/** @return {@code true} if at least one more row follows this page */
+	public boolean hasMore() {
+		return hasMore;
+	}
+
+	/** @return {@code true} if the page has no rows */
+	public boolean isEmpty() {
+		return items.isEmpty();
+	}
+
+	/** @return the last row, used as the cursor for the next page, or {@code null} */
+	public T getLast() {
+		return items.isEmpty() ? null : items.get(items.size() - 1);
+	}
+}
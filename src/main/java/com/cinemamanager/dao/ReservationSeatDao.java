@@ -0,0 +1,29 @@
+package com.cinemamanager.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.cinemamanager.model.Reservation;
+import com.cinemamanager.model.Seat;
+
+/**
+ * Seats assigned to reservations ({@code reservation_seat}). The primary key
+ * {@code (screening_id, seat_row, seat_number)} guarantees that a seat is sold
+ * at most once per screening, even across application instances.
+ */
+public interface ReservationSeatDao {
+	/** @return every taken seat of a screening */
+	List<Seat> findByScreening(int screeningId);
+
+	/** @return the seats of one reservation */
+	List<Seat> findByReservation(int reservationId);
+
+	/** Assigns seats to a saved reservation in one batch. */
+	void saveAll(Reservation reservation, Collection<Seat> seats);
+
+	/** Assigns the seats of several saved reservations in one batch. */
+	void saveAll(Map<Reservation, ? extends Collection<Seat>> seatsByReservation);
+
+	void deleteByReservation(int reservationId);
+}
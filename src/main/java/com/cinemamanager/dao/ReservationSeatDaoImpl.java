@@ -0,0 +1,84 @@
+package com.cinemamanager.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import com.cinemamanager.model.Reservation;
+import com.cinemamanager.model.Seat;
+
+public class ReservationSeatDaoImpl implements ReservationSeatDao {
+
+	private final DataSource dataSource;
+
+	public ReservationSeatDaoImpl(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	@Override
+	public List<Seat> findByScreening(int screeningId) {
+		return query("SELECT seat_row, seat_number FROM reservation_seat WHERE screening_id = ?", screeningId);
+	}
+
+	@Override
+	public List<Seat> findByReservation(int reservationId) {
+		return query("SELECT seat_row, seat_number FROM reservation_seat WHERE reservation_id = ?", reservationId);
+	}
+
+	private List<Seat> query(String sql, int id) {
+		List<Seat> list = new ArrayList<>();
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.setInt(1, id);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next())
+					list.add(new Seat(rs.getInt("seat_row"), rs.getInt("seat_number")));
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return list;
+	}
+
+	@Override
+	public void saveAll(Reservation reservation, Collection<Seat> seats) {
+		saveAll(Map.of(reservation, seats));
+	}
+
+	@Override
+	public void saveAll(Map<Reservation, ? extends Collection<Seat>> seatsByReservation) {
+		List<Map.Entry<Reservation, Seat>> rows = new ArrayList<>();
+		seatsByReservation.forEach((r, seats) -> seats.forEach(seat -> rows.add(Map.entry(r, seat))));
+		String sql = "INSERT INTO reservation_seat (reservation_id, screening_id, seat_row, seat_number) VALUES (?, ?, ?, ?)";
+		try {
+			JdbcBatch.insertAll(dataSource, sql, rows, rows.size(), (ps, row) -> {
+				ps.setInt(1, row.getKey().getReservationId());
+				ps.setInt(2, row.getKey().getScreeningId());
+				ps.setInt(3, row.getValue().getRow());
+				ps.setInt(4, row.getValue().getNumber());
+			}, (row, key) -> {
+			});
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public void deleteByReservation(int reservationId) {
+		String sql = "DELETE FROM reservation_seat WHERE reservation_id = ?";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.setInt(1, reservationId);
+			ps.executeUpdate();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -1,19 +1,91 @@
 package com.cinemamanager.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import com.cinemamanager.model.Reservation;
 
 public interface ReservationsDao {
+	/** Rows per JDBC batch used by {@link #saveAll(Collection)}. */
+	int DEFAULT_BATCH_SIZE = 100;
+
 	Reservation findById(int id);
 
 	List<Reservation> findAll();
 
+	/**
+	 * Keyset-paginated variant of {@link #findAll()}: newest first, ordered by
+	 * {@code reservation_time DESC, reservation_id DESC}.
+	 *
+	 * @param after the last reservation of the previous page, or {@code null} for
+	 *              the first page
+	 * @param limit maximum number of rows in the page
+	 */
+	Page<Reservation> findPage(Reservation after, int limit);
+
+	/** @return the number of reservations */
+	int count();
+
+	/**
+	 * Returns rows {@code offset .. offset + limit - 1} in {@link #findPage} order,
+	 * for random access into a large table (e.g. jumping to the middle of a
+	 * scrolled list). Prefer {@link #findPage} when the previous row is known;
+	 * {@code OFFSET} has to skip the rows before it.
+	 */
+	List<Reservation> findSlice(int offset, int limit);
+
 	List<Reservation> findByCustomerId(int customerId);
 
-	void save(Reservation reservation);
+	/**
+	 * Streams every reservation without materialising a list. The stream holds a database
+	 * connection until it is closed, so use try-with-resources.
+	 *
+	 * @throws DataAccessException if the query fails
+	 */
+	Stream<Reservation> streamAll();
+
+	/**
+	 * Calls {@code action} for every reservation, streaming rows from the database so
+	 * memory use stays flat.
+	 *
+	 * @throws DataAccessException if the query fails
+	 */
+	default void forEach(Consumer<? super Reservation> action) {
+		try (Stream<Reservation> rows = streamAll()) {
+			rows.forEach(action);
+		}
+	}
+
+	/**
+	 * Inserts a reservation and sets its generated id. A non-null
+	 * {@link Reservation#getRequestToken() request token} is stored in a unique
+	 * column, so a second insert with the same token fails.
+	 *
+	 * @return the reservation, or {@code null} if the insert failed
+	 */
+	Reservation save(Reservation reservation);
+
+	/**
+	 * @return the reservation created with this idempotency token, or
+	 *         {@code null}
+	 */
+	Reservation findByRequestToken(String requestToken);
+
+	/**
+	 * Inserts all reservations in one transaction using JDBC batching and sets the
+	 * generated id on each of them (e.g. a group booking).
+	 */
+	default void saveAll(Collection<Reservation> reservations) {
+		saveAll(reservations, DEFAULT_BATCH_SIZE);
+	}
+
+	void saveAll(Collection<Reservation> reservations, int batchSize);
 
-	void update(Reservation reservation);
+	/** @return the reservation, or {@code null} if the update failed */
+	Reservation update(Reservation reservation);
 
-	void delete(int id);
+	/** @return {@code true} if a row was deleted */
+	boolean delete(int id);
 }
@@ -7,22 +7,27 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
 
 import com.cinemamanager.model.Reservation;
 
 public class ReservationsDaoImpl implements ReservationsDao {
 
-	private final Connection connection;
+	private final DataSource dataSource;
 
-	public ReservationsDaoImpl(Connection connection) {
-		this.connection = connection;
+	public ReservationsDaoImpl(DataSource dataSource) {
+		this.dataSource = dataSource;
 	}
 
 	@Override
 	public Reservation findById(int id) {
 		String sql = "SELECT reservation_id, customer_id, screening_id, reservation_time FROM reservation WHERE reservation_id = ?";
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setInt(1, id);
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next())
@@ -38,7 +43,9 @@ public class ReservationsDaoImpl implements ReservationsDao {
 	public List<Reservation> findAll() {
 		List<Reservation> list = new ArrayList<>();
 		String sql = "SELECT reservation_id, customer_id, screening_id, reservation_time FROM reservation ORDER BY reservation_time DESC";
-		try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql);
+				ResultSet rs = ps.executeQuery()) {
 			while (rs.next())
 				list.add(mapRow(rs));
 		} catch (SQLException e) {
@@ -47,11 +54,80 @@ public class ReservationsDaoImpl implements ReservationsDao {
 		return list;
 	}
 
+	@Override
+	public Page<Reservation> findPage(Reservation after, int limit) {
+		int size = Math.max(1, limit);
+		// "time <= ?" lets MySQL range-scan idx_res_time; the OR breaks ties on the id
+		String sql = "SELECT reservation_id, customer_id, screening_id, reservation_time FROM reservation "
+				+ (after == null ? ""
+						: "WHERE reservation_time <= ? AND (reservation_time < ? OR reservation_id < ?) ")
+				+ "ORDER BY reservation_time DESC, reservation_id DESC LIMIT ?";
+		List<Reservation> list = new ArrayList<>(size + 1);
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			int i = 1;
+			if (after != null) {
+				Timestamp ts = Timestamp.valueOf(after.getReservationTime());
+				ps.setTimestamp(i++, ts);
+				ps.setTimestamp(i++, ts);
+				ps.setInt(i++, after.getReservationId());
+			}
+			ps.setInt(i, size + 1);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next())
+					list.add(mapRow(rs));
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return Page.of(list, size);
+	}
+
+	@Override
+	public int count() {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement("SELECT COUNT(*) FROM reservation");
+				ResultSet rs = ps.executeQuery()) {
+			if (rs.next())
+				return rs.getInt(1);
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return 0;
+	}
+
+	@Override
+	public List<Reservation> findSlice(int offset, int limit) {
+		List<Reservation> list = new ArrayList<>(Math.max(0, limit));
+		String sql = "SELECT reservation_id, customer_id, screening_id, reservation_time FROM reservation "
+				+ "ORDER BY reservation_time DESC, reservation_id DESC LIMIT ? OFFSET ?";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.setInt(1, Math.max(0, limit));
+			ps.setInt(2, Math.max(0, offset));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next())
+					list.add(mapRow(rs));
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return list;
+	}
+
+	@Override
+	public Stream<Reservation> streamAll() {
+		return JdbcStreams.stream(dataSource,
+				"SELECT reservation_id, customer_id, screening_id, reservation_time FROM reservation ORDER BY reservation_id",
+				this::mapRow);
+	}
+
 	@Override
 	public List<Reservation> findByCustomerId(int customerId) {
 		List<Reservation> list = new ArrayList<>();
 		String sql = "SELECT reservation_id, customer_id, screening_id, reservation_time FROM reservation WHERE customer_id = ? ORDER BY reservation_time DESC";
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setInt(1, customerId);
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next())
@@ -64,13 +140,15 @@ public class ReservationsDaoImpl implements ReservationsDao {
 	}
 
 	@Override
-	public void save(Reservation r) {
-		String sql = "INSERT INTO reservation (customer_id, screening_id, reservation_time) VALUES (?, ?, ?)";
-		try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+	public Reservation save(Reservation r) {
+		String sql = "INSERT INTO reservation (customer_id, screening_id, reservation_time, request_token) VALUES (?, ?, ?, ?)";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 			ps.setInt(1, r.getCustomerId());
 			ps.setInt(2, r.getScreeningId());
 			// LocalDateTime -> Timestamp
 			ps.setTimestamp(3, Timestamp.valueOf(r.getReservationTime()));
+			ps.setString(4, r.getRequestToken());
 
 			ps.executeUpdate();
 
@@ -79,33 +157,74 @@ public class ReservationsDaoImpl implements ReservationsDao {
 				if (keys.next())
 					r.setReservationId(keys.getInt(1));
 			}
+			return r;
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	@Override
+	public Reservation findByRequestToken(String requestToken) {
+		String sql = "SELECT reservation_id, customer_id, screening_id, reservation_time FROM reservation WHERE request_token = ?";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.setString(1, requestToken);
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					Reservation r = mapRow(rs);
+					r.setRequestToken(requestToken);
+					return r;
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	@Override
+	public void saveAll(Collection<Reservation> reservations, int batchSize) {
+		String sql = "INSERT INTO reservation (customer_id, screening_id, reservation_time, request_token) VALUES (?, ?, ?, ?)";
+		try {
+			JdbcBatch.insertAll(dataSource, sql, reservations, batchSize, (ps, r) -> {
+				ps.setInt(1, r.getCustomerId());
+				ps.setInt(2, r.getScreeningId());
+				ps.setTimestamp(3, Timestamp.valueOf(r.getReservationTime()));
+				ps.setString(4, r.getRequestToken());
+			}, Reservation::setReservationId);
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
 	}
 
 	@Override
-	public void update(Reservation r) {
+	public Reservation update(Reservation r) {
 		String sql = "UPDATE reservation SET customer_id = ?, screening_id = ?, reservation_time = ? WHERE reservation_id = ?";
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setInt(1, r.getCustomerId());
 			ps.setInt(2, r.getScreeningId());
 			ps.setTimestamp(3, Timestamp.valueOf(r.getReservationTime()));
 			ps.setInt(4, r.getReservationId());
 			ps.executeUpdate();
+			return r;
 		} catch (SQLException e) {
 			e.printStackTrace();
+			return null;
 		}
 	}
 
 	@Override
-	public void delete(int id) {
+	public boolean delete(int id) {
 		String sql = "DELETE FROM reservation WHERE reservation_id = ?";
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setInt(1, id);
-			ps.executeUpdate();
+			return ps.executeUpdate() > 0;
 		} catch (SQLException e) {
 			e.printStackTrace();
+			return false;
 		}
 	}
 
@@ -1,27 +1,114 @@
 package com.cinemamanager.dao;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import com.cinemamanager.model.Screening;
+import com.cinemamanager.model.ScreeningDetails;
 
 public interface ScreeningDao {
+	/** Rows per JDBC batch used by {@link #saveAll(Collection)}. */
+	int DEFAULT_BATCH_SIZE = 100;
+
 	Screening findById(int id);
 
 	List<Screening> findAll();
 
+	/**
+	 * Keyset-paginated variant of {@link #findAll()}, ordered by
+	 * {@code start_time, screening_id}.
+	 *
+	 * @param after the last screening of the previous page, or {@code null}
+	 * @param limit maximum number of rows in the page
+	 */
+	Page<Screening> findPage(Screening after, int limit);
+
 	List<Screening> findByMovieId(int movieId);
 
+	/**
+	 * Streams every screening without materialising a list. The stream holds a database
+	 * connection until it is closed, so use try-with-resources.
+	 *
+	 * @throws DataAccessException if the query fails
+	 */
+	Stream<Screening> streamAll();
+
+	/**
+	 * Calls {@code action} for every screening, streaming rows from the database so
+	 * memory use stays flat.
+	 *
+	 * @throws DataAccessException if the query fails
+	 */
+	default void forEach(Consumer<? super Screening> action) {
+		try (Stream<Screening> rows = streamAll()) {
+			rows.forEach(action);
+		}
+	}
+
 	List<Screening> findByHallId(int hallId);
 
 	List<Screening> findUpcoming(); // e.g. order by startTime >= now
 
+	/**
+	 * All screenings with their movie title/duration and hall name/capacity,
+	 * ordered by start time, from one query joining {@code movie} and {@code hall}
+	 * on their primary keys.
+	 */
+	List<ScreeningDetails> findAllDetails();
+
+	/** Like {@link #findAllDetails()}, limited to screenings that have not started. */
+	List<ScreeningDetails> findUpcomingDetails();
+
+	/**
+	 * Screenings of a hall starting in {@code [from, to)}, ordered by start time.
+	 * Served by the {@code idx_hall_start} index.
+	 */
+	List<Screening> findByHallAndRange(int hallId, LocalDateTime from, LocalDateTime to);
+
+	/**
+	 * Screenings of all halls starting in {@code [from, to)}, ordered by start
+	 * time. Served by the {@code idx_start} index.
+	 */
+	List<Screening> findByRange(LocalDateTime from, LocalDateTime to);
+
+	/**
+	 * The next {@code limit} screenings of a hall that have not started yet,
+	 * ordered by start time.
+	 */
+	List<Screening> findUpcomingByHall(int hallId, int limit);
+
 	void save(Screening screening);
 
+	/**
+	 * Inserts all screenings in one transaction using JDBC batching and sets the
+	 * generated id on each of them.
+	 */
+	default void saveAll(Collection<Screening> screenings) {
+		saveAll(screenings, DEFAULT_BATCH_SIZE);
+	}
+
+	void saveAll(Collection<Screening> screenings, int batchSize);
+
 	void update(Screening screening);
 
 	void delete(int id);
 
+	/**
+	 * Adds {@code seats} to the screening's {@code seats_sold} counter, but only if
+	 * the result stays within the hall's capacity. The check and the increment are
+	 * one conditional {@code UPDATE}, so concurrent callers cannot oversell.
+	 *
+	 * @return {@code false} if the seats are not available (or the screening does
+	 *         not exist)
+	 */
+	boolean tryReserveSeats(int screeningId, int seats);
+
+	/** Gives {@code seats} back to the screening's counter (never below zero). */
+	void releaseSeats(int screeningId, int seats);
+
 	/**
 	 * Check if there is already a screening in the given hall overlapping the
 	 * specified time interval.
@@ -8,22 +8,32 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
 
 import com.cinemamanager.model.Screening;
+import com.cinemamanager.model.ScreeningDetails;
 
 public class ScreeningDaoImpl implements ScreeningDao {
 
-	private final Connection connection;
+	private static final String DETAILS_SELECT = "SELECT s.screening_id, s.movie_id, s.hall_id, s.start_time, s.end_time, "
+			+ "s.seats_sold, m.title, m.duration, h.name, h.capacity FROM screening s "
+			+ "JOIN movie m ON m.movie_id = s.movie_id JOIN hall h ON h.hall_id = s.hall_id ";
+
+	private final DataSource dataSource;
 
-	public ScreeningDaoImpl(Connection connection) {
-		this.connection = connection;
+	public ScreeningDaoImpl(DataSource dataSource) {
+		this.dataSource = dataSource;
 	}
 
 	@Override
 	public Screening findById(int id) {
 		String sql = "SELECT screening_id, movie_id, hall_id, start_time, end_time FROM screening WHERE screening_id = ?";
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setInt(1, id);
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next())
@@ -39,7 +49,9 @@ public class ScreeningDaoImpl implements ScreeningDao {
 	public List<Screening> findAll() {
 		String sql = "SELECT screening_id, movie_id, hall_id, start_time, end_time FROM screening ORDER BY start_time ASC";
 		List<Screening> list = new ArrayList<>();
-		try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql);
+				ResultSet rs = ps.executeQuery()) {
 			while (rs.next())
 				list.add(mapRow(rs));
 		} catch (SQLException e) {
@@ -48,11 +60,46 @@ public class ScreeningDaoImpl implements ScreeningDao {
 		return list;
 	}
 
+	@Override
+	public Page<Screening> findPage(Screening after, int limit) {
+		int size = Math.max(1, limit);
+		String sql = "SELECT screening_id, movie_id, hall_id, start_time, end_time FROM screening "
+				+ (after == null ? "" : "WHERE start_time >= ? AND (start_time > ? OR screening_id > ?) ")
+				+ "ORDER BY start_time ASC, screening_id ASC LIMIT ?";
+		List<Screening> list = new ArrayList<>(size + 1);
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			int i = 1;
+			if (after != null) {
+				Timestamp ts = Timestamp.valueOf(after.getStartTime());
+				ps.setTimestamp(i++, ts);
+				ps.setTimestamp(i++, ts);
+				ps.setInt(i++, after.getScreeningId());
+			}
+			ps.setInt(i, size + 1);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next())
+					list.add(mapRow(rs));
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return Page.of(list, size);
+	}
+
+	@Override
+	public Stream<Screening> streamAll() {
+		return JdbcStreams.stream(dataSource,
+				"SELECT screening_id, movie_id, hall_id, start_time, end_time FROM screening ORDER BY screening_id",
+				this::mapRow);
+	}
+
 	@Override
 	public List<Screening> findByMovieId(int movieId) {
 		String sql = "SELECT screening_id, movie_id, hall_id, start_time, end_time FROM screening WHERE movie_id = ? ORDER BY start_time ASC";
 		List<Screening> list = new ArrayList<>();
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setInt(1, movieId);
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next())
@@ -68,7 +115,8 @@ public class ScreeningDaoImpl implements ScreeningDao {
 	public List<Screening> findByHallId(int hallId) {
 		String sql = "SELECT screening_id, movie_id, hall_id, start_time, end_time FROM screening WHERE hall_id = ? ORDER BY start_time ASC";
 		List<Screening> list = new ArrayList<>();
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setInt(1, hallId);
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next())
@@ -85,7 +133,9 @@ public class ScreeningDaoImpl implements ScreeningDao {
 		String sql = "SELECT screening_id, movie_id, hall_id, start_time, end_time "
 				+ "FROM screening WHERE start_time >= NOW() ORDER BY start_time ASC";
 		List<Screening> list = new ArrayList<>();
-		try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql);
+				ResultSet rs = ps.executeQuery()) {
 			while (rs.next())
 				list.add(mapRow(rs));
 		} catch (SQLException e) {
@@ -94,10 +144,92 @@ public class ScreeningDaoImpl implements ScreeningDao {
 		return list;
 	}
 
+	@Override
+	public List<ScreeningDetails> findAllDetails() {
+		return queryDetails(DETAILS_SELECT + "ORDER BY s.start_time ASC");
+	}
+
+	@Override
+	public List<ScreeningDetails> findUpcomingDetails() {
+		return queryDetails(DETAILS_SELECT + "WHERE s.start_time >= NOW() ORDER BY s.start_time ASC");
+	}
+
+	private List<ScreeningDetails> queryDetails(String sql) {
+		List<ScreeningDetails> list = new ArrayList<>();
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql);
+				ResultSet rs = ps.executeQuery()) {
+			while (rs.next())
+				list.add(mapDetailsRow(rs));
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return list;
+	}
+
+	@Override
+	public List<Screening> findByHallAndRange(int hallId, LocalDateTime from, LocalDateTime to) {
+		String sql = "SELECT screening_id, movie_id, hall_id, start_time, end_time FROM screening "
+				+ "WHERE hall_id = ? AND start_time >= ? AND start_time < ? ORDER BY start_time ASC";
+		List<Screening> list = new ArrayList<>();
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.setInt(1, hallId);
+			ps.setTimestamp(2, Timestamp.valueOf(from));
+			ps.setTimestamp(3, Timestamp.valueOf(to));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next())
+					list.add(mapRow(rs));
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return list;
+	}
+
+	@Override
+	public List<Screening> findByRange(LocalDateTime from, LocalDateTime to) {
+		String sql = "SELECT screening_id, movie_id, hall_id, start_time, end_time FROM screening "
+				+ "WHERE start_time >= ? AND start_time < ? ORDER BY start_time ASC";
+		List<Screening> list = new ArrayList<>();
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.setTimestamp(1, Timestamp.valueOf(from));
+			ps.setTimestamp(2, Timestamp.valueOf(to));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next())
+					list.add(mapRow(rs));
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return list;
+	}
+
+	@Override
+	public List<Screening> findUpcomingByHall(int hallId, int limit) {
+		String sql = "SELECT screening_id, movie_id, hall_id, start_time, end_time FROM screening "
+				+ "WHERE hall_id = ? AND start_time >= NOW() ORDER BY start_time ASC LIMIT ?";
+		List<Screening> list = new ArrayList<>();
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.setInt(1, hallId);
+			ps.setInt(2, Math.max(1, limit));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next())
+					list.add(mapRow(rs));
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return list;
+	}
+
 	@Override
 	public void save(Screening s) {
 		String sql = "INSERT INTO screening (movie_id, hall_id, start_time, end_time) VALUES (?, ?, ?, ?)";
-		try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 			ps.setInt(1, s.getMovieId());
 			ps.setInt(2, s.getHallId());
 			ps.setTimestamp(3, Timestamp.valueOf(s.getStartTime()));
@@ -113,10 +245,26 @@ public class ScreeningDaoImpl implements ScreeningDao {
 		}
 	}
 
+	@Override
+	public void saveAll(Collection<Screening> screenings, int batchSize) {
+		String sql = "INSERT INTO screening (movie_id, hall_id, start_time, end_time) VALUES (?, ?, ?, ?)";
+		try {
+			JdbcBatch.insertAll(dataSource, sql, screenings, batchSize, (ps, s) -> {
+				ps.setInt(1, s.getMovieId());
+				ps.setInt(2, s.getHallId());
+				ps.setTimestamp(3, Timestamp.valueOf(s.getStartTime()));
+				ps.setTimestamp(4, Timestamp.valueOf(s.getEndTime()));
+			}, Screening::setScreeningId);
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
 	@Override
 	public void update(Screening s) {
 		String sql = "UPDATE screening SET movie_id = ?, hall_id = ?, start_time = ?, end_time = ? WHERE screening_id = ?";
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setInt(1, s.getMovieId());
 			ps.setInt(2, s.getHallId());
 			ps.setTimestamp(3, Timestamp.valueOf(s.getStartTime()));
@@ -131,7 +279,8 @@ public class ScreeningDaoImpl implements ScreeningDao {
 	@Override
 	public void delete(int id) {
 		String sql = "DELETE FROM screening WHERE screening_id = ?";
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setInt(1, id);
 			ps.executeUpdate();
 		} catch (SQLException e) {
@@ -139,10 +288,40 @@ public class ScreeningDaoImpl implements ScreeningDao {
 		}
 	}
 
+	@Override
+	public boolean tryReserveSeats(int screeningId, int seats) {
+		String sql = "UPDATE screening s JOIN hall h ON h.hall_id = s.hall_id SET s.seats_sold = s.seats_sold + ? "
+				+ "WHERE s.screening_id = ? AND s.seats_sold + ? <= h.capacity";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.setInt(1, seats);
+			ps.setInt(2, screeningId);
+			ps.setInt(3, seats);
+			return ps.executeUpdate() == 1;
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return false;
+	}
+
+	@Override
+	public void releaseSeats(int screeningId, int seats) {
+		String sql = "UPDATE screening SET seats_sold = GREATEST(seats_sold - ?, 0) WHERE screening_id = ?";
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.setInt(1, seats);
+			ps.setInt(2, screeningId);
+			ps.executeUpdate();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
 	@Override
 	public boolean existsOverlap(int hallId, LocalDateTime startTime, LocalDateTime endTime) {
 		String sql = "SELECT COUNT(*) FROM screening " + "WHERE hall_id = ? " + "AND (start_time < ? AND end_time > ?)";
-		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
 			ps.setInt(1, hallId);
 			ps.setTimestamp(2, Timestamp.valueOf(endTime));
 			ps.setTimestamp(3, Timestamp.valueOf(startTime));
@@ -156,6 +335,23 @@ public class ScreeningDaoImpl implements ScreeningDao {
 		return false;
 	}
 
+	private ScreeningDetails mapDetailsRow(ResultSet rs) throws SQLException {
+		ScreeningDetails d = new ScreeningDetails();
+		d.setScreeningId(rs.getInt("screening_id"));
+		d.setMovieId(rs.getInt("movie_id"));
+		d.setHallId(rs.getInt("hall_id"));
+		Timestamp tsStart = rs.getTimestamp("start_time");
+		Timestamp tsEnd = rs.getTimestamp("end_time");
+		d.setStartTime(tsStart != null ? tsStart.toLocalDateTime() : null);
+		d.setEndTime(tsEnd != null ? tsEnd.toLocalDateTime() : null);
+		d.setMovieTitle(rs.getString("title"));
+		d.setMovieDuration(rs.getInt("duration"));
+		d.setHallName(rs.getString("name"));
+		d.setHallCapacity(rs.getInt("capacity"));
+		d.setSeatsSold(rs.getInt("seats_sold"));
+		return d;
+	}
+
 	private Screening mapRow(ResultSet rs) throws SQLException {
 		Screening s = new Screening();
 		s.setScreeningId(rs.getInt("screening_id"));
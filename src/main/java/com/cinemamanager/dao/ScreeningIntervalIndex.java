@@ -0,0 +1,242 @@
+package com.cinemamanager.dao;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import com.cinemamanager.model.Screening;
+
+/**
+ * In-memory index of screening time slots per hall, used to answer overlap
+ * checks without a database round trip.
+ *
+ * <p>
+ * Each hall is stored as arrays sorted by start time, plus a running maximum of
+ * end times. An overlap check for {@code [start, end)} binary-searches the last
+ * screening starting before {@code end} and walks backwards only while the
+ * running maximum still reaches past {@code start}, so it is
+ * {@code O(log n)} in the common case. Halls are loaded lazily on first use;
+ * updates replace the hall's arrays (copy-on-write), so readers never lock.
+ * </p>
+ *
+ * <p>
+ * A hall is loaded outside the map, so a change can arrive while its query
+ * runs and find nothing to patch. Every change therefore bumps a modification
+ * count, and a load only installs its snapshot if the count did not move;
+ * otherwise it loads again.
+ * </p>
+ */
+public final class ScreeningIntervalIndex {
+
+	private static final int MAX_LOAD_ATTEMPTS = 3;
+
+	private final IntFunction<List<Screening>> loader;
+	private final Map<Integer, HallSlots> halls = new ConcurrentHashMap<>();
+	// screening id -> hall id, needed to remove by id
+	private final Map<Integer, Integer> hallOfScreening = new ConcurrentHashMap<>();
+	// bumped before every change, so loads that raced one are not installed
+	private final AtomicLong modCount = new AtomicLong();
+
+	/**
+	 * @param loader returns all screenings of a hall, e.g.
+	 *               {@code screeningDao::findByHallId}
+	 */
+	public ScreeningIntervalIndex(IntFunction<List<Screening>> loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * @return {@code true} if a screening in the hall overlaps
+	 *         {@code [start, end)}
+	 */
+	public boolean overlaps(int hallId, LocalDateTime start, LocalDateTime end) {
+		return overlaps(hallId, start, end, 0);
+	}
+
+	/**
+	 * Like {@link #overlaps(int, LocalDateTime, LocalDateTime)}, ignoring the
+	 * screening with id {@code excludeId} (used when moving a screening).
+	 */
+	public boolean overlaps(int hallId, LocalDateTime start, LocalDateTime end, int excludeId) {
+		return slots(hallId).overlaps(toKey(start), toKey(end), excludeId);
+	}
+
+	/** Adds or replaces a saved screening. */
+	public void put(Screening s) {
+		if (s.getScreeningId() <= 0 || s.getStartTime() == null || s.getEndTime() == null) {
+			return;
+		}
+		modCount.incrementAndGet();
+		remove(s.getScreeningId());
+		hallOfScreening.put(s.getScreeningId(), s.getHallId());
+		// only halls already loaded need patching; others will load it from the DB
+		halls.computeIfPresent(s.getHallId(), (id, slots) -> slots.with(s));
+	}
+
+	/** Removes a screening by id, if indexed. */
+	public void remove(int screeningId) {
+		modCount.incrementAndGet();
+		Integer hallId = hallOfScreening.remove(screeningId);
+		if (hallId != null) {
+			halls.computeIfPresent(hallId, (id, slots) -> slots.without(screeningId));
+		}
+	}
+
+	/** Drops a hall so that it is reloaded from the database on next use. */
+	public void invalidate(int hallId) {
+		modCount.incrementAndGet();
+		halls.remove(hallId);
+	}
+
+	/** Drops every hall. */
+	public void clear() {
+		modCount.incrementAndGet();
+		halls.clear();
+		hallOfScreening.clear();
+	}
+
+	private HallSlots slots(int hallId) {
+		HallSlots slots = halls.get(hallId);
+		for (int attempt = 0; slots == null; attempt++) {
+			// load outside the map so a slow query does not block other halls
+			long seen = modCount.get();
+			List<Screening> screenings = loader.apply(hallId);
+			HallSlots loaded = HallSlots.of(screenings);
+			if (attempt == MAX_LOAD_ATTEMPTS) {
+				// under constant writes: answer from this fresh load without caching it
+				return loaded;
+			}
+			slots = halls.compute(hallId, (id, current) -> {
+				if (current != null || modCount.get() != seen) {
+					return current;
+				}
+				for (Screening s : screenings) {
+					hallOfScreening.put(s.getScreeningId(), hallId);
+				}
+				return loaded;
+			});
+		}
+		return slots;
+	}
+
+	private static long toKey(LocalDateTime time) {
+		return time.toEpochSecond(ZoneOffset.UTC);
+	}
+
+	/** Immutable, start-sorted slots of one hall. */
+	private static final class HallSlots {
+		final int[] ids;
+		final long[] starts;
+		final long[] ends;
+		// maxEnds[i] = max(ends[0..i])
+		final long[] maxEnds;
+
+		private HallSlots(int[] ids, long[] starts, long[] ends) {
+			this.ids = ids;
+			this.starts = starts;
+			this.ends = ends;
+			this.maxEnds = new long[ends.length];
+			long max = Long.MIN_VALUE;
+			for (int i = 0; i < ends.length; i++) {
+				max = Math.max(max, ends[i]);
+				maxEnds[i] = max;
+			}
+		}
+
+		static HallSlots of(List<Screening> screenings) {
+			List<Screening> sorted = new ArrayList<>(screenings.size());
+			for (Screening s : screenings) {
+				if (s.getStartTime() != null && s.getEndTime() != null) {
+					sorted.add(s);
+				}
+			}
+			sorted.sort(Comparator.comparing(Screening::getStartTime));
+			int n = sorted.size();
+			int[] ids = new int[n];
+			long[] starts = new long[n];
+			long[] ends = new long[n];
+			for (int i = 0; i < n; i++) {
+				Screening s = sorted.get(i);
+				ids[i] = s.getScreeningId();
+				starts[i] = toKey(s.getStartTime());
+				ends[i] = toKey(s.getEndTime());
+			}
+			return new HallSlots(ids, starts, ends);
+		}
+
+		boolean overlaps(long start, long end, int excludeId) {
+			// last slot with starts[i] < end
+			int i = lowerBound(end) - 1;
+			for (; i >= 0 && maxEnds[i] > start; i--) {
+				if (ends[i] > start && ids[i] != excludeId) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		HallSlots with(Screening s) {
+			long start = toKey(s.getStartTime());
+			int at = lowerBound(start);
+			int n = ids.length;
+			int[] newIds = new int[n + 1];
+			long[] newStarts = new long[n + 1];
+			long[] newEnds = new long[n + 1];
+			System.arraycopy(ids, 0, newIds, 0, at);
+			System.arraycopy(starts, 0, newStarts, 0, at);
+			System.arraycopy(ends, 0, newEnds, 0, at);
+			newIds[at] = s.getScreeningId();
+			newStarts[at] = start;
+			newEnds[at] = toKey(s.getEndTime());
+			System.arraycopy(ids, at, newIds, at + 1, n - at);
+			System.arraycopy(starts, at, newStarts, at + 1, n - at);
+			System.arraycopy(ends, at, newEnds, at + 1, n - at);
+			return new HallSlots(newIds, newStarts, newEnds);
+		}
+
+		HallSlots without(int screeningId) {
+			int at = -1;
+			for (int i = 0; i < ids.length; i++) {
+				if (ids[i] == screeningId) {
+					at = i;
+					break;
+				}
+			}
+			if (at < 0) {
+				return this;
+			}
+			int n = ids.length;
+			int[] newIds = new int[n - 1];
+			long[] newStarts = new long[n - 1];
+			long[] newEnds = new long[n - 1];
+			System.arraycopy(ids, 0, newIds, 0, at);
+			System.arraycopy(starts, 0, newStarts, 0, at);
+			System.arraycopy(ends, 0, newEnds, 0, at);
+			System.arraycopy(ids, at + 1, newIds, at, n - at - 1);
+			System.arraycopy(starts, at + 1, newStarts, at, n - at - 1);
+			System.arraycopy(ends, at + 1, newEnds, at, n - at - 1);
+			return new HallSlots(newIds, newStarts, newEnds);
+		}
+
+		// first index whose start is >= key
+		private int lowerBound(long key) {
+			int lo = 0;
+			int hi = starts.length;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (starts[mid] < key) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			return lo;
+		}
+	}
+}
@@ -0,0 +1,420 @@
+package com.cinemamanager.dao;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * Thread-bound unit of work spanning any number of DAO calls.
+ *
+ * <p>
+ * DAOs are built on {@link #getDataSource()}. Outside a transaction it simply
+ * borrows from the underlying pool, so every DAO call auto-commits as before.
+ * Inside {@link #inTransaction(Function)} it hands every DAO the one connection
+ * bound to the current thread, so all reads and writes share a single commit:
+ * </p>
+ *
+ * <pre>
+ * Screening s = tx.inTransaction(c -&gt; {
+ * 	Movie m = movieDao.findById(movieId);
+ * 	...
+ * 	screeningDao.save(s);
+ * 	return s;
+ * });
+ * </pre>
+ *
+ * <p>
+ * Nested calls join the outer transaction. A statement that fails inside the
+ * transaction marks it rollback-only even if the DAO swallows the exception, so
+ * a half-applied unit of work is never committed. {@link #inSavepoint(Function)}
+ * allows a part of the work to fail and be undone on its own.
+ * </p>
+ */
+public class TransactionManager {
+
+	private final DataSource dataSource;
+	private final int defaultIsolation;
+	private final ThreadLocal<Tx> current = new ThreadLocal<>();
+	private final DataSource transactionAware = new TransactionAwareDataSource();
+
+	/**
+	 * @param dataSource       the pool to borrow connections from
+	 * @param defaultIsolation a {@code Connection.TRANSACTION_*} level, or
+	 *                         {@code -1} to keep the driver default
+	 */
+	public TransactionManager(DataSource dataSource, int defaultIsolation) {
+		this.dataSource = Objects.requireNonNull(dataSource);
+		this.defaultIsolation = defaultIsolation;
+	}
+
+	/**
+	 * Parses an isolation name as used in {@code db.properties}
+	 * ({@code READ_COMMITTED}, {@code REPEATABLE_READ}, ...).
+	 *
+	 * @return the matching {@code Connection.TRANSACTION_*} constant, or
+	 *         {@code -1} for a blank value
+	 */
+	public static int parseIsolation(String name) {
+		if (name == null || name.isBlank()) {
+			return -1;
+		}
+		switch (name.trim().toUpperCase(Locale.ROOT)) {
+		case "READ_UNCOMMITTED":
+			return Connection.TRANSACTION_READ_UNCOMMITTED;
+		case "READ_COMMITTED":
+			return Connection.TRANSACTION_READ_COMMITTED;
+		case "REPEATABLE_READ":
+			return Connection.TRANSACTION_REPEATABLE_READ;
+		case "SERIALIZABLE":
+			return Connection.TRANSACTION_SERIALIZABLE;
+		default:
+			throw new IllegalArgumentException("Unknown transaction isolation: " + name);
+		}
+	}
+
+	/** @return the data source DAOs should use so they join running transactions */
+	public DataSource getDataSource() {
+		return transactionAware;
+	}
+
+	/** @return {@code true} if the current thread is inside a transaction */
+	public boolean isActive() {
+		return current.get() != null;
+	}
+
+	/**
+	 * Runs {@code work} in a transaction with the default isolation level.
+	 *
+	 * @see #inTransaction(int, Function)
+	 */
+	public <T> T inTransaction(Function<Connection, T> work) {
+		return inTransaction(defaultIsolation, work);
+	}
+
+	/**
+	 * Runs {@code work} in a transaction and commits once when it returns. Any
+	 * exception, or a statement that failed along the way, rolls everything back.
+	 * If a transaction is already active on this thread, {@code work} joins it and
+	 * the outermost call decides the outcome; {@code isolation} is then ignored.
+	 *
+	 * @param isolation a {@code Connection.TRANSACTION_*} level, or {@code -1}
+	 * @param work      receives the transaction's connection (closing it is a
+	 *                  no-op)
+	 * @return the value returned by {@code work}
+	 * @throws DataAccessException if the transaction could not be started or
+	 *                             committed, or was marked rollback-only
+	 */
+	public <T> T inTransaction(int isolation, Function<Connection, T> work) {
+		Tx outer = current.get();
+		if (outer != null) {
+			try {
+				return work.apply(outer.view);
+			} catch (RuntimeException | Error e) {
+				outer.rollbackOnly = true;
+				throw e;
+			}
+		}
+
+		Tx tx;
+		try {
+			tx = begin(isolation);
+		} catch (SQLException e) {
+			throw new DataAccessException("Could not start transaction: " + e.getMessage(), e);
+		}
+		current.set(tx);
+		try {
+			T result = work.apply(tx.view);
+			if (tx.rollbackOnly) {
+				tx.physical.rollback();
+				throw new DataAccessException("Transaction rolled back because a statement failed.", null);
+			}
+			tx.physical.commit();
+			return result;
+		} catch (SQLException e) {
+			rollbackQuietly(tx, e);
+			throw new DataAccessException("Transaction failed: " + e.getMessage(), e);
+		} catch (RuntimeException | Error e) {
+			rollbackQuietly(tx, e);
+			throw e;
+		} finally {
+			current.remove();
+			end(tx);
+		}
+	}
+
+	/**
+	 * Runs {@code work} behind a savepoint of the current transaction. If it
+	 * throws, only its own changes are rolled back and the exception is rethrown;
+	 * the enclosing transaction stays usable. Without an active transaction this
+	 * behaves like {@link #inTransaction(Function)}.
+	 */
+	public <T> T inSavepoint(Function<Connection, T> work) {
+		Tx tx = current.get();
+		if (tx == null) {
+			return inTransaction(work);
+		}
+		boolean wasRollbackOnly = tx.rollbackOnly;
+		Savepoint savepoint;
+		try {
+			savepoint = tx.physical.setSavepoint();
+		} catch (SQLException e) {
+			throw new DataAccessException("Could not set savepoint: " + e.getMessage(), e);
+		}
+		try {
+			T result = work.apply(tx.view);
+			if (tx.rollbackOnly && !wasRollbackOnly) {
+				tx.physical.rollback(savepoint);
+				tx.rollbackOnly = false;
+				throw new DataAccessException("Savepoint rolled back because a statement failed.", null);
+			}
+			tx.physical.releaseSavepoint(savepoint);
+			return result;
+		} catch (SQLException e) {
+			rollbackTo(tx, savepoint, wasRollbackOnly, e);
+			throw new DataAccessException("Savepoint failed: " + e.getMessage(), e);
+		} catch (RuntimeException | Error e) {
+			rollbackTo(tx, savepoint, wasRollbackOnly, e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Registers a callback that runs after the current transaction commits, or
+	 * immediately when no transaction is active. Callbacks are dropped on
+	 * rollback.
+	 */
+	public void afterCommit(Runnable callback) {
+		Tx tx = current.get();
+		if (tx == null) {
+			callback.run();
+		} else {
+			tx.afterCommit.add(callback);
+		}
+	}
+
+	/** Forces the current transaction to roll back when it ends. */
+	public void setRollbackOnly() {
+		Tx tx = current.get();
+		if (tx == null) {
+			throw new IllegalStateException("No active transaction");
+		}
+		tx.rollbackOnly = true;
+	}
+
+	private Tx begin(int isolation) throws SQLException {
+		Connection physical = dataSource.getConnection();
+		try {
+			int previousIsolation = physical.getTransactionIsolation();
+			if (isolation != -1 && isolation != previousIsolation) {
+				physical.setTransactionIsolation(isolation);
+			}
+			physical.setAutoCommit(false);
+			return new Tx(physical, previousIsolation);
+		} catch (SQLException | RuntimeException e) {
+			physical.close();
+			throw e;
+		}
+	}
+
+	private void end(Tx tx) {
+		boolean committed = tx.committed();
+		try {
+			tx.physical.setAutoCommit(true);
+			if (tx.physical.getTransactionIsolation() != tx.previousIsolation) {
+				tx.physical.setTransactionIsolation(tx.previousIsolation);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		} finally {
+			try {
+				tx.physical.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+		if (committed) {
+			for (Runnable callback : tx.afterCommit) {
+				try {
+					callback.run();
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	private static void rollbackQuietly(Tx tx, Throwable cause) {
+		tx.failed = true;
+		try {
+			tx.physical.rollback();
+		} catch (SQLException e) {
+			cause.addSuppressed(e);
+		}
+	}
+
+	private static void rollbackTo(Tx tx, Savepoint savepoint, boolean wasRollbackOnly, Throwable cause) {
+		try {
+			tx.physical.rollback(savepoint);
+			tx.rollbackOnly = wasRollbackOnly;
+		} catch (SQLException e) {
+			tx.rollbackOnly = true;
+			cause.addSuppressed(e);
+		}
+	}
+
+	/** State of the transaction bound to one thread. */
+	private static final class Tx {
+		final Connection physical;
+		final Connection view;
+		final int previousIsolation;
+		final List<Runnable> afterCommit = new ArrayList<>();
+		boolean rollbackOnly;
+		boolean failed;
+
+		Tx(Connection physical, int previousIsolation) {
+			this.physical = physical;
+			this.previousIsolation = previousIsolation;
+			this.view = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new BoundConnection(this));
+		}
+
+		boolean committed() {
+			return !failed && !rollbackOnly;
+		}
+	}
+
+	/**
+	 * The connection DAOs see inside a transaction: closing it is a no-op and the
+	 * transaction boundaries belong to the manager.
+	 */
+	private static final class BoundConnection implements InvocationHandler {
+		private final Tx tx;
+
+		BoundConnection(Tx tx) {
+			this.tx = tx;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				return null;
+			case "isClosed":
+				return tx.physical.isClosed();
+			case "commit":
+			case "rollback":
+				if (args == null || args.length == 0) {
+					throw new SQLException("Transaction is managed by TransactionManager");
+				}
+				break;
+			case "setAutoCommit":
+				if (Boolean.TRUE.equals(args[0])) {
+					throw new SQLException("Transaction is managed by TransactionManager");
+				}
+				return null;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "TransactionBound[" + tx.physical + "]";
+			default:
+				break;
+			}
+			Object result = invokeTracked(tx, tx.physical, method, args);
+			if (result instanceof Statement statement) {
+				return wrapStatement(statement, (Connection) proxy);
+			}
+			return result;
+		}
+
+		private Object wrapStatement(Statement statement, Connection owner) {
+			Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+					: statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+			return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { type },
+					(p, m, a) -> "getConnection".equals(m.getName()) ? owner : invokeTracked(tx, statement, m, a));
+		}
+	}
+
+	// a failed statement dooms the transaction even if the DAO catches the error
+	private static Object invokeTracked(Tx tx, Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof SQLException) {
+				tx.rollbackOnly = true;
+			}
+			throw e.getCause();
+		}
+	}
+
+	/** Hands out the thread's transaction connection, or a pooled one. */
+	private final class TransactionAwareDataSource implements DataSource {
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			Tx tx = current.get();
+			return tx != null ? tx.view : dataSource.getConnection();
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			throw new SQLFeatureNotSupportedException("Credentials are fixed by the pool");
+		}
+
+		@Override
+		public PrintWriter getLogWriter() throws SQLException {
+			return dataSource.getLogWriter();
+		}
+
+		@Override
+		public void setLogWriter(PrintWriter out) throws SQLException {
+			dataSource.setLogWriter(out);
+		}
+
+		@Override
+		public void setLoginTimeout(int seconds) throws SQLException {
+			dataSource.setLoginTimeout(seconds);
+		}
+
+		@Override
+		public int getLoginTimeout() throws SQLException {
+			return dataSource.getLoginTimeout();
+		}
+
+		@Override
+		public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+			return dataSource.getParentLogger();
+		}
+
+		@Override
+		public <T> T unwrap(Class<T> iface) throws SQLException {
+			if (iface.isInstance(this)) {
+				return iface.cast(this);
+			}
+			return dataSource.unwrap(iface);
+		}
+
+		@Override
+		public boolean isWrapperFor(Class<?> iface) throws SQLException {
+			return iface.isInstance(this) || dataSource.isWrapperFor(iface);
+		}
+	}
+}
@@ -4,6 +4,9 @@ public class Hall {
 	private int hallId;
 	private String name;
 	private int capacity;
+	// seat layout; 0 means "derive rows from capacity"
+	private int seatRows;
+	private int seatsPerRow;
 
 	// Getters and Setters
 	public int getHallId() {
@@ -29,4 +32,20 @@ public class Hall {
 	public void setCapacity(int capacity) {
 		this.capacity = capacity;
 	}
+
+	public int getSeatRows() {
+		return seatRows;
+	}
+
+	public void setSeatRows(int seatRows) {
+		this.seatRows = seatRows;
+	}
+
+	public int getSeatsPerRow() {
+		return seatsPerRow;
+	}
+
+	public void setSeatsPerRow(int seatsPerRow) {
+		this.seatsPerRow = seatsPerRow;
+	}
 }
@@ -0,0 +1,145 @@
+package com.cinemamanager.model;
+
+/**
+ * The short form of a {@link Movie}: every column except the (potentially
+ * long) description.
+ * 
+ * <p>
+ * Lists and search results use summaries so that a query does not have to
+ * transfer each movie's {@code TEXT} description; the full {@link Movie}, which
+ * extends this class, is loaded when one movie is opened.
+ * </p>
+ * 
+ * @author Boban Vesin
+ * @version 1.0
+ */
+public class MovieSummary {
+
+	/** Unique identifier of the movie. */
+	private int movieId;
+
+	/** Title of the movie. */
+	private String title;
+
+	/** Genre of the movie (e.g., Action, Drama, Comedy). */
+	private String genre;
+
+	/** Language of the movie (e.g., English, French). */
+	private String language;
+
+	/** Duration of the movie in minutes. */
+	private int duration;
+
+	/** Release year of the movie. */
+	private int releaseYear;
+
+	// --- Getters and Setters ---
+
+	/**
+	 * Gets the unique identifier of the movie.
+	 * 
+	 * @return the movie ID
+	 */
+	public int getMovieId() {
+		return movieId;
+	}
+
+	/**
+	 * Sets the unique identifier of the movie.
+	 * 
+	 * @param movieId the new movie ID
+	 */
+	public void setMovieId(int movieId) {
+		this.movieId = movieId;
+	}
+
+	/**
+	 * Gets the title of the movie.
+	 * 
+	 * @return the movie title
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * Sets the title of the movie.
+	 * 
+	 * @param title the new title
+	 */
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	/**
+	 * Gets the genre of the movie.
+	 * 
+	 * @return the movie genre
+	 */
+	public String getGenre() {
+		return genre;
+	}
+
+	/**
+	 * Sets the genre of the movie.
+	 * 
+	 * @param genre the new genre
+	 */
+	public void setGenre(String genre) {
+		this.genre = genre;
+	}
+
+	/**
+	 * Gets the language of the movie.
+	 * 
+	 * @return the movie language
+	 */
+	public String getLanguage() {
+		return language;
+	}
+
+	/**
+	 * Sets the language of the movie.
+	 * 
+	 * @param language the new language
+	 */
+	public void setLanguage(String language) {
+		this.language = language;
+	}
+
+	/**
+	 * Gets the duration of the movie in minutes.
+	 * 
+	 * @return the movie duration
+	 */
+	public int getDuration() {
+		return duration;
+	}
+
+	/**
+	 * Sets the duration of the movie in minutes.
+	 * 
+	 * @param duration the new duration
+	 */
+	public void setDuration(int duration) {
+		this.duration = duration;
+	}
+
+	/**
+	 * Gets the release year of the movie.
+	 * 
+	 * @return the release year
+	 */
+	public int getReleaseYear() {
+		return releaseYear;
+	}
+
+	/**
+	 * Sets the release year of the movie.
+	 * 
+	 * @param releaseYear the new release year
+	 */
+	public void setReleaseYear(int releaseYear) {
+		this.releaseYear = releaseYear;
+	}
+}
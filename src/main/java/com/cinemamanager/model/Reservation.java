@@ -7,6 +7,19 @@ public class Reservation {
 	private int customerId;
 	private int screeningId;
 	private LocalDateTime reservationTime;
+	// client-generated idempotency key; null for reservations made without one
+	private String requestToken;
+
+	/** @return a field-by-field copy, e.g. to edit without touching a displayed row */
+	public Reservation copy() {
+		Reservation r = new Reservation();
+		r.reservationId = reservationId;
+		r.customerId = customerId;
+		r.screeningId = screeningId;
+		r.reservationTime = reservationTime;
+		r.requestToken = requestToken;
+		return r;
+	}
 
 	// Getters and Setters
 	public int getReservationId() {
@@ -40,4 +53,12 @@ public class Reservation {
 	public void setReservationTime(LocalDateTime reservationTime) {
 		this.reservationTime = reservationTime;
 	}
+
+	public String getRequestToken() {
+		return requestToken;
+	}
+
+	public void setRequestToken(String requestToken) {
+		this.requestToken = requestToken;
+	}
 }
@@ -0,0 +1,55 @@
+package com.cinemamanager.model;
+
+/**
+ * Read-only view of a screening together with the movie and hall columns the
+ * UI displays, loaded by one joined query
+ * ({@code ScreeningDao.findAllDetails()}).
+ */
+public class ScreeningDetails extends Screening {
+	private String movieTitle;
+	private int movieDuration;
+	private String hallName;
+	private int hallCapacity;
+	private int seatsSold;
+
+	// Getters and Setters
+	public String getMovieTitle() {
+		return movieTitle;
+	}
+
+	public void setMovieTitle(String movieTitle) {
+		this.movieTitle = movieTitle;
+	}
+
+	public int getMovieDuration() {
+		return movieDuration;
+	}
+
+	public void setMovieDuration(int movieDuration) {
+		this.movieDuration = movieDuration;
+	}
+
+	public String getHallName() {
+		return hallName;
+	}
+
+	public void setHallName(String hallName) {
+		this.hallName = hallName;
+	}
+
+	public int getHallCapacity() {
+		return hallCapacity;
+	}
+
+	public void setHallCapacity(int hallCapacity) {
+		this.hallCapacity = hallCapacity;
+	}
+
+	public int getSeatsSold() {
+		return seatsSold;
+	}
+
+	public void setSeatsSold(int seatsSold) {
+		this.seatsSold = seatsSold;
+	}
+}
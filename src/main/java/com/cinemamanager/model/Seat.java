@@ -0,0 +1,49 @@
+package com.cinemamanager.model;
+
+/**
+ * One seat of a hall, addressed by 1-based row and seat number. Immutable, so
+ * it can be used as a map key.
+ */
+public final class Seat {
+	private final int row;
+	private final int number;
+
+	public Seat(int row, int number) {
+		this.row = row;
+		this.number = number;
+	}
+
+	public int getRow() {
+		return row;
+	}
+
+	public int getNumber() {
+		return number;
+	}
+
+	/** @return a label such as {@code "C7"} (rows past Z are shown as numbers) */
+	public String getLabel() {
+		String r = row >= 1 && row <= 26 ? String.valueOf((char) ('A' + row - 1)) : row + "-";
+		return r + number;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof Seat))
+			return false;
+		Seat other = (Seat) o;
+		return row == other.row && number == other.number;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * row + number;
+	}
+
+	@Override
+	public String toString() {
+		return getLabel();
+	}
+}
@@ -0,0 +1,53 @@
+package com.cinemamanager.service;
+
+import java.util.List;
+
+import com.cinemamanager.model.Reservation;
+import com.cinemamanager.model.Seat;
+
+public interface ReservationService {
+	/**
+	 * Books one seat of a screening for a customer.
+	 *
+	 * @throws IllegalStateException if the screening is sold out or does not exist
+	 */
+	Reservation reserve(int customerId, int screeningId);
+
+	/**
+	 * Idempotent variant of {@link #reserve(int, int)}: every call with the same
+	 * {@code requestToken} (e.g. a UUID created when the form is submitted)
+	 * returns the same reservation, and only the first one inserts. Retries after
+	 * a timeout or a double click are therefore safe.
+	 */
+	Reservation reserve(int customerId, int screeningId, String requestToken);
+
+	/**
+	 * Books the given seats of a screening for a customer as one reservation. The
+	 * seats are claimed all-or-nothing.
+	 *
+	 * @throws IllegalStateException if any seat is taken or the screening is sold
+	 *                               out
+	 */
+	Reservation reserveSeats(int customerId, int screeningId, List<Seat> seats);
+
+	/**
+	 * Like {@link #reserveSeats(int, int, List)} for seats the caller has already
+	 * claimed in the {@link SeatInventory} (e.g. a {@link SeatHoldService} hold).
+	 * If the booking fails, or {@code requestToken} (may be {@code null}) was
+	 * already used, the claim is given up.
+	 */
+	Reservation reserveHeldSeats(int customerId, SeatInventory.Claim claim, String requestToken);
+
+	/**
+	 * Moves an existing reservation to another customer and/or screening. On a new
+	 * screening it gets the best block of as many adjacent seats as it had, and
+	 * its old seats are freed. {@code reservation} is updated in place; if the
+	 * change fails it is left as it was.
+	 *
+	 * @throws IllegalStateException if the new screening is sold out
+	 */
+	void change(Reservation reservation, int customerId, int screeningId);
+
+	/** Deletes a reservation and frees its seats. */
+	void cancel(Reservation reservation);
+}
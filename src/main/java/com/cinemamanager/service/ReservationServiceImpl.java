@@ -0,0 +1,305 @@
+package com.cinemamanager.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.cinemamanager.dao.DataAccessException;
+import com.cinemamanager.dao.ReservationSeatDao;
+import com.cinemamanager.dao.ReservationsDao;
+import com.cinemamanager.dao.ScreeningDao;
+import com.cinemamanager.dao.TransactionManager;
+import com.cinemamanager.model.Reservation;
+import com.cinemamanager.model.Seat;
+import com.cinemamanager.util.LruCache;
+
+/**
+ * Reservation use cases with capacity enforcement and assigned seats.
+ *
+ * <p>
+ * Each screening keeps a {@code seats_sold} counter. Taking seats is one
+ * conditional {@code UPDATE} that only succeeds while {@code seats_sold} stays
+ * within the hall's capacity, run in the same transaction as the reservation
+ * and {@code reservation_seat} inserts. InnoDB serialises concurrent bookings on
+ * the screening row, so a sold-out screening can never be overbooked, and the
+ * lock is held only for the length of one short transaction.
+ * </p>
+ *
+ * <p>
+ * The seats themselves are first claimed in the {@link SeatInventory}, so two
+ * bookings for the same seat in this process never reach the database; the
+ * claim is undone if the transaction fails.
+ * </p>
+ *
+ * <p>
+ * With a {@link ReservationWriteQueue}, new bookings are handed to its writer
+ * and committed in groups; the calling thread still waits until its own
+ * booking is durable.
+ * </p>
+ */
+public class ReservationServiceImpl implements ReservationService {
+
+	private final ReservationsDao reservationsDao;
+	private final ScreeningDao screeningDao;
+	private final ReservationSeatDao reservationSeatDao;
+	private final SeatInventory seatInventory;
+	private final TransactionManager transactions;
+	private final ReservationWriteQueue writeQueue;
+
+	// idempotency: tokens of recent bookings, and bookings still running
+	private final LruCache<String, Reservation> recentTokens = new LruCache<>(10_000, 3600);
+	private final Map<String, CompletableFuture<Reservation>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * The DAOs must be built on {@code transactions.getDataSource()} so their
+	 * calls join the service's transactions.
+	 */
+	public ReservationServiceImpl(ReservationsDao reservationsDao, ScreeningDao screeningDao,
+			ReservationSeatDao reservationSeatDao, SeatInventory seatInventory, TransactionManager transactions) {
+		this(reservationsDao, screeningDao, reservationSeatDao, seatInventory, transactions, null);
+	}
+
+	/**
+	 * @param writeQueue if not {@code null}, new bookings are written through it
+	 *                   in group commits instead of one transaction each
+	 */
+	public ReservationServiceImpl(ReservationsDao reservationsDao, ScreeningDao screeningDao,
+			ReservationSeatDao reservationSeatDao, SeatInventory seatInventory, TransactionManager transactions,
+			ReservationWriteQueue writeQueue) {
+		this.reservationsDao = Objects.requireNonNull(reservationsDao);
+		this.screeningDao = Objects.requireNonNull(screeningDao);
+		this.reservationSeatDao = Objects.requireNonNull(reservationSeatDao);
+		this.seatInventory = Objects.requireNonNull(seatInventory);
+		this.transactions = Objects.requireNonNull(transactions);
+		this.writeQueue = writeQueue;
+	}
+
+	@Override
+	public Reservation reserve(int customerId, int screeningId) {
+		return reserve(customerId, screeningId, null);
+	}
+
+	@Override
+	public Reservation reserve(int customerId, int screeningId, String requestToken) {
+		return idempotent(requestToken, () -> {
+			SeatInventory.Claim claim = seatInventory.claimBestAvailable(screeningId, 1, false);
+			if (claim == null) {
+				throw new IllegalStateException("Screening " + screeningId + " is sold out.");
+			}
+			return book(customerId, claim, requestToken);
+		});
+	}
+
+	@Override
+	public Reservation reserveSeats(int customerId, int screeningId, List<Seat> seats) {
+		if (seats == null || seats.isEmpty()) {
+			throw new IllegalArgumentException("seats must not be empty");
+		}
+		return book(customerId, claim(screeningId, seats), null);
+	}
+
+	@Override
+	public Reservation reserveHeldSeats(int customerId, SeatInventory.Claim claim, String requestToken) {
+		boolean[] booked = { false };
+		Reservation r = idempotent(requestToken, () -> {
+			booked[0] = true;
+			return book(customerId, claim, requestToken);
+		});
+		if (!booked[0]) {
+			// a replay of a request that already booked other seats: drop this claim
+			seatInventory.release(claim);
+		}
+		return r;
+	}
+
+	/**
+	 * Runs {@code booking} at most once per token. Replays get the original
+	 * reservation from the recent-token cache, by waiting for a booking still in
+	 * progress, or from the unique {@code request_token} column (after a restart
+	 * or when another instance got there first).
+	 */
+	private Reservation idempotent(String requestToken, Supplier<Reservation> booking) {
+		if (requestToken == null) {
+			return booking.get();
+		}
+		Reservation done = recentTokens.getIfPresent(requestToken);
+		if (done != null) {
+			return done;
+		}
+		CompletableFuture<Reservation> mine = new CompletableFuture<>();
+		CompletableFuture<Reservation> running = inFlight.putIfAbsent(requestToken, mine);
+		if (running != null) {
+			try {
+				return running.join();
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException re ? re : e;
+			}
+		}
+		try {
+			Reservation r = reservationsDao.findByRequestToken(requestToken);
+			if (r == null) {
+				try {
+					r = booking.get();
+				} catch (DataAccessException e) {
+					// the unique key refused our insert: someone else booked this token
+					r = reservationsDao.findByRequestToken(requestToken);
+					if (r == null) {
+						throw e;
+					}
+				}
+			}
+			recentTokens.put(requestToken, r);
+			mine.complete(r);
+			return r;
+		} catch (RuntimeException e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(requestToken, mine);
+		}
+	}
+
+	private SeatInventory.Claim claim(int screeningId, List<Seat> seats) {
+		SeatInventory.Claim claim = seatInventory.claim(screeningId, seats, false);
+		if (claim == null) {
+			throw new IllegalStateException("Seats " + seats + " are no longer available.");
+		}
+		return claim;
+	}
+
+	// the claim's seats are booked; the claim is undone on failure
+	private Reservation book(int customerId, SeatInventory.Claim claim, String requestToken) {
+		if (writeQueue != null && !transactions.isActive()) {
+			return bookBehind(customerId, claim, requestToken);
+		}
+		int screeningId = claim.getScreeningId();
+		List<Seat> seats = claim.getSeats();
+		try {
+			return transactions.inTransaction(c -> {
+				takeSeats(screeningId, seats.size());
+
+				Reservation r = new Reservation();
+				r.setCustomerId(customerId);
+				r.setScreeningId(screeningId);
+				r.setReservationTime(LocalDateTime.now());
+				r.setRequestToken(requestToken);
+				reservationsDao.save(r);
+				reservationSeatDao.saveAll(r, seats);
+				return r;
+			});
+		} catch (RuntimeException e) {
+			undoClaim(claim, e, requestToken);
+			throw e;
+		}
+	}
+
+	// waits for the group commit that makes the booking durable
+	private Reservation bookBehind(int customerId, SeatInventory.Claim claim, String requestToken) {
+		try {
+			return writeQueue.submit(customerId, claim.getScreeningId(), claim.getSeats(), requestToken).join();
+		} catch (CompletionException e) {
+			RuntimeException cause = e.getCause() instanceof RuntimeException re ? re : e;
+			undoClaim(claim, cause, requestToken);
+			throw cause;
+		} catch (RuntimeException e) {
+			undoClaim(claim, e, requestToken);
+			throw e;
+		}
+	}
+
+	@Override
+	public void change(Reservation reservation, int customerId, int screeningId) {
+		int previousScreening = reservation.getScreeningId();
+		Reservation before = reservation.copy();
+		if (previousScreening == screeningId) {
+			try {
+				transactions.inTransaction(c -> {
+					reservation.setCustomerId(customerId);
+					reservation.setReservationTime(LocalDateTime.now());
+					reservationsDao.update(reservation);
+					return null;
+				});
+			} catch (RuntimeException e) {
+				restore(reservation, before);
+				throw e;
+			}
+			return;
+		}
+
+		// moving to another screening: same number of seats, best available there
+		List<Seat> previousSeats = reservationSeatDao.findByReservation(reservation.getReservationId());
+		int count = Math.max(1, previousSeats.size());
+		SeatInventory.Claim claim = seatInventory.claimBestAvailable(screeningId, count, false);
+		if (claim == null) {
+			throw new IllegalStateException("Screening " + screeningId + " has no " + count + " adjacent seats left.");
+		}
+		List<Seat> seats = claim.getSeats();
+		try {
+			transactions.inTransaction(c -> {
+				takeSeats(screeningId, count);
+				screeningDao.releaseSeats(previousScreening, count);
+				reservationSeatDao.deleteByReservation(reservation.getReservationId());
+				reservation.setCustomerId(customerId);
+				reservation.setScreeningId(screeningId);
+				reservation.setReservationTime(LocalDateTime.now());
+				reservationsDao.update(reservation);
+				reservationSeatDao.saveAll(reservation, seats);
+				transactions.afterCommit(() -> seatInventory.release(previousScreening, previousSeats));
+				return null;
+			});
+		} catch (RuntimeException e) {
+			restore(reservation, before);
+			undoClaim(claim, e, null);
+			throw e;
+		}
+	}
+
+	@Override
+	public void cancel(Reservation reservation) {
+		int screeningId = reservation.getScreeningId();
+		transactions.inTransaction(c -> {
+			List<Seat> seats = reservationSeatDao.findByReservation(reservation.getReservationId());
+			reservationSeatDao.deleteByReservation(reservation.getReservationId());
+			reservationsDao.delete(reservation.getReservationId());
+			// reservations made before seat assignment hold one counted seat
+			screeningDao.releaseSeats(screeningId, Math.max(1, seats.size()));
+			transactions.afterCommit(() -> seatInventory.release(screeningId, seats));
+			return null;
+		});
+	}
+
+	// undoes the field changes of a rolled-back change()
+	private static void restore(Reservation reservation, Reservation before) {
+		reservation.setCustomerId(before.getCustomerId());
+		reservation.setScreeningId(before.getScreeningId());
+		reservation.setReservationTime(before.getReservationTime());
+	}
+
+	private void takeSeats(int screeningId, int count) {
+		if (!screeningDao.tryReserveSeats(screeningId, count)) {
+			throw new IllegalStateException("Screening " + screeningId + " is sold out.");
+		}
+	}
+
+	// a business refusal, or losing a request-token race (the expected way a
+	// duplicate request fails), frees the claimed seats; any other database
+	// failure means the in-memory map may be stale (e.g. seat sold by another
+	// instance), so reload it
+	private void undoClaim(SeatInventory.Claim claim, RuntimeException cause, String requestToken) {
+		if (cause instanceof IllegalStateException || cause instanceof IllegalArgumentException
+				|| isTokenTaken(requestToken)) {
+			seatInventory.release(claim);
+		} else {
+			seatInventory.invalidate(claim.getScreeningId());
+		}
+	}
+
+	private boolean isTokenTaken(String requestToken) {
+		return requestToken != null && reservationsDao.findByRequestToken(requestToken) != null;
+	}
+}
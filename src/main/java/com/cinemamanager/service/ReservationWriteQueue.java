@@ -0,0 +1,291 @@
+package com.cinemamanager.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.cinemamanager.dao.ReservationSeatDao;
+import com.cinemamanager.dao.ReservationsDao;
+import com.cinemamanager.dao.ScreeningDao;
+import com.cinemamanager.dao.TransactionManager;
+import com.cinemamanager.model.Reservation;
+import com.cinemamanager.model.Seat;
+import com.cinemamanager.util.DatabaseConnection;
+
+/**
+ * Write-behind pipeline for bookings: callers enqueue a reservation and get a
+ * future, one writer thread persists them in group commits.
+ *
+ * <p>
+ * The writer collects up to {@code batchSize} bookings, or whatever arrived
+ * within {@code maxDelayMillis} of the first one, and writes the group in one
+ * transaction: each seat counter update runs behind its own savepoint (a sold
+ * out screening refuses only that booking), then the reservations and their
+ * seats are inserted with JDBC batches and committed once. A future completes
+ * only after that commit, so a completed booking is durable. If the group
+ * insert fails, for example on a duplicate request token, its bookings are
+ * retried one transaction each so a single bad row fails alone.
+ * </p>
+ *
+ * <p>
+ * The queue is bounded; {@link #submit} blocks while it is full.
+ * {@link #close()} stops accepting work and drains what is queued.
+ * </p>
+ */
+public final class ReservationWriteQueue implements AutoCloseable {
+
+	private final ReservationsDao reservationsDao;
+	private final ScreeningDao screeningDao;
+	private final ReservationSeatDao reservationSeatDao;
+	private final TransactionManager transactions;
+	private final BlockingQueue<Pending> queue;
+	private final int batchSize;
+	private final long maxDelayNanos;
+	private final Thread writer;
+	private volatile boolean closed;
+
+	private final AtomicLong written = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong groups = new AtomicLong();
+
+	/**
+	 * The DAOs must be built on {@code transactions.getDataSource()}.
+	 *
+	 * @param capacity       bookings that may wait in the queue
+	 * @param batchSize      most bookings per group commit
+	 * @param maxDelayMillis how long the writer waits to fill a group
+	 */
+	public ReservationWriteQueue(ReservationsDao reservationsDao, ScreeningDao screeningDao,
+			ReservationSeatDao reservationSeatDao, TransactionManager transactions, int capacity, int batchSize,
+			long maxDelayMillis) {
+		if (capacity < 1 || batchSize < 1 || maxDelayMillis < 0) {
+			throw new IllegalArgumentException("capacity and batchSize must be positive, maxDelayMillis not negative");
+		}
+		this.reservationsDao = Objects.requireNonNull(reservationsDao);
+		this.screeningDao = Objects.requireNonNull(screeningDao);
+		this.reservationSeatDao = Objects.requireNonNull(reservationSeatDao);
+		this.transactions = Objects.requireNonNull(transactions);
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.batchSize = batchSize;
+		this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+		this.writer = new Thread(this::run, "reservation-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Builds a queue from {@code reservations.writeBehind.*} in {@code props}.
+	 *
+	 * @return the queue, or {@code null} if {@code reservations.writeBehind.enabled}
+	 *         is not {@code true}
+	 */
+	public static ReservationWriteQueue fromProperties(Properties props, ReservationsDao reservationsDao,
+			ScreeningDao screeningDao, ReservationSeatDao reservationSeatDao, TransactionManager transactions) {
+		if (props == null || !"true".equalsIgnoreCase(props.getProperty("reservations.writeBehind.enabled", "").trim())) {
+			return null;
+		}
+		int capacity = Math.max(1,
+				DatabaseConnection.intProperty(props, "reservations.writeBehind.queueSize", 1000));
+		int batch = Math.max(1, DatabaseConnection.intProperty(props, "reservations.writeBehind.batchSize", 50));
+		long delay = Math.max(0,
+				DatabaseConnection.longProperty(props, "reservations.writeBehind.maxDelayMs", 20));
+		return new ReservationWriteQueue(reservationsDao, screeningDao, reservationSeatDao, transactions, capacity,
+				batch, delay);
+	}
+
+	/**
+	 * Queues a booking of seats already claimed in the {@link SeatInventory}.
+	 *
+	 * @return completes with the saved reservation once it is committed, or
+	 *         exceptionally with an {@link IllegalStateException} if the screening
+	 *         is sold out or a {@code DataAccessException} if the write failed
+	 * @throws IllegalStateException if the queue is closed
+	 */
+	public CompletableFuture<Reservation> submit(int customerId, int screeningId, List<Seat> seats,
+			String requestToken) {
+		Reservation r = new Reservation();
+		r.setCustomerId(customerId);
+		r.setScreeningId(screeningId);
+		r.setReservationTime(LocalDateTime.now());
+		r.setRequestToken(requestToken);
+		Pending pending = new Pending(r, List.copyOf(seats));
+		try {
+			do {
+				checkOpen();
+			} while (!queue.offer(pending, 100, TimeUnit.MILLISECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while queueing reservation", e);
+		}
+		// lost the race with close(): the writer is gone and close() may already
+		// have drained the queue, so nobody would take this booking
+		if (closed && !writer.isAlive() && queue.remove(pending)) {
+			checkOpen();
+		}
+		return pending.future;
+	}
+
+	/** @return bookings waiting for the writer */
+	public int getQueued() {
+		return queue.size();
+	}
+
+	/** @return bookings committed so far */
+	public long getWrittenCount() {
+		return written.get();
+	}
+
+	/** @return bookings refused or failed */
+	public long getFailedCount() {
+		return failed.get();
+	}
+
+	/** @return average bookings per group commit */
+	public double getAverageGroupSize() {
+		long g = groups.get();
+		return g == 0 ? 0 : (double) written.get() / g;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ReservationWriteQueue[queued=%d, written=%d, failed=%d, groups=%d, avgGroup=%.1f]",
+				getQueued(), getWrittenCount(), getFailedCount(), groups.get(), getAverageGroupSize());
+	}
+
+	/**
+	 * Stops accepting bookings and waits until every queued one is written. A
+	 * booking queued after the writer's last look at the queue is failed, so no
+	 * caller waits forever.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		Pending left;
+		while ((left = queue.poll()) != null) {
+			fail(left, new IllegalStateException("Reservation write queue is closed"));
+		}
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("Reservation write queue is closed");
+		}
+	}
+
+	private void run() {
+		List<Pending> group = new ArrayList<>(batchSize);
+		while (!closed || !queue.isEmpty()) {
+			try {
+				Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				group.add(first);
+				long deadline = System.nanoTime() + maxDelayNanos;
+				while (group.size() < batchSize) {
+					Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					group.add(next);
+				}
+			} catch (InterruptedException e) {
+				// only close() stops the writer; finish the queue first
+			}
+			if (!group.isEmpty()) {
+				write(group);
+				group.clear();
+			}
+		}
+	}
+
+	private void write(List<Pending> group) {
+		List<Pending> accepted = new ArrayList<>(group.size());
+		try {
+			transactions.inTransaction(c -> {
+				for (Pending p : group) {
+					try {
+						transactions.inSavepoint(s -> takeSeats(p));
+						accepted.add(p);
+					} catch (RuntimeException e) {
+						fail(p, e);
+					}
+				}
+				Map<Reservation, List<Seat>> seats = new LinkedHashMap<>();
+				accepted.forEach(p -> seats.put(p.reservation, p.seats));
+				reservationsDao.saveAll(seats.keySet(), batchSize);
+				reservationSeatDao.saveAll(seats);
+				return null;
+			});
+		} catch (RuntimeException e) {
+			// the group was rolled back: give every booking its own transaction
+			for (Pending p : accepted) {
+				p.reservation.setReservationId(0);
+				writeOne(p);
+			}
+			return;
+		}
+		groups.incrementAndGet();
+		accepted.forEach(this::complete);
+	}
+
+	private void writeOne(Pending p) {
+		try {
+			transactions.inTransaction(c -> {
+				takeSeats(p);
+				reservationsDao.save(p.reservation);
+				reservationSeatDao.saveAll(p.reservation, p.seats);
+				return null;
+			});
+		} catch (RuntimeException e) {
+			fail(p, e);
+			return;
+		}
+		groups.incrementAndGet();
+		complete(p);
+	}
+
+	private Void takeSeats(Pending p) {
+		int screeningId = p.reservation.getScreeningId();
+		if (!screeningDao.tryReserveSeats(screeningId, p.seats.size())) {
+			throw new IllegalStateException("Screening " + screeningId + " is sold out.");
+		}
+		return null;
+	}
+
+	private void complete(Pending p) {
+		written.incrementAndGet();
+		p.future.complete(p.reservation);
+	}
+
+	private void fail(Pending p, RuntimeException e) {
+		failed.incrementAndGet();
+		p.future.completeExceptionally(e);
+	}
+
+	private static final class Pending {
+		final Reservation reservation;
+		final List<Seat> seats;
+		final CompletableFuture<Reservation> future = new CompletableFuture<>();
+
+		Pending(Reservation reservation, List<Seat> seats) {
+			this.reservation = reservation;
+			this.seats = seats;
+		}
+	}
+}
@@ -11,4 +11,10 @@ public interface ScreeningService {
 	boolean hasOverlap(int hallId, LocalDateTime startTime, LocalDateTime endTime);
 
 	List<Screening> findUpcomingByHall(int hallId);
+
+	/** The next {@code limit} screenings of a hall, ordered by start time. */
+	List<Screening> findUpcomingByHall(int hallId, int limit);
+
+	/** Screenings of a hall starting in {@code [from, to)}, ordered by start time. */
+	List<Screening> findByHallAndRange(int hallId, LocalDateTime from, LocalDateTime to);
 }
@@ -1,14 +1,14 @@
 package com.cinemamanager.service;
 
+import java.sql.Connection;
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import com.cinemamanager.dao.HallDao;
 import com.cinemamanager.dao.MovieDao;
 import com.cinemamanager.dao.ScreeningDao;
+import com.cinemamanager.dao.TransactionManager;
 import com.cinemamanager.model.Movie;
 import com.cinemamanager.model.Screening;
 
@@ -17,11 +17,18 @@ public class ScreeningServiceImpl implements ScreeningService {
 	private final ScreeningDao screeningDao;
 	private final MovieDao movieDao;
 	private final HallDao hallDao;
+	private final TransactionManager transactions;
 
-	public ScreeningServiceImpl(ScreeningDao screeningDao, MovieDao movieDao, HallDao hallDao) {
+	/**
+	 * The DAOs must be built on {@code transactions.getDataSource()} so their
+	 * calls join the service's transactions.
+	 */
+	public ScreeningServiceImpl(ScreeningDao screeningDao, MovieDao movieDao, HallDao hallDao,
+			TransactionManager transactions) {
 		this.screeningDao = Objects.requireNonNull(screeningDao);
 		this.movieDao = Objects.requireNonNull(movieDao);
 		this.hallDao = Objects.requireNonNull(hallDao);
+		this.transactions = Objects.requireNonNull(transactions);
 	}
 
 	@Override
@@ -30,13 +37,23 @@ public class ScreeningServiceImpl implements ScreeningService {
 			throw new IllegalArgumentException("startTime must not be null");
 		}
 
+		// lookups, overlap check and insert commit (or roll back) together; READ
+		// COMMITTED so the overlap check sees screenings committed while we waited
+		// for the hall lock
+		return transactions.inTransaction(Connection.TRANSACTION_READ_COMMITTED,
+				c -> schedule(movieId, hallId, startTime));
+	}
+
+	private Screening schedule(int movieId, int hallId, LocalDateTime startTime) {
+		// Lock the hall row first: schedulers of the same hall run one at a time
+		// from here to commit, so check-then-insert cannot double-book it
+		if (hallDao.lockById(hallId) == null) {
+			throw new IllegalArgumentException("Hall not found: " + hallId);
+		}
 		Movie m = movieDao.findById(movieId);
 		if (m == null) {
 			throw new IllegalArgumentException("Movie not found: " + movieId);
 		}
-		if (hallDao.findById(hallId) == null) {
-			throw new IllegalArgumentException("Hall not found: " + hallId);
-		}
 
 		LocalDateTime endTime = startTime.plusMinutes(m.getDuration());
 		if (!endTime.isAfter(startTime)) {
@@ -73,11 +90,20 @@ public class ScreeningServiceImpl implements ScreeningService {
 
 	@Override
 	public List<Screening> findUpcomingByHall(int hallId) {
-		LocalDateTime now = LocalDateTime.now();
-		// DAO doesn’t have findUpcomingByHall; compose it from findByHallId and filter
-		// by time
-		return screeningDao.findByHallId(hallId).stream()
-				.filter(s -> s.getStartTime() != null && !s.getStartTime().isBefore(now))
-				.sorted(Comparator.comparing(Screening::getStartTime)).collect(Collectors.toList());
+		return findUpcomingByHall(hallId, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public List<Screening> findUpcomingByHall(int hallId, int limit) {
+		// filtered and limited in SQL (idx_hall_start), not over the hall's whole history
+		return screeningDao.findUpcomingByHall(hallId, limit);
+	}
+
+	@Override
+	public List<Screening> findByHallAndRange(int hallId, LocalDateTime from, LocalDateTime to) {
+		if (from == null || to == null) {
+			throw new IllegalArgumentException("from and to must not be null");
+		}
+		return screeningDao.findByHallAndRange(hallId, from, to);
 	}
 }
@@ -0,0 +1,216 @@
+package com.cinemamanager.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.cinemamanager.model.Reservation;
+import com.cinemamanager.model.Seat;
+import com.cinemamanager.util.HashedTimerWheel;
+
+/**
+ * Temporary seat holds, e.g. while a customer pays at the counter.
+ *
+ * <p>
+ * A hold claims seats in the {@link SeatInventory} so nobody else can book them,
+ * and lives only in memory. Its expiry is one entry in a
+ * {@link HashedTimerWheel} rather than a thread or scheduled future per hold,
+ * so tens of thousands of concurrent holds cost one timer thread. A hold ends
+ * exactly once: {@link #confirm(long)} turns it into a {@link Reservation},
+ * {@link #release(long)} or the timeout gives its seats back. Hold claims are
+ * pinned in the inventory, so a rebuild of the screening's seat map keeps their
+ * seats taken, and giving them back never frees seats of a newer map that
+ * someone else has booked.
+ * </p>
+ */
+public class SeatHoldService {
+
+	/** One active hold. */
+	public static final class Hold {
+		private final long id;
+		private final int customerId;
+		private final int screeningId;
+		private final List<Seat> seats;
+		private final SeatInventory.Claim claim;
+		private final Instant expiresAt;
+		private volatile HashedTimerWheel.Timeout timeout;
+
+		Hold(long id, int customerId, SeatInventory.Claim claim, Instant expiresAt) {
+			this.id = id;
+			this.customerId = customerId;
+			this.screeningId = claim.getScreeningId();
+			this.seats = claim.getSeats();
+			this.claim = claim;
+			this.expiresAt = expiresAt;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public int getCustomerId() {
+			return customerId;
+		}
+
+		public int getScreeningId() {
+			return screeningId;
+		}
+
+		public List<Seat> getSeats() {
+			return seats;
+		}
+
+		public Instant getExpiresAt() {
+			return expiresAt;
+		}
+	}
+
+	private final SeatInventory seatInventory;
+	private final ReservationService reservationService;
+	private final HashedTimerWheel timer;
+	private final Duration holdTime;
+
+	private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+	private final AtomicLong nextId = new AtomicLong();
+	private final AtomicLong confirmed = new AtomicLong();
+	private final AtomicLong expired = new AtomicLong();
+
+	public SeatHoldService(SeatInventory seatInventory, ReservationService reservationService,
+			HashedTimerWheel timer, Duration holdTime) {
+		this.seatInventory = Objects.requireNonNull(seatInventory);
+		this.reservationService = Objects.requireNonNull(reservationService);
+		this.timer = Objects.requireNonNull(timer);
+		this.holdTime = Objects.requireNonNull(holdTime);
+	}
+
+	/**
+	 * Holds the best block of {@code count} adjacent seats.
+	 *
+	 * @throws IllegalStateException if no such block is free
+	 */
+	public Hold holdBestAvailable(int customerId, int screeningId, int count) {
+		// search and claim are one step, so a concurrent booking cannot take the block in between
+		SeatInventory.Claim claim = seatInventory.claimBestAvailable(screeningId, count, true);
+		if (claim == null) {
+			throw new IllegalStateException("Screening " + screeningId + " has no " + count + " adjacent seats left.");
+		}
+		return register(customerId, claim);
+	}
+
+	/**
+	 * Holds specific seats, all or none.
+	 *
+	 * @throws IllegalStateException if any of them is taken
+	 */
+	public Hold hold(int customerId, int screeningId, List<Seat> seats) {
+		SeatInventory.Claim claim = seatInventory.claim(screeningId, seats, true);
+		if (claim == null) {
+			throw new IllegalStateException("Seats " + seats + " are no longer available.");
+		}
+		return register(customerId, claim);
+	}
+
+	/**
+	 * Books a held block as a reservation.
+	 *
+	 * @throws IllegalStateException if the hold expired or was already ended
+	 */
+	public Reservation confirm(long holdId) {
+		return confirm(holdId, null);
+	}
+
+	/**
+	 * Books a held block as a reservation under an idempotency token; see
+	 * {@link ReservationService#reserve(int, int, String)}.
+	 *
+	 * @throws IllegalStateException if the hold expired or was already ended
+	 */
+	public Reservation confirm(long holdId, String requestToken) {
+		Hold hold = holds.remove(holdId);
+		if (hold == null) {
+			throw new IllegalStateException("Hold " + holdId + " has expired.");
+		}
+		cancelTimeout(hold);
+		// from here the seats belong to the booking, which releases them if it fails
+		seatInventory.unpin(hold.claim);
+		Reservation reservation = reservationService.reserveHeldSeats(hold.customerId, hold.claim, requestToken);
+		confirmed.incrementAndGet();
+		return reservation;
+	}
+
+	/** Gives a hold's seats back early; does nothing if it already ended. */
+	public void release(long holdId) {
+		Hold hold = holds.remove(holdId);
+		if (hold != null) {
+			cancelTimeout(hold);
+			seatInventory.release(hold.claim);
+		}
+	}
+
+	/** @return the hold, or {@code null} if it ended */
+	public Hold get(long holdId) {
+		return holds.get(holdId);
+	}
+
+	/** @return holds currently active */
+	public int getActiveHolds() {
+		return holds.size();
+	}
+
+	/** @return holds turned into reservations */
+	public long getConfirmedCount() {
+		return confirmed.get();
+	}
+
+	/** @return holds released by timeout */
+	public long getExpiredCount() {
+		return expired.get();
+	}
+
+	/** @return worst delay between a hold's deadline and its release, in milliseconds */
+	public double getMaxExpiryLagMillis() {
+		return timer.getMaxLagMillis();
+	}
+
+	/** @return average delay between a hold's deadline and its release, in milliseconds */
+	public double getAverageExpiryLagMillis() {
+		return timer.getAverageLagMillis();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("SeatHoldService[active=%d, confirmed=%d, expired=%d, expiryLag avg=%.1fms max=%.1fms]",
+				getActiveHolds(), getConfirmedCount(), getExpiredCount(), getAverageExpiryLagMillis(),
+				getMaxExpiryLagMillis());
+	}
+
+	private Hold register(int customerId, SeatInventory.Claim claim) {
+		Hold hold = new Hold(nextId.incrementAndGet(), customerId, claim, Instant.now().plus(holdTime));
+		holds.put(hold.id, hold);
+		hold.timeout = timer.schedule(() -> expire(hold.id), holdTime.toMillis(), TimeUnit.MILLISECONDS);
+		return hold;
+	}
+
+	// the timeout is set just after the hold becomes visible; a missed cancel
+	// is harmless because expire() finds the hold gone
+	private static void cancelTimeout(Hold hold) {
+		HashedTimerWheel.Timeout timeout = hold.timeout;
+		if (timeout != null) {
+			timeout.cancel();
+		}
+	}
+
+	// runs on the timer thread: only in-memory work here
+	private void expire(long holdId) {
+		Hold hold = holds.remove(holdId);
+		if (hold != null) {
+			seatInventory.release(hold.claim);
+			expired.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package com.cinemamanager.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.cinemamanager.dao.HallDao;
+import com.cinemamanager.dao.ReservationSeatDao;
+import com.cinemamanager.dao.ScreeningDao;
+import com.cinemamanager.model.Hall;
+import com.cinemamanager.model.Screening;
+import com.cinemamanager.model.Seat;
+
+/**
+ * In-memory seat occupancy of every screening in use, one {@link SeatMap} each.
+ *
+ * <p>
+ * A screening's map is built on first use from its hall's layout and the seats
+ * already in {@code reservation_seat}. Seats are claimed here before the
+ * database transaction that persists them, so competing bookings in this
+ * process fail fast without touching the database; the table's primary key
+ * remains the final arbiter across processes. After a failed write, callers
+ * should {@link #invalidate(int)} the screening so it is rebuilt from the
+ * database.
+ * </p>
+ *
+ * <p>
+ * A claim remembers the map it was made in, and {@link #release(Claim)} only
+ * frees seats in that same map: once a screening has been rebuilt, the seats
+ * of an older claim may belong to someone else. Claims that outlive a single
+ * booking, such as seat holds, are {@linkplain #claim(int, Collection, boolean)
+ * pinned}: a rebuilt map takes their seats again (unless the database sold
+ * them meanwhile), so a rebuild does not silently void them.
+ * </p>
+ */
+public class SeatInventory {
+
+	/** Seats claimed by one booking or hold. */
+	public static final class Claim {
+		private final int screeningId;
+		private final List<Seat> seats;
+		// the map holding these seats; changed only under the screening's map entry lock
+		private volatile SeatMap map;
+
+		private Claim(int screeningId, List<Seat> seats, SeatMap map) {
+			this.screeningId = screeningId;
+			this.seats = List.copyOf(seats);
+			this.map = map;
+		}
+
+		public int getScreeningId() {
+			return screeningId;
+		}
+
+		public List<Seat> getSeats() {
+			return seats;
+		}
+	}
+
+	// a claim races an invalidation at most this often before giving up
+	private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+	private final ScreeningDao screeningDao;
+	private final HallDao hallDao;
+	private final ReservationSeatDao reservationSeatDao;
+	private final Map<Integer, SeatMap> maps = new ConcurrentHashMap<>();
+	// screening id -> pinned claims, re-applied when the screening's map is rebuilt
+	private final Map<Integer, Set<Claim>> pinned = new ConcurrentHashMap<>();
+
+	public SeatInventory(ScreeningDao screeningDao, HallDao hallDao, ReservationSeatDao reservationSeatDao) {
+		this.screeningDao = Objects.requireNonNull(screeningDao);
+		this.hallDao = Objects.requireNonNull(hallDao);
+		this.reservationSeatDao = Objects.requireNonNull(reservationSeatDao);
+	}
+
+	/** @return the screening's seat map, or {@code null} if the screening does not exist */
+	public SeatMap get(int screeningId) {
+		SeatMap map = maps.get(screeningId);
+		if (map == null) {
+			// load outside the map so a slow query does not block other screenings
+			SeatMap loaded = load(screeningId);
+			if (loaded == null) {
+				return null;
+			}
+			map = maps.computeIfAbsent(screeningId, id -> {
+				for (Claim claim : pinned.getOrDefault(id, Set.of())) {
+					if (loaded.claim(claim.seats)) {
+						claim.map = loaded;
+					}
+				}
+				return loaded;
+			});
+		}
+		return map;
+	}
+
+	/**
+	 * @return the best block of {@code count} adjacent free seats, or an empty
+	 *         list if there is none
+	 * @see SeatMap#findBestAvailable(int)
+	 */
+	public List<Seat> findBestAvailable(int screeningId, int count) {
+		SeatMap map = get(screeningId);
+		return map == null ? List.of() : map.findBestAvailable(count);
+	}
+
+	/**
+	 * Finds and claims the best block of {@code count} adjacent free seats in one
+	 * step, so concurrent bookings of a busy screening never race for the same
+	 * block.
+	 *
+	 * @param pin keep the claim across rebuilds of the map (for holds)
+	 * @return the claim, or {@code null} if there is no such block
+	 * @see SeatMap#claimBestAvailable(int)
+	 */
+	public Claim claimBestAvailable(int screeningId, int count, boolean pin) {
+		return take(screeningId, pin, map -> map.claimBestAvailable(count));
+	}
+
+	/**
+	 * Claims all seats or none; see {@link SeatMap#claim(Collection)}.
+	 *
+	 * @param pin keep the claim across rebuilds of the map (for holds)
+	 * @return the claim, or {@code null} if any seat is taken
+	 */
+	public Claim claim(int screeningId, Collection<Seat> seats, boolean pin) {
+		List<Seat> copy = List.copyOf(seats);
+		return take(screeningId, pin, map -> map.claim(copy) ? copy : List.of());
+	}
+
+	/**
+	 * Stops re-applying a pinned claim on rebuilds, without freeing its seats;
+	 * e.g. when a hold is handed over to a booking.
+	 */
+	public void unpin(Claim claim) {
+		Set<Claim> claims = pinned.get(claim.screeningId);
+		if (claims != null) {
+			claims.remove(claim);
+		}
+	}
+
+	/**
+	 * Frees the seats of a claim that ended without a booking. Does nothing if
+	 * the screening's map was rebuilt without this claim.
+	 */
+	public void release(Claim claim) {
+		// unpin first: a rebuild from here on no longer re-applies the claim
+		unpin(claim);
+		maps.computeIfPresent(claim.screeningId, (id, map) -> {
+			if (claim.map == map) {
+				map.release(claim.seats);
+			}
+			return map;
+		});
+	}
+
+	/**
+	 * Frees seats of a committed reservation that was cancelled or moved. Call
+	 * after commit: a map built from then on does not contain them anyway.
+	 */
+	public void release(int screeningId, Collection<Seat> seats) {
+		SeatMap map = maps.get(screeningId);
+		if (map != null) {
+			map.release(seats);
+		}
+	}
+
+	/** Drops a screening's map so it is rebuilt from the database on next use. */
+	public void invalidate(int screeningId) {
+		maps.remove(screeningId);
+	}
+
+	// runs the claim under the map entry's lock, so it cannot interleave with a
+	// rebuild being installed; retries if the map was invalidated meanwhile
+	private Claim take(int screeningId, boolean pin, Function<SeatMap, List<Seat>> claimer) {
+		for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+			if (get(screeningId) == null) {
+				return null;
+			}
+			Claim[] result = new Claim[1];
+			boolean[] present = { false };
+			maps.computeIfPresent(screeningId, (id, map) -> {
+				present[0] = true;
+				List<Seat> seats = claimer.apply(map);
+				if (!seats.isEmpty()) {
+					result[0] = new Claim(id, seats, map);
+					if (pin) {
+						pinned.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(result[0]);
+					}
+				}
+				return map;
+			});
+			if (present[0]) {
+				return result[0];
+			}
+		}
+		return null;
+	}
+
+	private SeatMap load(int screeningId) {
+		Screening screening = screeningDao.findById(screeningId);
+		if (screening == null) {
+			return null;
+		}
+		Hall hall = hallDao.findById(screening.getHallId());
+		if (hall == null) {
+			return null;
+		}
+		SeatMap map = SeatMap.forHall(hall);
+		for (Seat seat : reservationSeatDao.findByScreening(screeningId)) {
+			map.claim(List.of(seat));
+		}
+		return map;
+	}
+}
@@ -0,0 +1,252 @@
+package com.cinemamanager.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.cinemamanager.model.Hall;
+import com.cinemamanager.model.Seat;
+
+/**
+ * Occupancy of one screening as a packed bitset: bit
+ * {@code (row - 1) * seatsPerRow + (number - 1)} is set when the seat is taken.
+ * A 20 x 20 hall fits in seven {@code long}s (56 bytes).
+ *
+ * <p>
+ * For rows of up to 64 seats, {@link #findBestAvailable(int)} extracts a whole
+ * row as one {@code long} and finds every run of {@code n} free seats with
+ * {@code n - 1} shift-and operations, so a search costs a few operations per
+ * row. All methods are synchronized; {@link #claim(Collection)} checks and sets
+ * every seat under one lock, so a multi-seat claim is all-or-nothing, and
+ * {@link #claimBestAvailable(int)} searches and claims under that same lock, so
+ * concurrent bookings each get a different block.
+ * </p>
+ */
+public final class SeatMap {
+
+	/** Seats per row used when a hall has only a capacity and no layout. */
+	static final int DEFAULT_SEATS_PER_ROW = 20;
+
+	private final int rows;
+	private final int seatsPerRow;
+	private final int seatCount;
+	private final long[] taken;
+	// rows in order of preference: about two thirds back first, then outwards
+	private final int[] rowOrder;
+
+	public SeatMap(int rows, int seatsPerRow, int seatCount) {
+		if (rows < 0 || seatsPerRow < 0) {
+			throw new IllegalArgumentException("rows and seatsPerRow must not be negative");
+		}
+		this.rows = rows;
+		this.seatsPerRow = seatsPerRow;
+		this.seatCount = Math.min(seatCount, rows * seatsPerRow);
+		this.taken = new long[(rows * seatsPerRow + 63) >>> 6];
+		// positions past the hall's capacity (last row of a derived layout) are never free
+		for (int i = this.seatCount; i < rows * seatsPerRow; i++) {
+			taken[i >>> 6] |= 1L << i;
+		}
+		this.rowOrder = preferredRowOrder(rows);
+	}
+
+	/**
+	 * Creates an empty map for a hall. Without an explicit layout the capacity is
+	 * laid out in rows of {@value #DEFAULT_SEATS_PER_ROW}.
+	 */
+	public static SeatMap forHall(Hall hall) {
+		int perRow = hall.getSeatsPerRow();
+		int rowCount = hall.getSeatRows();
+		if (perRow > 0 && rowCount > 0) {
+			int capacity = hall.getCapacity() > 0 ? hall.getCapacity() : rowCount * perRow;
+			return new SeatMap(rowCount, perRow, capacity);
+		}
+		int capacity = Math.max(0, hall.getCapacity());
+		perRow = Math.min(capacity, DEFAULT_SEATS_PER_ROW);
+		rowCount = perRow == 0 ? 0 : (capacity + perRow - 1) / perRow;
+		return new SeatMap(rowCount, perRow, capacity);
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getSeatsPerRow() {
+		return seatsPerRow;
+	}
+
+	/** @return number of sellable seats */
+	public int getSeatCount() {
+		return seatCount;
+	}
+
+	/** @return number of seats still free */
+	public synchronized int getAvailable() {
+		int used = 0;
+		for (long word : taken) {
+			used += Long.bitCount(word);
+		}
+		return rows * seatsPerRow - used;
+	}
+
+	public synchronized boolean isTaken(Seat seat) {
+		int i = index(seat);
+		return i < 0 || (taken[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * Takes all given seats, or none of them if any is taken or does not exist.
+	 *
+	 * @return {@code true} if every seat was claimed
+	 */
+	public synchronized boolean claim(Collection<Seat> seats) {
+		for (Seat seat : seats) {
+			int i = index(seat);
+			if (i < 0 || (taken[i >>> 6] & (1L << i)) != 0) {
+				return false;
+			}
+		}
+		for (Seat seat : seats) {
+			int i = index(seat);
+			taken[i >>> 6] |= 1L << i;
+		}
+		return true;
+	}
+
+	/** Marks seats as free again; unknown seats are ignored. */
+	public synchronized void release(Collection<Seat> seats) {
+		for (Seat seat : seats) {
+			int i = index(seat);
+			if (i >= 0) {
+				taken[i >>> 6] &= ~(1L << i);
+			}
+		}
+	}
+
+	/**
+	 * Finds the best block of {@code count} adjacent free seats in one row,
+	 * preferring rows about two thirds back and seats closest to the middle of
+	 * the row. Nothing is claimed.
+	 *
+	 * @return the seats from left to right, or an empty list if no row has such a
+	 *         block
+	 */
+	public synchronized List<Seat> findBestAvailable(int count) {
+		if (count < 1 || count > seatsPerRow) {
+			return Collections.emptyList();
+		}
+		for (int r : rowOrder) {
+			int start = seatsPerRow <= 64 ? bestStartFast(r, count) : bestStartSlow(r, count);
+			if (start >= 0) {
+				List<Seat> seats = new ArrayList<>(count);
+				for (int s = 0; s < count; s++) {
+					seats.add(new Seat(r + 1, start + s + 1));
+				}
+				return seats;
+			}
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Finds the best block like {@link #findBestAvailable(int)} and claims it in
+	 * the same critical section.
+	 *
+	 * @return the claimed seats from left to right, or an empty list if no row
+	 *         has such a block
+	 */
+	public synchronized List<Seat> claimBestAvailable(int count) {
+		List<Seat> seats = findBestAvailable(count);
+		for (Seat seat : seats) {
+			int i = index(seat);
+			taken[i >>> 6] |= 1L << i;
+		}
+		return seats;
+	}
+
+	// best 0-based start of a free run in row r, using whole-row bit masks
+	private int bestStartFast(int r, int count) {
+		long full = seatsPerRow == 64 ? -1L : (1L << seatsPerRow) - 1;
+		long free = ~rowBits(r) & full;
+		long starts = free;
+		for (int s = 1; s < count && starts != 0; s++) {
+			starts &= free >>> s;
+		}
+		int best = -1;
+		int bestDistance = Integer.MAX_VALUE;
+		while (starts != 0) {
+			int start = Long.numberOfTrailingZeros(starts);
+			int distance = centreDistance(start, count);
+			if (distance < bestDistance) {
+				best = start;
+				bestDistance = distance;
+			}
+			starts &= starts - 1;
+		}
+		return best;
+	}
+
+	// same search seat by seat, for rows wider than 64
+	private int bestStartSlow(int r, int count) {
+		int best = -1;
+		int bestDistance = Integer.MAX_VALUE;
+		int run = 0;
+		for (int s = 0; s < seatsPerRow; s++) {
+			int i = r * seatsPerRow + s;
+			run = (taken[i >>> 6] & (1L << i)) != 0 ? 0 : run + 1;
+			if (run >= count) {
+				int start = s - count + 1;
+				int distance = centreDistance(start, count);
+				if (distance < bestDistance) {
+					best = start;
+					bestDistance = distance;
+				}
+			}
+		}
+		return best;
+	}
+
+	// twice the distance between the block's centre and the row's centre
+	private int centreDistance(int start, int count) {
+		return Math.abs(2 * start + count - seatsPerRow);
+	}
+
+	// the taken bits of row r (seatsPerRow <= 64), seat 1 in bit 0
+	private long rowBits(int r) {
+		int first = r * seatsPerRow;
+		int word = first >>> 6;
+		int offset = first & 63;
+		long bits = taken[word] >>> offset;
+		if (offset + seatsPerRow > 64) {
+			bits |= taken[word + 1] << (64 - offset);
+		}
+		return bits;
+	}
+
+	private int index(Seat seat) {
+		if (seat == null || seat.getRow() < 1 || seat.getRow() > rows || seat.getNumber() < 1
+				|| seat.getNumber() > seatsPerRow) {
+			return -1;
+		}
+		int i = (seat.getRow() - 1) * seatsPerRow + (seat.getNumber() - 1);
+		return i < seatCount ? i : -1;
+	}
+
+	private static int[] preferredRowOrder(int rows) {
+		Integer[] order = new Integer[rows];
+		for (int r = 0; r < rows; r++) {
+			order[r] = r;
+		}
+		int preferred = rows * 2 / 3;
+		Arrays.sort(order, (a, b) -> {
+			int byDistance = Integer.compare(Math.abs(a - preferred), Math.abs(b - preferred));
+			return byDistance != 0 ? byDistance : Integer.compare(b, a);
+		});
+		int[] result = new int[rows];
+		for (int r = 0; r < rows; r++) {
+			result[r] = order[r];
+		}
+		return result;
+	}
+}
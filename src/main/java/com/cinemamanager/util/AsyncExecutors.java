@@ -0,0 +1,66 @@
+package com.cinemamanager.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import javafx.application.Platform;
+
+/**
+ * Executors shared by the UI layer: a virtual-thread executor for blocking work
+ * (JDBC, file I/O) and the JavaFX application thread for updating views.
+ */
+public final class AsyncExecutors {
+
+	// one virtual thread per task; blocking JDBC calls don't pin platform threads
+	private static final ExecutorService BACKGROUND = Executors.newVirtualThreadPerTaskExecutor();
+
+	private static final Executor FX = Platform::runLater;
+
+	private AsyncExecutors() {
+	}
+
+	/** Executor for blocking work, never the FX application thread. */
+	public static ExecutorService background() {
+		return BACKGROUND;
+	}
+
+	/** Executor that runs tasks on the JavaFX application thread. */
+	public static Executor fx() {
+		return FX;
+	}
+
+	/**
+	 * Runs {@code work} in the background and completes the returned future on
+	 * the JavaFX application thread, so callbacks attached with
+	 * {@code whenComplete}/{@code thenAccept} may touch the UI directly. On
+	 * failure the future completes with the original exception (not wrapped in a
+	 * {@code CompletionException}).
+	 */
+	public static <T> CompletableFuture<T> supply(Supplier<? extends T> work) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		CompletableFuture.supplyAsync(work, BACKGROUND).whenComplete((value, ex) -> FX.execute(() -> {
+			if (ex != null) {
+				result.completeExceptionally(ex.getCause() != null ? ex.getCause() : ex);
+			} else {
+				result.complete(value);
+			}
+		}));
+		return result;
+	}
+
+	/** Like {@link #supply(Supplier)} for work without a result. */
+	public static CompletableFuture<Void> run(Runnable work) {
+		return supply(() -> {
+			work.run();
+			return null;
+		});
+	}
+
+	/** Stops accepting new background work; called on application exit. */
+	public static void shutdown() {
+		BACKGROUND.shutdown();
+	}
+}
@@ -0,0 +1,550 @@
+package com.cinemamanager.util;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * A small, bounded JDBC connection pool.
+ *
+ * <p>
+ * Physical connections are opened with {@link DriverManager} and handed out as
+ * lightweight proxies. Closing a proxy returns the physical connection to the
+ * pool instead of closing the socket, so DAOs can keep using the usual
+ * try-with-resources idiom.
+ * </p>
+ *
+ * <p>
+ * The pool keeps between {@code minSize} and {@code maxSize} physical
+ * connections, validates idle connections before handing them out, evicts
+ * connections that stayed idle for too long, and reports connections that were
+ * borrowed but not returned within the leak detection threshold (including the
+ * stack trace of the code that borrowed them).
+ * </p>
+ *
+ * <p>
+ * Each physical connection also owns a {@link StatementCache}, so repeated
+ * {@code prepareStatement(sql)} calls with the same SQL reuse the already
+ * prepared statement.
+ * </p>
+ *
+ * @author Boban Vesin
+ * @version 1.0
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+	/** JDBC URL of the database. */
+	private final String url;
+
+	/** Database user name. */
+	private final String user;
+
+	/** Database password. */
+	private final String password;
+
+	/** Pool sizing and timeout settings. */
+	private final Settings settings;
+
+	/** One permit per connection that may be borrowed at the same time. */
+	private final Semaphore permits;
+
+	/** Idle connections; the most recently returned one is at the head. */
+	private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+
+	/** Connections currently handed out to callers. */
+	private final Set<PooledEntry> borrowed = ConcurrentHashMap.newKeySet();
+
+	/** Number of open physical connections (idle + borrowed). */
+	private final AtomicInteger total = new AtomicInteger();
+
+	/** Statement cache hits/misses across all connections. */
+	private final AtomicLong statementHits = new AtomicLong();
+	private final AtomicLong statementMisses = new AtomicLong();
+
+	/** Background thread for idle eviction, refilling and leak detection. */
+	private final ScheduledExecutorService housekeeper;
+
+	private volatile boolean closed;
+	private volatile PrintWriter logWriter;
+	private volatile int loginTimeout;
+
+	/**
+	 * Creates a pool and opens {@code minSize} connections in the background.
+	 *
+	 * @param url      the JDBC URL
+	 * @param user     the database user
+	 * @param password the database password
+	 * @param settings pool settings
+	 */
+	public ConnectionPool(String url, String user, String password, Settings settings) {
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.settings = settings;
+		this.permits = new Semaphore(settings.maxSize, true);
+
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "connection-pool-housekeeper");
+			t.setDaemon(true);
+			return t;
+		});
+		long period = Math.max(1000, settings.housekeepingIntervalMs);
+		housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+	}
+
+	// --- DataSource ---
+
+	/**
+	 * Borrows a connection from the pool, waiting at most
+	 * {@code borrowTimeoutMs} for one to become available.
+	 *
+	 * @return a pooled connection; closing it returns it to the pool
+	 * @throws SQLException if the pool is closed, the wait timed out, or a new
+	 *                      physical connection could not be opened
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (closed) {
+			throw new SQLException("Connection pool is closed.");
+		}
+
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.borrowTimeoutMs);
+		try {
+			if (!permits.tryAcquire(settings.borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+				throw new SQLTransientConnectionException("Timed out after " + settings.borrowTimeoutMs
+						+ " ms waiting for a database connection (pool size " + settings.maxSize + ").");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a database connection.", e);
+		}
+
+		try {
+			PooledEntry entry = acquireEntry(deadline);
+			entry.borrowedAt = System.currentTimeMillis();
+			entry.leakReported = false;
+			entry.borrowStack = settings.leakDetectionThresholdMs > 0 ? new Throwable("Connection borrowed here")
+					: null;
+			borrowed.add(entry);
+			return entry.newHandle();
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/** Not supported: the pool always connects with the configured account. */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new SQLFeatureNotSupportedException("ConnectionPool uses the configured credentials only.");
+	}
+
+	@Override
+	public PrintWriter getLogWriter() {
+		return logWriter;
+	}
+
+	@Override
+	public void setLogWriter(PrintWriter out) {
+		this.logWriter = out;
+	}
+
+	@Override
+	public void setLoginTimeout(int seconds) {
+		this.loginTimeout = seconds;
+	}
+
+	@Override
+	public int getLoginTimeout() {
+		return loginTimeout;
+	}
+
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return iface.cast(this);
+		}
+		throw new SQLException("Not a wrapper for " + iface.getName());
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) {
+		return iface.isInstance(this);
+	}
+
+	// --- Metrics ---
+
+	/**
+	 * @return the number of open physical connections
+	 */
+	public int getTotalConnections() {
+		return total.get();
+	}
+
+	/**
+	 * @return the number of connections waiting in the pool
+	 */
+	public int getIdleConnections() {
+		return idle.size();
+	}
+
+	/**
+	 * @return the number of connections currently borrowed
+	 */
+	public int getActiveConnections() {
+		return borrowed.size();
+	}
+
+	/**
+	 * @return how many {@code prepareStatement} calls reused a cached statement
+	 */
+	public long getStatementCacheHits() {
+		return statementHits.get();
+	}
+
+	/**
+	 * @return how many {@code prepareStatement} calls had to prepare a new
+	 *         statement
+	 */
+	public long getStatementCacheMisses() {
+		return statementMisses.get();
+	}
+
+	// --- Lifecycle ---
+
+	/**
+	 * Closes all idle connections and stops the housekeeper. Borrowed connections
+	 * are closed as soon as they are returned.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		housekeeper.shutdownNow();
+		PooledEntry e;
+		while ((e = idle.pollFirst()) != null) {
+			destroy(e);
+		}
+	}
+
+	// --- Internals ---
+
+	/**
+	 * Takes a usable idle connection or opens a new one. The caller already holds
+	 * a permit, so opening a connection never exceeds {@code maxSize} for long;
+	 * if the pool is momentarily full of connections being returned, we wait for
+	 * one of them.
+	 */
+	private PooledEntry acquireEntry(long deadlineNanos) throws SQLException {
+		while (true) {
+			PooledEntry entry = idle.pollFirst();
+			if (entry != null) {
+				if (isUsable(entry)) {
+					return entry;
+				}
+				destroy(entry);
+				continue;
+			}
+
+			if (reserveSlot()) {
+				return openEntry();
+			}
+
+			long remaining = deadlineNanos - System.nanoTime();
+			if (remaining <= 0) {
+				throw new SQLTransientConnectionException("Timed out waiting for a database connection.");
+			}
+			try {
+				entry = idle.pollFirst(remaining, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SQLException("Interrupted while waiting for a database connection.", e);
+			}
+			if (entry != null) {
+				idle.offerFirst(entry);
+			}
+		}
+	}
+
+	/** Reserves room for one more physical connection, if below max size. */
+	private boolean reserveSlot() {
+		int current;
+		do {
+			current = total.get();
+			if (current >= settings.maxSize) {
+				return false;
+			}
+		} while (!total.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	/** Opens a physical connection for an already reserved slot. */
+	private PooledEntry openEntry() throws SQLException {
+		try {
+			Connection physical = DriverManager.getConnection(url, user, password);
+			return new PooledEntry(physical);
+		} catch (SQLException | RuntimeException e) {
+			total.decrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * Validation on borrow. A connection that was used very recently is trusted
+	 * without a round trip to the server.
+	 */
+	private boolean isUsable(PooledEntry entry) {
+		if (entry.broken) {
+			return false;
+		}
+		long idleFor = System.currentTimeMillis() - entry.lastReturnedAt;
+		if (idleFor < settings.validationIntervalMs) {
+			return true;
+		}
+		try {
+			return entry.physical.isValid(settings.validationTimeoutSec);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/** Called when a handle is closed by the caller. */
+	void release(PooledEntry entry) {
+		borrowed.remove(entry);
+		entry.borrowStack = null;
+		entry.statements.reclaim();
+
+		try {
+			if (!entry.broken && !entry.physical.isClosed() && !entry.physical.getAutoCommit()) {
+				// never hand out a connection with an open transaction
+				entry.physical.rollback();
+				entry.physical.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			entry.broken = true;
+		}
+
+		if (closed || entry.broken) {
+			destroy(entry);
+		} else {
+			entry.lastReturnedAt = System.currentTimeMillis();
+			idle.offerFirst(entry);
+		}
+		permits.release();
+	}
+
+	/** Closes the physical connection and frees its slot. */
+	private void destroy(PooledEntry entry) {
+		total.decrementAndGet();
+		entry.statements.closeAll();
+		try {
+			entry.physical.close();
+		} catch (SQLException ignored) {
+		}
+	}
+
+	/** Periodic maintenance: evict idle connections, refill, detect leaks. */
+	private void housekeep() {
+		try {
+			evictIdle();
+			fillToMinimum();
+			detectLeaks();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void evictIdle() {
+		if (settings.idleTimeoutMs <= 0) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		// the oldest idle connections sit at the tail of the deque
+		PooledEntry entry;
+		while (total.get() > settings.minSize && (entry = idle.peekLast()) != null
+				&& now - entry.lastReturnedAt > settings.idleTimeoutMs) {
+			if (idle.removeLastOccurrence(entry)) {
+				destroy(entry);
+			}
+		}
+	}
+
+	private void fillToMinimum() {
+		while (!closed && total.get() < settings.minSize && reserveSlot()) {
+			try {
+				PooledEntry entry = openEntry();
+				entry.lastReturnedAt = System.currentTimeMillis();
+				idle.offerLast(entry);
+			} catch (SQLException e) {
+				// database unreachable; callers will see the error when they borrow
+				return;
+			}
+		}
+	}
+
+	private void detectLeaks() {
+		if (settings.leakDetectionThresholdMs <= 0) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		for (PooledEntry entry : borrowed) {
+			Throwable stack = entry.borrowStack;
+			if (!entry.leakReported && stack != null && now - entry.borrowedAt > settings.leakDetectionThresholdMs) {
+				entry.leakReported = true;
+				System.err.println("Possible connection leak: connection borrowed " + (now - entry.borrowedAt)
+						+ " ms ago has not been returned to the pool.");
+				stack.printStackTrace();
+			}
+		}
+	}
+
+	/** Bookkeeping for one physical connection. */
+	final class PooledEntry {
+		final Connection physical;
+		final StatementCache statements;
+		volatile long borrowedAt;
+		volatile long lastReturnedAt;
+		volatile Throwable borrowStack;
+		volatile boolean leakReported;
+		volatile boolean broken;
+
+		PooledEntry(Connection physical) {
+			this.physical = physical;
+			this.statements = new StatementCache(settings.statementCacheSize, statementHits, statementMisses);
+		}
+
+		Connection newHandle() {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new Handle(this));
+		}
+	}
+
+	/**
+	 * The connection a caller sees. Each borrow gets its own handle, so closing a
+	 * stale handle twice cannot return somebody else's connection.
+	 */
+	private final class Handle implements InvocationHandler {
+		private final PooledEntry entry;
+		private boolean handleClosed;
+
+		Handle(PooledEntry entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!handleClosed) {
+					handleClosed = true;
+					release(entry);
+				}
+				return null;
+			case "isClosed":
+				return handleClosed || entry.physical.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "Pooled[" + entry.physical + "]";
+			case "unwrap":
+				return ((Class<?>) args[0]).isInstance(proxy) ? proxy : entry.physical.unwrap((Class<?>) args[0]);
+			case "isWrapperFor":
+				return ((Class<?>) args[0]).isInstance(proxy) || entry.physical.isWrapperFor((Class<?>) args[0]);
+			default:
+				break;
+			}
+
+			if (handleClosed) {
+				throw new SQLException("Connection has already been returned to the pool.");
+			}
+			if ("prepareStatement".equals(method.getName()) && settings.statementCacheSize > 0) {
+				Class<?>[] types = method.getParameterTypes();
+				if (types.length == 1) {
+					return entry.statements.prepare(entry.physical, (Connection) proxy, (String) args[0], -1);
+				}
+				if (types.length == 2 && types[1] == int.class) {
+					return entry.statements.prepare(entry.physical, (Connection) proxy, (String) args[0],
+							(Integer) args[1]);
+				}
+			}
+			try {
+				return method.invoke(entry.physical, args);
+			} catch (InvocationTargetException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof SQLException sql && sql.getSQLState() != null
+						&& sql.getSQLState().startsWith("08")) {
+					// SQLState class 08 = connection exception; do not reuse this socket
+					entry.broken = true;
+				}
+				throw cause;
+			}
+		}
+	}
+
+	/**
+	 * Pool sizing and timeout settings, usually read from {@code db.properties}.
+	 */
+	public static final class Settings {
+		int minSize = 2;
+		int maxSize = 10;
+		long borrowTimeoutMs = 5_000;
+		long idleTimeoutMs = 300_000;
+		long validationIntervalMs = 500;
+		int validationTimeoutSec = 2;
+		long leakDetectionThresholdMs = 30_000;
+		long housekeepingIntervalMs = 5_000;
+		int statementCacheSize = 64;
+
+		/**
+		 * Reads {@code db.pool.*} keys, keeping the defaults for missing ones.
+		 *
+		 * @param props the loaded database properties
+		 * @return the settings
+		 */
+		public static Settings fromProperties(Properties props) {
+			Settings s = new Settings();
+			s.maxSize = Math.max(1, DatabaseConnection.intProperty(props, "db.pool.maxSize", s.maxSize));
+			s.minSize = Math.min(s.maxSize,
+					Math.max(0, DatabaseConnection.intProperty(props, "db.pool.minSize", s.minSize)));
+			s.borrowTimeoutMs = DatabaseConnection.longProperty(props, "db.pool.borrowTimeoutMs", s.borrowTimeoutMs);
+			s.idleTimeoutMs = DatabaseConnection.longProperty(props, "db.pool.idleTimeoutMs", s.idleTimeoutMs);
+			s.validationIntervalMs = DatabaseConnection.longProperty(props, "db.pool.validationIntervalMs",
+					s.validationIntervalMs);
+			s.validationTimeoutSec = DatabaseConnection.intProperty(props, "db.pool.validationTimeoutSec",
+					s.validationTimeoutSec);
+			s.leakDetectionThresholdMs = DatabaseConnection.longProperty(props, "db.pool.leakDetectionThresholdMs",
+					s.leakDetectionThresholdMs);
+			s.housekeepingIntervalMs = DatabaseConnection.longProperty(props, "db.pool.housekeepingIntervalMs",
+					s.housekeepingIntervalMs);
+			s.statementCacheSize = Math.max(0,
+					DatabaseConnection.intProperty(props, "db.pool.statementCacheSize", s.statementCacheSize));
+			return s;
+		}
+	}
+}
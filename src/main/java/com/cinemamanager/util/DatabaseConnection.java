@@ -2,32 +2,116 @@ package com.cinemamanager.util;
 
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.util.Properties;
 
+import javax.sql.DataSource;
+
+import com.cinemamanager.dao.TransactionManager;
+
 import javafx.application.Platform;
 
 public class DatabaseConnection {
 
 	private static final String PROPERTIES_FILE = "/db.properties";
 
+	// loaded once, then shared by every DAO
+	private static Properties properties;
+	private static ConnectionPool pool;
+	private static TransactionManager transactionManager;
+
+	/**
+	 * Borrows a connection from the shared pool. Callers must close it (ideally
+	 * with try-with-resources) to hand it back.
+	 */
 	public static Connection getConnection() {
-		try (InputStream input = DatabaseConnection.class.getResourceAsStream(PROPERTIES_FILE)) {
-			if (input == null) {
-				showError("Database configuration file not found.");
+		DataSource dataSource = getDataSource();
+		if (dataSource == null) {
+			return null;
+		}
+		try {
+			return dataSource.getConnection();
+		} catch (Exception e) {
+			showError("Failed to connect to the database.\n" + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the shared pooled {@link DataSource}, creating it on first use, or
+	 * {@code null} if the configuration could not be loaded. Connections taken
+	 * from it join the calling thread's transaction, if one is active.
+	 */
+	public static synchronized DataSource getDataSource() {
+		TransactionManager tx = getTransactionManager();
+		return tx == null ? null : tx.getDataSource();
+	}
+
+	/**
+	 * Returns the transaction manager bound to the shared pool, or {@code null} if
+	 * the configuration could not be loaded.
+	 */
+	public static synchronized TransactionManager getTransactionManager() {
+		if (transactionManager == null) {
+			Properties props = getProperties();
+			if (props == null) {
+				return null;
+			}
+			pool = new ConnectionPool(props.getProperty("db.url"), props.getProperty("db.user"),
+					props.getProperty("db.password"), ConnectionPool.Settings.fromProperties(props));
+			transactionManager = new TransactionManager(pool,
+					TransactionManager.parseIsolation(props.getProperty("db.transaction.isolation")));
+		}
+		return transactionManager;
+	}
+
+	/** Returns the contents of {@code db.properties}, read once. */
+	public static synchronized Properties getProperties() {
+		if (properties == null) {
+			try (InputStream input = DatabaseConnection.class.getResourceAsStream(PROPERTIES_FILE)) {
+				if (input == null) {
+					showError("Database configuration file not found.");
+					return null;
+				}
+				Properties props = new Properties();
+				props.load(input);
+				properties = props;
+			} catch (Exception e) {
+				showError("Failed to read the database configuration.\n" + e.getMessage());
 				return null;
 			}
-			Properties props = new Properties();
-			props.load(input);
+		}
+		return properties;
+	}
+
+	/**
+	 * Reads an int setting leniently: a missing, blank or malformed value (or
+	 * missing properties) yields {@code def} instead of an exception.
+	 */
+	public static int intProperty(Properties props, String key, int def) {
+		String v = props == null ? null : props.getProperty(key);
+		try {
+			return v == null || v.isBlank() ? def : Integer.parseInt(v.trim());
+		} catch (NumberFormatException e) {
+			return def;
+		}
+	}
 
-			String url = props.getProperty("db.url");
-			String user = props.getProperty("db.user");
-			String password = props.getProperty("db.password");
+	/** Reads a long setting leniently, like {@link #intProperty}. */
+	public static long longProperty(Properties props, String key, long def) {
+		String v = props == null ? null : props.getProperty(key);
+		try {
+			return v == null || v.isBlank() ? def : Long.parseLong(v.trim());
+		} catch (NumberFormatException e) {
+			return def;
+		}
+	}
 
-			return DriverManager.getConnection(url, user, password);
-		} catch (Exception e) {
-			showError("Failed to connect to the database.\n" + e.getMessage());
-			return null;
+	/** Closes all pooled connections; called when the application exits. */
+	public static synchronized void shutdown() {
+		if (pool != null) {
+			pool.close();
+			pool = null;
+			transactionManager = null;
 		}
 	}
 
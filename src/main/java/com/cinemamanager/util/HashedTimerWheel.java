@@ -0,0 +1,223 @@
+package com.cinemamanager.util;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hashed timing wheel: schedules many short-lived timeouts on one thread.
+ *
+ * <p>
+ * Time is cut into ticks of {@code tickMillis}. A timeout lands in bucket
+ * {@code deadlineTick % wheelSize} and remembers how many full turns of the wheel
+ * remain; each tick the worker visits one bucket only. Scheduling and
+ * cancelling are {@code O(1)} and lock-free, whatever the number of pending
+ * timeouts, at the price of firing up to one tick late. New timeouts are queued
+ * and moved into the wheel by the worker, so the buckets need no locking.
+ * </p>
+ *
+ * <p>
+ * Tasks run on the worker thread and must be short; a slow task delays every
+ * other expiry. The lag between a deadline and the moment its task starts is
+ * tracked for monitoring.
+ * </p>
+ */
+public final class HashedTimerWheel implements AutoCloseable {
+
+	/** Handle of a scheduled task. */
+	public interface Timeout {
+		/**
+		 * Prevents the task from running.
+		 *
+		 * @return {@code false} if it already ran or was already cancelled
+		 */
+		boolean cancel();
+
+		boolean isExpired();
+
+		boolean isCancelled();
+	}
+
+	private static final int PENDING = 0;
+	private static final int CANCELLED = 1;
+	private static final int EXPIRED = 2;
+
+	private final long tickNanos;
+	private final int mask;
+	private final ArrayDeque<Entry>[] wheel;
+	private final Queue<Entry> incoming = new ConcurrentLinkedQueue<>();
+	private final Thread worker;
+	private final long startNanos;
+	private volatile boolean closed;
+
+	private final AtomicLong pending = new AtomicLong();
+	private final AtomicLong expired = new AtomicLong();
+	private final AtomicLong lagTotalNanos = new AtomicLong();
+	private final AtomicLong lagMaxNanos = new AtomicLong();
+
+	/**
+	 * @param name       name of the worker thread
+	 * @param tickMillis resolution of the wheel
+	 * @param wheelSize  number of buckets, rounded up to a power of two
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public HashedTimerWheel(String name, long tickMillis, int wheelSize) {
+		if (tickMillis < 1 || wheelSize < 1) {
+			throw new IllegalArgumentException("tickMillis and wheelSize must be positive");
+		}
+		int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+		this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+		this.mask = size - 1;
+		this.wheel = new ArrayDeque[size];
+		for (int i = 0; i < size; i++) {
+			wheel[i] = new ArrayDeque<>();
+		}
+		this.startNanos = System.nanoTime();
+		this.worker = new Thread(this::run, name);
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * Runs {@code task} once after {@code delay}.
+	 *
+	 * @throws IllegalStateException if the wheel is closed
+	 */
+	public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+		if (closed) {
+			throw new IllegalStateException("Timer wheel is closed");
+		}
+		Entry entry = new Entry(task, System.nanoTime() + unit.toNanos(Math.max(0, delay)));
+		pending.incrementAndGet();
+		incoming.add(entry);
+		return entry;
+	}
+
+	/** @return timeouts scheduled but neither run nor cancelled */
+	public long getPendingCount() {
+		return pending.get();
+	}
+
+	/** @return tasks run so far */
+	public long getExpiredCount() {
+		return expired.get();
+	}
+
+	/** @return average delay between deadline and execution, in milliseconds */
+	public double getAverageLagMillis() {
+		long n = expired.get();
+		return n == 0 ? 0 : lagTotalNanos.get() / (double) n / 1_000_000;
+	}
+
+	/** @return worst delay between deadline and execution, in milliseconds */
+	public double getMaxLagMillis() {
+		return lagMaxNanos.get() / 1_000_000.0;
+	}
+
+	/** Stops the worker; pending tasks are dropped. */
+	@Override
+	public void close() {
+		closed = true;
+		worker.interrupt();
+	}
+
+	private void run() {
+		long tick = 0;
+		while (!closed) {
+			long deadline = startNanos + (tick + 1) * tickNanos;
+			long sleep = deadline - System.nanoTime();
+			if (sleep > 0) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(sleep);
+				} catch (InterruptedException e) {
+					if (closed) {
+						return;
+					}
+				}
+			}
+			transferIncoming(tick);
+			expireBucket(wheel[(int) (tick & mask)]);
+			tick++;
+		}
+	}
+
+	private void transferIncoming(long tick) {
+		Entry entry;
+		while ((entry = incoming.poll()) != null) {
+			if (entry.state.get() != PENDING) {
+				continue;
+			}
+			// the bucket of tick k is visited at the end of that tick, so never early
+			long deadlineTick = Math.max(tick, (entry.deadlineNanos - startNanos) / tickNanos);
+			entry.rounds = (deadlineTick - tick) / wheel.length;
+			wheel[(int) (deadlineTick & mask)].add(entry);
+		}
+	}
+
+	private void expireBucket(ArrayDeque<Entry> bucket) {
+		Iterator<Entry> it = bucket.iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			if (entry.state.get() != PENDING) {
+				it.remove();
+			} else if (entry.rounds <= 0) {
+				it.remove();
+				entry.expire();
+			} else {
+				entry.rounds--;
+			}
+		}
+	}
+
+	private final class Entry implements Timeout {
+		final Runnable task;
+		final long deadlineNanos;
+		final AtomicInteger state = new AtomicInteger(PENDING);
+		// full wheel turns left; only touched by the worker
+		long rounds;
+
+		Entry(Runnable task, long deadlineNanos) {
+			this.task = task;
+			this.deadlineNanos = deadlineNanos;
+		}
+
+		void expire() {
+			if (!state.compareAndSet(PENDING, EXPIRED)) {
+				return;
+			}
+			pending.decrementAndGet();
+			long lag = Math.max(0, System.nanoTime() - deadlineNanos);
+			lagTotalNanos.addAndGet(lag);
+			lagMaxNanos.accumulateAndGet(lag, Math::max);
+			expired.incrementAndGet();
+			try {
+				task.run();
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+
+		@Override
+		public boolean cancel() {
+			if (state.compareAndSet(PENDING, CANCELLED)) {
+				pending.decrementAndGet();
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public boolean isExpired() {
+			return state.get() == EXPIRED;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return state.get() == CANCELLED;
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package com.cinemamanager.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import javafx.collections.ModifiableObservableListBase;
+
+/**
+ * Observable list of items with an int key (an entity id) that also finds an
+ * item by key in constant time, for use as the items of a {@code ComboBox} or
+ * {@code TableView} whose selection is driven by ids.
+ *
+ * <p>
+ * Next to the list it keeps an open-addressing {@code int} key to index map.
+ * Appends and in-place replacements update the map directly; any other change
+ * (an insert or removal that shifts positions, {@code setAll}, sorting) marks
+ * it stale, and the next lookup rebuilds it in one pass. Between changes every
+ * lookup is O(1). If two items share a key, lookups return the first one.
+ * </p>
+ *
+ * <p>
+ * Like any observable list behind a control, it must be used on the JavaFX
+ * application thread.
+ * </p>
+ *
+ * @param <T> item type
+ */
+public final class KeyedObservableList<T> extends ModifiableObservableListBase<T> {
+
+	private static final int FREE = -1;
+
+	private final List<T> items = new ArrayList<>();
+	private final ToIntFunction<? super T> key;
+
+	// open addressing, linear probing; slots[i] is an index into items or FREE
+	private int[] keys = new int[16];
+	private int[] slots = newSlots(16);
+	private int mapped;
+	private boolean stale;
+
+	/** @param key extracts the key (e.g. {@code Screening::getScreeningId}) */
+	public KeyedObservableList(ToIntFunction<? super T> key) {
+		this.key = key;
+	}
+
+	/** @return the position of the first item with {@code itemKey}, or {@code -1} */
+	public int indexOfKey(int itemKey) {
+		if (stale) {
+			rebuild();
+		}
+		int mask = slots.length - 1;
+		for (int i = mix(itemKey) & mask; slots[i] != FREE; i = (i + 1) & mask) {
+			if (keys[i] == itemKey) {
+				return slots[i];
+			}
+		}
+		return -1;
+	}
+
+	/** @return the first item with {@code itemKey}, or {@code null} */
+	public T getByKey(int itemKey) {
+		int index = indexOfKey(itemKey);
+		return index >= 0 ? items.get(index) : null;
+	}
+
+	@Override
+	public T get(int index) {
+		return items.get(index);
+	}
+
+	@Override
+	public int size() {
+		return items.size();
+	}
+
+	@Override
+	protected void doAdd(int index, T element) {
+		items.add(index, element);
+		if (index == items.size() - 1 && !stale) {
+			putIfAbsent(key.applyAsInt(element), index);
+		} else {
+			stale = true;
+		}
+	}
+
+	@Override
+	protected T doSet(int index, T element) {
+		T old = items.set(index, element);
+		if (key.applyAsInt(old) != key.applyAsInt(element)) {
+			stale = true;
+		}
+		return old;
+	}
+
+	@Override
+	protected T doRemove(int index) {
+		stale = true;
+		return items.remove(index);
+	}
+
+	/**
+	 * Replaces all items in one pass and fires a single change, instead of
+	 * removing the old items one at a time from the front.
+	 */
+	@Override
+	public boolean setAll(Collection<? extends T> col) {
+		List<T> added = new ArrayList<>(col);
+		beginChange();
+		try {
+			if (!items.isEmpty()) {
+				nextRemove(0, new ArrayList<>(items));
+				items.clear();
+			}
+			items.addAll(added);
+			nextAdd(0, items.size());
+			stale = true;
+			modCount++;
+		} finally {
+			endChange();
+		}
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		removeRange(0, size());
+	}
+
+	/** Removes the range in one pass and fires a single change. */
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > items.size() || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex);
+		}
+		if (fromIndex == toIndex) {
+			return;
+		}
+		List<T> range = items.subList(fromIndex, toIndex);
+		beginChange();
+		try {
+			nextRemove(fromIndex, new ArrayList<>(range));
+			range.clear();
+			stale = true;
+			modCount++;
+		} finally {
+			endChange();
+		}
+	}
+
+	private void rebuild() {
+		int capacity = 16;
+		while (capacity < items.size() * 2) {
+			capacity <<= 1;
+		}
+		if (capacity != slots.length) {
+			keys = new int[capacity];
+			slots = newSlots(capacity);
+		} else {
+			Arrays.fill(slots, FREE);
+		}
+		mapped = 0;
+		stale = false;
+		for (int i = 0; i < items.size(); i++) {
+			putIfAbsent(key.applyAsInt(items.get(i)), i);
+		}
+	}
+
+	private void putIfAbsent(int itemKey, int index) {
+		if ((mapped + 1) * 2 > slots.length) {
+			// grow by rebuilding from the list, which already holds the new item
+			rebuild();
+			return;
+		}
+		int mask = slots.length - 1;
+		int i = mix(itemKey) & mask;
+		for (; slots[i] != FREE; i = (i + 1) & mask) {
+			if (keys[i] == itemKey) {
+				return;
+			}
+		}
+		keys[i] = itemKey;
+		slots[i] = index;
+		mapped++;
+	}
+
+	// ids are often consecutive; spread them over the table
+	private static int mix(int k) {
+		int h = k * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private static int[] newSlots(int capacity) {
+		int[] s = new int[capacity];
+		Arrays.fill(s, FREE);
+		return s;
+	}
+}
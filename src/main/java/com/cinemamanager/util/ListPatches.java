@@ -0,0 +1,47 @@
+package com.cinemamanager.util;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Applies a single saved, updated or deleted entity to the list behind a
+ * table, so an edit does not reload the whole table. On an
+ * {@code ObservableList} each call fires one change, and only the affected row
+ * is redrawn.
+ */
+public final class ListPatches {
+
+	private ListPatches() {
+	}
+
+	/**
+	 * Replaces the element with the same id as {@code item}, or appends
+	 * {@code item} if there is none.
+	 */
+	public static <T> void upsert(List<T> list, T item, ToIntFunction<? super T> id) {
+		int i = indexOf(list, id.applyAsInt(item), id);
+		if (i >= 0) {
+			// set() even for the same instance, so the row shows the new values
+			list.set(i, item);
+		} else {
+			list.add(item);
+		}
+	}
+
+	/** Removes the element with the given id, if present. */
+	public static <T> void remove(List<T> list, int itemId, ToIntFunction<? super T> id) {
+		int i = indexOf(list, itemId, id);
+		if (i >= 0) {
+			list.remove(i);
+		}
+	}
+
+	private static <T> int indexOf(List<T> list, int itemId, ToIntFunction<? super T> id) {
+		for (int i = 0; i < list.size(); i++) {
+			if (id.applyAsInt(list.get(i)) == itemId) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,191 @@
+package com.cinemamanager.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe LRU cache with an optional time-to-live.
+ *
+ * <p>
+ * Entries are kept in access order; inserting beyond {@code maxSize} evicts the
+ * least recently used one. {@link #get(Object, Function)} loads missing or
+ * expired keys outside the lock, so a slow loader does not block other readers
+ * (two threads missing the same key may both load it). {@code null} values are
+ * not cached. A value loaded while an invalidation happened is returned but not
+ * cached, so a reader that read a row before a write cannot cache it after the
+ * write's invalidation.
+ * </p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class LruCache<K, V> {
+
+	private final int maxSize;
+	private final long ttlNanos;
+	private final LinkedHashMap<K, Entry<V>> map;
+	// bumped by every invalidation (guarded by map)
+	private long generation;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * @param maxSize    maximum number of entries (values below 1 disable
+	 *                   caching)
+	 * @param ttlSeconds how long an entry stays valid after it was loaded, or
+	 *                   {@code 0} for no expiry
+	 */
+	public LruCache(int maxSize, long ttlSeconds) {
+		this.maxSize = maxSize;
+		this.ttlNanos = ttlSeconds > 0 ? TimeUnit.SECONDS.toNanos(ttlSeconds) : 0;
+		this.map = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Builds a cache from {@code <prefix>.maxSize} and {@code <prefix>.ttlSeconds}
+	 * in {@code props}, falling back to the given defaults.
+	 */
+	public static <K, V> LruCache<K, V> fromProperties(Properties props, String prefix, int defaultMaxSize,
+			long defaultTtlSeconds) {
+		int size = DatabaseConnection.intProperty(props, prefix + ".maxSize", defaultMaxSize);
+		long ttl = DatabaseConnection.longProperty(props, prefix + ".ttlSeconds", defaultTtlSeconds);
+		return new LruCache<>(size, ttl);
+	}
+
+	/**
+	 * Returns the cached value for {@code key}, loading and caching it on a miss.
+	 *
+	 * @return the value, or {@code null} if the loader returned {@code null}
+	 */
+	public V get(K key, Function<? super K, ? extends V> loader) {
+		V cached = getIfPresent(key);
+		if (cached != null) {
+			return cached;
+		}
+		long seen;
+		synchronized (map) {
+			seen = generation;
+		}
+		V loaded = loader.apply(key);
+		if (loaded != null && maxSize > 0) {
+			synchronized (map) {
+				// invalidated while loading: the value may predate the write
+				if (generation == seen) {
+					insert(key, loaded);
+				}
+			}
+		}
+		return loaded;
+	}
+
+	/** @return the cached, unexpired value, or {@code null} (counted as a miss) */
+	public V getIfPresent(K key) {
+		synchronized (map) {
+			Entry<V> entry = map.get(key);
+			if (entry != null && !entry.isExpired(System.nanoTime())) {
+				hits.incrementAndGet();
+				return entry.value;
+			}
+			if (entry != null) {
+				map.remove(key);
+				evictions.incrementAndGet();
+			}
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/** Caches {@code value}, evicting the least recently used entry if full. */
+	public void put(K key, V value) {
+		if (maxSize < 1 || value == null) {
+			return;
+		}
+		synchronized (map) {
+			insert(key, value);
+		}
+	}
+
+	// caller holds the map lock
+	private void insert(K key, V value) {
+		long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0;
+		map.put(key, new Entry<>(value, expiresAt));
+		Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+		while (map.size() > maxSize && it.hasNext()) {
+			it.next();
+			it.remove();
+			evictions.incrementAndGet();
+		}
+	}
+
+	/** Removes one key. */
+	public void invalidate(K key) {
+		synchronized (map) {
+			generation++;
+			map.remove(key);
+		}
+	}
+
+	/** Removes every entry. */
+	public void invalidateAll() {
+		synchronized (map) {
+			generation++;
+			map.clear();
+		}
+	}
+
+	/** @return current number of entries (including expired ones not yet purged) */
+	public int size() {
+		synchronized (map) {
+			return map.size();
+		}
+	}
+
+	/** @return lookups answered from the cache */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/** @return lookups that had to go to the loader */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/** @return entries dropped because the cache was full or they expired */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/** @return hits / (hits + misses), or {@code 0} before the first lookup */
+	public double getHitRate() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("LruCache[size=%d/%d, hits=%d, misses=%d, evictions=%d, hitRate=%.2f]", size(), maxSize,
+				getHits(), getMisses(), getEvictions(), getHitRate());
+	}
+
+	private static final class Entry<V> {
+		final V value;
+		final long expiresAt;
+
+		Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired(long now) {
+			return expiresAt != 0 && now - expiresAt >= 0;
+		}
+	}
+}
@@ -0,0 +1,265 @@
+package com.cinemamanager.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.ToIntFunction;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * Read-only observable list over a large ordered query that keeps only a few
+ * pages in memory, for use as the items of a {@code TableView}.
+ *
+ * <p>
+ * {@link #size()} is the row count of the query. A {@code TableView} only asks
+ * for the rows it shows, so {@link #get(int)} is called around the viewport: a
+ * row whose page is loaded is returned directly; otherwise {@code null} is
+ * returned (an empty row) and the page plus its neighbours are fetched on
+ * {@link AsyncExecutors#background()}. When a page arrives its rows are
+ * replaced, which redraws just those cells. At most {@code maxPages} pages are
+ * kept; the one farthest from the last requested row is evicted first. Pages
+ * that are already far from the viewport when their turn comes are skipped,
+ * so fast scrolling does not queue up useless queries.
+ * </p>
+ *
+ * <p>
+ * Must be used on the JavaFX application thread. After inserts or deletes,
+ * call {@link #addFirst}/{@link #removeLoaded} if the position is known, or
+ * {@link #refresh()}.
+ * </p>
+ *
+ * @param <T> row type
+ */
+public final class PagedList<T> extends ObservableListBase<T> {
+
+	/** The query behind the list, called on a background thread. */
+	public interface PageSource<T> {
+		/** @return the number of rows */
+		int count();
+
+		/**
+		 * @param offset index of the first row
+		 * @param limit  maximum number of rows
+		 * @param after  the row just before {@code offset} if it is known, so the
+		 *               source can seek by key instead of skipping rows; otherwise
+		 *               {@code null}
+		 * @return the rows in list order
+		 */
+		List<T> fetch(int offset, int limit, T after);
+	}
+
+	private final PageSource<T> source;
+	private final int pageSize;
+	private final int maxPages;
+	private final Map<Integer, List<T>> pages = new HashMap<>();
+	private final Set<Integer> loading = new HashSet<>();
+
+	private int size;
+	// the page of the last get(), read by background fetches to skip stale work
+	private volatile int focusPage;
+	// bumped by refresh() so results of older fetches are dropped
+	private int generation;
+
+	/**
+	 * @param pageSize rows per fetch
+	 * @param maxPages pages kept in memory (at least 5: a viewport spanning two
+	 *                 pages plus a neighbour on each side, with one to spare)
+	 */
+	public PagedList(PageSource<T> source, int pageSize, int maxPages) {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("pageSize must be positive");
+		}
+		this.source = source;
+		this.pageSize = pageSize;
+		this.maxPages = Math.max(5, maxPages);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/** @return the row, or {@code null} while its page is being loaded */
+	@Override
+	public T get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		int page = index / pageSize;
+		focusPage = page;
+		List<T> rows = pages.get(page);
+		if (rows == null) {
+			request(page);
+		}
+		// prefetch the neighbours so scrolling past a page border does not flash
+		request(page + 1);
+		request(page - 1);
+		if (rows == null) {
+			return null;
+		}
+		int i = index - page * pageSize;
+		return i < rows.size() ? rows.get(i) : null;
+	}
+
+	/**
+	 * Re-counts the rows and drops every loaded page; the visible rows are
+	 * fetched again as soon as the table asks for them.
+	 *
+	 * @return completes on the FX thread once the new size is applied, or
+	 *         exceptionally if counting failed
+	 */
+	public CompletableFuture<Void> refresh() {
+		int gen = ++generation;
+		return AsyncExecutors.supply(source::count).thenAccept(count -> {
+			if (gen != generation) {
+				return;
+			}
+			List<T> removed = Collections.nCopies(size, null);
+			pages.clear();
+			loading.clear();
+			size = count;
+			beginChange();
+			nextRemove(0, removed);
+			nextAdd(0, size);
+			endChange();
+		});
+	}
+
+	/**
+	 * Replaces a row that is loaded in memory with a newer version of it (same
+	 * id), without touching the database.
+	 *
+	 * @return {@code true} if the row was loaded
+	 */
+	public boolean replaceLoaded(T item, ToIntFunction<? super T> id) {
+		int key = id.applyAsInt(item);
+		for (Map.Entry<Integer, List<T>> e : pages.entrySet()) {
+			List<T> rows = e.getValue();
+			for (int i = 0; i < rows.size(); i++) {
+				T old = rows.get(i);
+				if (old != null && id.applyAsInt(old) == key) {
+					rows.set(i, item);
+					beginChange();
+					nextSet(e.getKey() * pageSize + i, old);
+					endChange();
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Records that a row was inserted at the top of the query's order (e.g. the
+	 * newest row of a newest-first list). Loaded pages are dropped because every
+	 * row moved down by one; only the visible pages are fetched again, the rows
+	 * are not re-counted.
+	 */
+	public void addFirst(T item) {
+		generation++;
+		pages.clear();
+		loading.clear();
+		size++;
+		beginChange();
+		nextAdd(0, 1);
+		endChange();
+	}
+
+	/**
+	 * Records that a loaded row was deleted, without re-counting.
+	 *
+	 * @return {@code false} if no loaded row has the item's id
+	 */
+	public boolean removeLoaded(T item, ToIntFunction<? super T> id) {
+		int key = id.applyAsInt(item);
+		for (Map.Entry<Integer, List<T>> e : pages.entrySet()) {
+			List<T> rows = e.getValue();
+			for (int i = 0; i < rows.size(); i++) {
+				T old = rows.get(i);
+				if (old != null && id.applyAsInt(old) == key) {
+					generation++;
+					pages.clear();
+					loading.clear();
+					size--;
+					beginChange();
+					nextRemove(e.getKey() * pageSize + i, old);
+					endChange();
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/** @return number of pages held in memory */
+	public int getLoadedPageCount() {
+		return pages.size();
+	}
+
+	private void request(int page) {
+		if (page < 0 || page * pageSize >= size || pages.containsKey(page) || !loading.add(page)) {
+			return;
+		}
+		int gen = generation;
+		List<T> before = pages.get(page - 1);
+		T after = before != null && before.size() == pageSize ? before.get(pageSize - 1) : null;
+		AsyncExecutors.supply(() -> {
+			// scrolled away while this fetch was waiting: not worth a query
+			if (Math.abs(page - focusPage) > maxPages / 2) {
+				return null;
+			}
+			return source.fetch(page * pageSize, pageSize, after);
+		}).whenComplete((rows, ex) -> {
+			if (gen != generation) {
+				return;
+			}
+			loading.remove(page);
+			if (ex != null) {
+				ex.printStackTrace();
+			} else if (rows != null) {
+				put(page, rows);
+			}
+		});
+	}
+
+	private void put(int page, List<T> rows) {
+		pages.put(page, new ArrayList<>(rows));
+		while (pages.size() > maxPages) {
+			evictFarthest();
+		}
+		int from = page * pageSize;
+		int to = Math.min(size, from + rows.size());
+		if (from >= to) {
+			return;
+		}
+		beginChange();
+		for (int i = from; i < to; i++) {
+			nextSet(i, null);
+		}
+		endChange();
+	}
+
+	private void evictFarthest() {
+		int focus = focusPage;
+		int farthest = -1;
+		for (int p : pages.keySet()) {
+			if (farthest < 0 || Math.abs(p - focus) > Math.abs(farthest - focus)) {
+				farthest = p;
+			}
+		}
+		List<T> rows = pages.remove(farthest);
+		int from = farthest * pageSize;
+		int to = Math.min(size, from + rows.size());
+		beginChange();
+		for (int i = from; i < to; i++) {
+			nextSet(i, rows.get(i - from));
+		}
+		endChange();
+	}
+}
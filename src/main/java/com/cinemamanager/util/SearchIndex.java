@@ -0,0 +1,231 @@
+package com.cinemamanager.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable in-memory text index for type-ahead search over a list of items.
+ *
+ * <p>
+ * Each item has one primary field (e.g. a title) and any number of secondary
+ * fields (e.g. genre, language). All fields are normalised once when the index
+ * is built (lower case, accents removed), and every trigram of every field is
+ * mapped to the sorted ids of the items containing it. A query term of three
+ * or more characters is answered by intersecting the posting lists of its
+ * trigrams and checking only the surviving candidates, so a search touches a
+ * few items instead of the whole list. Shorter terms are checked against the
+ * pre-normalised strings directly.
+ * </p>
+ *
+ * <p>
+ * Every whitespace-separated term must occur in some field. Results are ranked
+ * by where the terms matched: exact primary field, primary prefix, start of a
+ * word in the primary field, anywhere in the primary field, then secondary
+ * fields; ties go to the shorter primary field, then to list order. Instances
+ * are immutable and safe to search from any thread.
+ * </p>
+ *
+ * @param <T> item type
+ */
+public final class SearchIndex<T> {
+
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+	private static final Pattern SPACES = Pattern.compile("\\s+");
+	private static final int[] NONE = new int[0];
+
+	private final List<T> items;
+	private final String[] primary;
+	private final String[][] secondary;
+	private final Map<String, int[]> trigrams;
+
+	private SearchIndex(List<T> items, String[] primary, String[][] secondary, Map<String, int[]> trigrams) {
+		this.items = items;
+		this.primary = primary;
+		this.secondary = secondary;
+		this.trigrams = trigrams;
+	}
+
+	/** @return an index without items */
+	public static <T> SearchIndex<T> empty() {
+		return new SearchIndex<>(Collections.emptyList(), new String[0], new String[0][], Collections.emptyMap());
+	}
+
+	/**
+	 * Builds an index over a snapshot of {@code items}.
+	 *
+	 * @param primaryField    the field ranked highest, e.g. the title
+	 * @param secondaryFields further searchable fields; {@code null} values are
+	 *                        treated as empty
+	 */
+	@SafeVarargs
+	public static <T> SearchIndex<T> build(List<? extends T> items, Function<? super T, String> primaryField,
+			Function<? super T, String>... secondaryFields) {
+		List<T> snapshot = List.copyOf(items);
+		int n = snapshot.size();
+		String[] primary = new String[n];
+		String[][] secondary = new String[n][];
+		Map<String, Postings> postings = new HashMap<>();
+		for (int id = 0; id < n; id++) {
+			T item = snapshot.get(id);
+			primary[id] = normalize(primaryField.apply(item));
+			addTrigrams(postings, primary[id], id);
+			secondary[id] = new String[secondaryFields.length];
+			for (int f = 0; f < secondaryFields.length; f++) {
+				secondary[id][f] = normalize(secondaryFields[f].apply(item));
+				addTrigrams(postings, secondary[id][f], id);
+			}
+		}
+		Map<String, int[]> trigrams = new HashMap<>(postings.size() * 4 / 3 + 1);
+		postings.forEach((gram, p) -> trigrams.put(gram, Arrays.copyOf(p.ids, p.size)));
+		return new SearchIndex<>(snapshot, primary, secondary, trigrams);
+	}
+
+	/** Lower case without accents, so "Amélie" is found by "amelie". */
+	public static String normalize(String text) {
+		if (text == null || text.isEmpty()) {
+			return "";
+		}
+		String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+		return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+
+	/** @return number of indexed items */
+	public int size() {
+		return items.size();
+	}
+
+	/**
+	 * @return the items matching every term of {@code query}, best first; every
+	 *         item in list order for a blank query
+	 */
+	public List<T> search(String query) {
+		String q = normalize(query).trim();
+		if (q.isEmpty()) {
+			return items;
+		}
+		String[] terms = SPACES.split(q);
+
+		int[] candidates = null;
+		for (String term : terms) {
+			for (int i = 0; i + 3 <= term.length(); i++) {
+				int[] ids = trigrams.getOrDefault(term.substring(i, i + 3), NONE);
+				candidates = candidates == null ? ids : intersect(candidates, ids);
+				if (candidates.length == 0) {
+					return Collections.emptyList();
+				}
+			}
+		}
+
+		List<long[]> hits = new ArrayList<>();
+		int count = candidates == null ? items.size() : candidates.length;
+		for (int c = 0; c < count; c++) {
+			int id = candidates == null ? c : candidates[c];
+			int score = score(id, terms, q);
+			if (score > 0) {
+				hits.add(new long[] { score, primary[id].length(), id });
+			}
+		}
+		hits.sort((a, b) -> a[0] != b[0] ? Long.compare(b[0], a[0])
+				: a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[2], b[2]));
+
+		List<T> result = new ArrayList<>(hits.size());
+		for (long[] hit : hits) {
+			result.add(items.get((int) hit[2]));
+		}
+		return result;
+	}
+
+	// 0 if a term is missing, otherwise the sum of each term's best match
+	private int score(int id, String[] terms, String query) {
+		String title = primary[id];
+		int total = 0;
+		for (String term : terms) {
+			int best = 0;
+			int at = title.indexOf(term);
+			if (at == 0) {
+				best = 60;
+			} else if (at > 0) {
+				best = isWordStart(title, term) ? 45 : 30;
+			}
+			if (best == 0) {
+				for (String field : secondary[id]) {
+					if (field.startsWith(term)) {
+						best = Math.max(best, 15);
+					} else if (field.contains(term)) {
+						best = Math.max(best, 10);
+					}
+				}
+			}
+			if (best == 0) {
+				return 0;
+			}
+			total += best;
+		}
+		// whole query as typed: exact title, then title prefix
+		if (title.equals(query)) {
+			total += 100;
+		} else if (terms.length > 1 && title.startsWith(query)) {
+			total += 40;
+		}
+		return total;
+	}
+
+	private static boolean isWordStart(String text, String term) {
+		for (int at = text.indexOf(term); at >= 0; at = text.indexOf(term, at + 1)) {
+			if (at == 0 || !Character.isLetterOrDigit(text.charAt(at - 1))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void addTrigrams(Map<String, Postings> postings, String text, int id) {
+		for (int i = 0; i + 3 <= text.length(); i++) {
+			postings.computeIfAbsent(text.substring(i, i + 3), k -> new Postings()).add(id);
+		}
+	}
+
+	// both arrays are sorted ascending
+	private static int[] intersect(int[] a, int[] b) {
+		int[] out = new int[Math.min(a.length, b.length)];
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				out[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return n == out.length ? out : Arrays.copyOf(out, n);
+	}
+
+	// growable sorted id list; ids arrive in ascending order
+	private static final class Postings {
+		int[] ids = new int[4];
+		int size;
+
+		void add(int id) {
+			if (size > 0 && ids[size - 1] == id) {
+				return;
+			}
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			ids[size++] = id;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package com.cinemamanager.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of {@link PreparedStatement}s for one physical connection.
+ *
+ * <p>
+ * DAOs keep calling {@code connection.prepareStatement(sql)} and closing the
+ * statement with try-with-resources. When the connection comes from the pool,
+ * the statement they receive is a proxy: closing it clears its parameters and
+ * parks the physical statement in this cache, keyed by SQL text, so the next
+ * call with the same SQL skips parsing and allocation.
+ * </p>
+ *
+ * <p>
+ * A statement is removed from the cache while it is checked out, so two callers
+ * preparing the same SQL never share one statement. Statements whose fetch
+ * size, max rows or timeout were changed are not returned to the cache.
+ * </p>
+ */
+final class StatementCache {
+
+	/** Maximum number of idle statements kept for this connection. */
+	private final int maxSize;
+
+	/** Pool-wide counters, shared by all caches. */
+	private final AtomicLong poolHits;
+	private final AtomicLong poolMisses;
+
+	/** Idle statements in access order (eldest first). */
+	private final LinkedHashMap<Key, PreparedStatement> idle = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** Statements currently handed out. */
+	private final Set<Checkout> inUse = ConcurrentHashMap.newKeySet();
+
+	StatementCache(int maxSize, AtomicLong poolHits, AtomicLong poolMisses) {
+		this.maxSize = maxSize;
+		this.poolHits = poolHits;
+		this.poolMisses = poolMisses;
+	}
+
+	/**
+	 * Returns a cached statement for {@code sql} or prepares a new one.
+	 *
+	 * @param physical          the physical connection
+	 * @param logical           the pooled handle the caller holds
+	 * @param sql               the SQL text
+	 * @param autoGeneratedKeys {@code Statement.RETURN_GENERATED_KEYS} or
+	 *                          {@code NO_GENERATED_KEYS}, or -1 when not given
+	 * @return a statement proxy whose {@code close()} returns it to the cache
+	 */
+	synchronized PreparedStatement prepare(Connection physical, Connection logical, String sql, int autoGeneratedKeys)
+			throws SQLException {
+		Key key = new Key(sql, autoGeneratedKeys);
+		PreparedStatement ps = idle.remove(key);
+		if (ps != null) {
+			poolHits.incrementAndGet();
+		} else {
+			poolMisses.incrementAndGet();
+			ps = autoGeneratedKeys < 0 ? physical.prepareStatement(sql)
+					: physical.prepareStatement(sql, autoGeneratedKeys);
+		}
+
+		Checkout checkout = new Checkout(key, ps, logical);
+		inUse.add(checkout);
+		return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, checkout);
+	}
+
+	/** Takes a statement back after its logical close. */
+	private synchronized void giveBack(Checkout checkout, boolean reusable) {
+		inUse.remove(checkout);
+		if (!reusable || maxSize <= 0) {
+			closeQuietly(checkout.statement);
+			return;
+		}
+
+		PreparedStatement previous = idle.put(checkout.key, checkout.statement);
+		if (previous != null && previous != checkout.statement) {
+			closeQuietly(previous);
+		}
+		Iterator<Map.Entry<Key, PreparedStatement>> it = idle.entrySet().iterator();
+		while (idle.size() > maxSize && it.hasNext()) {
+			closeQuietly(it.next().getValue());
+			it.remove();
+		}
+	}
+
+	/**
+	 * Logically closes statements the caller forgot to close before returning
+	 * the connection to the pool.
+	 */
+	void reclaim() {
+		for (Checkout checkout : new ArrayList<>(inUse)) {
+			checkout.logicalClose();
+		}
+	}
+
+	/** Closes every statement; called when the physical connection is closed. */
+	synchronized void closeAll() {
+		for (Checkout checkout : inUse) {
+			closeQuietly(checkout.statement);
+		}
+		inUse.clear();
+		for (PreparedStatement ps : idle.values()) {
+			closeQuietly(ps);
+		}
+		idle.clear();
+	}
+
+	private static void closeQuietly(AutoCloseable c) {
+		try {
+			c.close();
+		} catch (Exception ignored) {
+		}
+	}
+
+	/** Cache key: SQL text plus the generated-keys flag it was prepared with. */
+	private record Key(String sql, int autoGeneratedKeys) {
+		Key {
+			Objects.requireNonNull(sql);
+		}
+	}
+
+	/** The statement a caller sees while it is checked out. */
+	private final class Checkout implements InvocationHandler {
+		private final Key key;
+		private final PreparedStatement statement;
+		private final Connection logical;
+		private final List<ResultSet> openResults = new ArrayList<>(1);
+		private boolean closed;
+		private boolean dirty;
+
+		Checkout(Key key, PreparedStatement statement, Connection logical) {
+			this.key = key;
+			this.statement = statement;
+			this.logical = logical;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				logicalClose();
+				return null;
+			case "isClosed":
+				return closed || statement.isClosed();
+			case "getConnection":
+				return logical;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "Cached[" + statement + "]";
+			case "setFetchSize":
+			case "setMaxRows":
+			case "setLargeMaxRows":
+			case "setQueryTimeout":
+			case "setFetchDirection":
+			case "setEscapeProcessing":
+			case "setPoolable":
+			case "closeOnCompletion":
+				dirty = true;
+				break;
+			default:
+				break;
+			}
+
+			if (closed) {
+				throw new SQLException("Statement is closed.");
+			}
+			try {
+				Object result = method.invoke(statement, args);
+				if (result instanceof ResultSet rs) {
+					openResults.add(rs);
+				}
+				return result;
+			} catch (InvocationTargetException e) {
+				// a failed statement may be in an odd state; do not reuse it
+				dirty = true;
+				throw e.getCause();
+			}
+		}
+
+		void logicalClose() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+
+			boolean reusable = !dirty;
+			for (ResultSet rs : openResults) {
+				closeQuietly(rs);
+			}
+			openResults.clear();
+			try {
+				statement.clearParameters();
+				statement.clearBatch();
+				statement.clearWarnings();
+			} catch (SQLException e) {
+				reusable = false;
+			}
+			giveBack(this, reusable);
+		}
+	}
+}
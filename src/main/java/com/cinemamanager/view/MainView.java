@@ -53,6 +53,9 @@ public class MainView extends VBox {
 	// Menu item under "Help"
 	private final MenuItem aboutItem = new MenuItem("About");
 
+	// Application controller, created once the scene graph is ready
+	private AppController appController;
+
 	/**
 	 * Constructs the main view.
 	 * 
@@ -99,7 +102,20 @@ public class MainView extends VBox {
 		getChildren().addAll(menuBar, tabPane);
 
 		// Bootstrap the controller AFTER the scene graph is ready
-		Platform.runLater(() -> new AppController(this).start());
+		Platform.runLater(() -> {
+			appController = new AppController(this);
+			appController.start();
+		});
+	}
+
+	/**
+	 * Releases application resources (e.g., pooled database connections). Called
+	 * by {@link com.cinemamanager.MainApp#stop()} when the window closes.
+	 */
+	public void shutdown() {
+		if (appController != null) {
+			appController.stop();
+		}
 	}
 
 	// --- Getters for sub-views (for controller wiring) ---
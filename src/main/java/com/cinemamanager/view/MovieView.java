@@ -1,14 +1,24 @@
 package com.cinemamanager.view;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
 import com.cinemamanager.model.Movie;
+import com.cinemamanager.model.MovieSummary;
+import com.cinemamanager.util.AsyncExecutors;
+import com.cinemamanager.util.ListPatches;
+import com.cinemamanager.util.SearchIndex;
 
+import javafx.animation.PauseTransition;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.geometry.Insets;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -19,6 +29,7 @@ import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 /**
  * A JavaFX view for displaying and editing movies.
@@ -26,7 +37,14 @@ import javafx.scene.layout.VBox;
  * <p>
  * This class provides a table with search functionality and a details panel
  * where users can add, update, or delete movies. The backing data is stored in
- * an observable list with a {@link FilteredList} for live searching.
+ * an observable list; the table shows the ranked results of a
+ * {@link SearchIndex} over title, genre and language.
+ * </p>
+ * 
+ * <p>
+ * The index is rebuilt in the background whenever the list changes. Searches
+ * start once typing pauses for {@value #SEARCH_DELAY_MS} ms and run off the FX
+ * thread; results of an outdated query are dropped.
  * </p>
  * 
  * <p>
@@ -46,7 +64,7 @@ public class MovieView extends VBox {
 	// --- UI components ---
 
 	/** Table displaying movies. */
-	private final TableView<Movie> movieTable = new TableView<>();
+	private final TableView<MovieSummary> movieTable = new TableView<>();
 
 	/** Text field for live searching by title. */
 	private final TextField searchField = new TextField();
@@ -64,9 +82,28 @@ public class MovieView extends VBox {
 	private final Button updateButton = new Button("Update");
 	private final Button deleteButton = new Button("Delete");
 
-	// Backing data
-	private final ObservableList<Movie> masterData = FXCollections.observableArrayList();
-	private final FilteredList<Movie> filteredData = new FilteredList<>(masterData, p -> true);
+	/** Pause in typing after which the search runs. */
+	private static final int SEARCH_DELAY_MS = 120;
+
+	/** Longer pause for server-side search, which costs a query per search. */
+	private static final int SERVER_SEARCH_DELAY_MS = 300;
+
+	// Backing data and the search results shown in the table
+	private final ObservableList<MovieSummary> masterData = FXCollections.observableArrayList();
+	private final ObservableList<MovieSummary> shownData = FXCollections.observableArrayList();
+
+	// Server-side search (null = in-memory mode) and the on-demand description query
+	private Function<String, List<? extends MovieSummary>> serverSearch;
+	private IntFunction<String> descriptionLoader;
+
+	// Search state (FX thread only, except the immutable index itself)
+	private final PauseTransition searchDelay = new PauseTransition(Duration.millis(SEARCH_DELAY_MS));
+	private SearchIndex<MovieSummary> searchIndex = SearchIndex.empty();
+	private boolean indexing;
+	private boolean indexStale;
+	// set by setMovies: the next index replaces the shown rows instead of patching them
+	private boolean reloaded;
+	private int searchGeneration;
 
 	/**
 	 * Constructs the movie view.
@@ -84,33 +121,35 @@ public class MovieView extends VBox {
 		header.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
 
 		// --- Search box setup ---
-		searchField.setPromptText("Search by title...");
-		searchField.textProperty().addListener((obs, old, val) -> {
-			String query = (val == null) ? "" : val.trim().toLowerCase();
-			filteredData.setPredicate(movie -> query.isEmpty() || movie.getTitle().toLowerCase().contains(query));
+		searchField.setPromptText("Search by title, genre or language...");
+		searchDelay.setOnFinished(e -> runSearch(true));
+		searchField.textProperty().addListener((obs, old, val) -> searchDelay.playFromStart());
+		masterData.addListener((ListChangeListener<MovieSummary>) c -> {
+			patchShown(c);
+			rebuildIndex();
 		});
 
 		movieTable.setPlaceholder(new Label("No movies found (or not loaded yet)."));
 
 		// --- Table setup ---
-		TableColumn<Movie, Number> idCol = new TableColumn<>("ID");
+		TableColumn<MovieSummary, Number> idCol = new TableColumn<>("ID");
 		idCol.setPrefWidth(50);
 		idCol.setCellValueFactory(data -> new SimpleIntegerProperty(data.getValue().getMovieId()));
 
-		TableColumn<Movie, String> titleCol = new TableColumn<>("Title");
+		TableColumn<MovieSummary, String> titleCol = new TableColumn<>("Title");
 		titleCol.setPrefWidth(200);
 		titleCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getTitle()));
 
-		TableColumn<Movie, String> genreCol = new TableColumn<>("Genre");
+		TableColumn<MovieSummary, String> genreCol = new TableColumn<>("Genre");
 		genreCol.setPrefWidth(100);
 		genreCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getGenre()));
 
-		TableColumn<Movie, String> langCol = new TableColumn<>("Language");
+		TableColumn<MovieSummary, String> langCol = new TableColumn<>("Language");
 		langCol.setPrefWidth(100);
 		langCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getLanguage()));
 
 		movieTable.getColumns().addAll(idCol, titleCol, genreCol, langCol);
-		movieTable.setItems(filteredData);
+		movieTable.setItems(shownData);
 		movieTable.setPrefWidth(500);
 		movieTable.setPrefHeight(400);
 
@@ -163,24 +202,204 @@ public class MovieView extends VBox {
 	}
 
 	/**
-	 * Replaces the current list of movies with a new list.
+	 * Replaces the current list of movies with a new list. Summaries are enough:
+	 * the description of a summary is loaded when it is selected.
 	 * 
 	 * @param movies list of movies to display
 	 */
-	public void setMovies(List<Movie> movies) {
+	public void setMovies(List<? extends MovieSummary> movies) {
+		reloaded = true;
 		masterData.setAll(movies);
 	}
 
+	/**
+	 * Returns the live list behind the table, for adding, replacing or removing
+	 * single movies without reloading all of them.
+	 * 
+	 * @return the unfiltered movie list
+	 */
+	public ObservableList<MovieSummary> getMovies() {
+		return masterData;
+	}
+
+	/**
+	 * Sets the query that loads a movie's description when a summary row is
+	 * selected. It is called on a background thread and returns {@code null} if
+	 * the movie is gone.
+	 * 
+	 * @param loader loads a description by movie ID
+	 */
+	public void setDescriptionLoader(IntFunction<String> loader) {
+		this.descriptionLoader = loader;
+	}
+
+	/**
+	 * Switches the view to server-side mode for catalogues too big to load: the
+	 * table shows the results of {@code search}, called on a background thread.
+	 * 
+	 * @param search runs a search for the typed text
+	 */
+	public void useServerSearch(Function<String, List<? extends MovieSummary>> search) {
+		this.serverSearch = search;
+		masterData.clear();
+		searchDelay.setDuration(Duration.millis(SERVER_SEARCH_DELAY_MS));
+		runSearch(true);
+	}
+
+	/**
+	 * @return {@code true} if the table shows server-side search results
+	 */
+	public boolean isServerSearch() {
+		return serverSearch != null;
+	}
+
+	/**
+	 * Runs the current search again, e.g. after a movie was changed in
+	 * server-side mode.
+	 */
+	public void refreshSearch() {
+		runSearch(true);
+	}
+
+	// --- Private helpers for search ---
+
+	/**
+	 * Applies a change of the movie list to the shown rows in place, so adding,
+	 * updating or deleting one movie keeps the selection and scroll position.
+	 * While a search is typed, a new movie is only shown once the rebuilt index
+	 * says it matches.
+	 */
+	private void patchShown(ListChangeListener.Change<? extends MovieSummary> c) {
+		if (reloaded || serverSearch != null) {
+			return;
+		}
+		boolean showAll = searchField.getText().isBlank();
+		while (c.next()) {
+			Set<Integer> addedIds = new HashSet<>();
+			for (MovieSummary added : c.getAddedSubList()) {
+				addedIds.add(added.getMovieId());
+				if (showAll || shownData.stream().anyMatch(m -> m.getMovieId() == added.getMovieId())) {
+					ListPatches.upsert(shownData, added, MovieSummary::getMovieId);
+				}
+			}
+			for (MovieSummary removed : c.getRemoved()) {
+				if (!addedIds.contains(removed.getMovieId())) {
+					ListPatches.remove(shownData, removed.getMovieId(), MovieSummary::getMovieId);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rebuilds the search index from the current list in the background; changes
+	 * arriving meanwhile trigger one more rebuild afterwards.
+	 */
+	private void rebuildIndex() {
+		if (serverSearch != null) {
+			return;
+		}
+		if (indexing) {
+			indexStale = true;
+			return;
+		}
+		indexing = true;
+		List<MovieSummary> snapshot = List.copyOf(masterData);
+		AsyncExecutors.supply(() -> SearchIndex.build(snapshot, MovieSummary::getTitle, MovieSummary::getGenre,
+				MovieSummary::getLanguage))
+				.whenComplete((index, ex) -> {
+					indexing = false;
+					if (ex != null) {
+						ex.printStackTrace();
+						reloaded = false;
+					} else {
+						searchIndex = index;
+					}
+					if (indexStale) {
+						indexStale = false;
+						rebuildIndex();
+					} else if (ex == null && (reloaded || !searchField.getText().isBlank())) {
+						// after a patch the rows are already right unless a search is typed
+						runSearch(reloaded);
+						reloaded = false;
+					}
+				});
+	}
+
+	/**
+	 * Searches the current index, or the server, for the text in the search field.
+	 * 
+	 * @param replace show exactly the results; otherwise only drop rows that no
+	 *                longer match and append new matches, keeping the rest in place
+	 */
+	private void runSearch(boolean replace) {
+		int generation = ++searchGeneration;
+		SearchIndex<MovieSummary> index = searchIndex;
+		Function<String, List<? extends MovieSummary>> server = serverSearch;
+		String query = searchField.getText();
+		AsyncExecutors.<List<? extends MovieSummary>>supply(
+				() -> server != null ? server.apply(query) : index.search(query)).whenComplete((results, ex) -> {
+			if (ex != null) {
+				ex.printStackTrace();
+			} else if (generation == searchGeneration && replace) {
+				shownData.setAll(results);
+			} else if (generation == searchGeneration) {
+				mergeShown(results);
+			}
+		});
+	}
+
+	private void mergeShown(List<? extends MovieSummary> results) {
+		Set<Integer> resultIds = new HashSet<>();
+		for (MovieSummary m : results) {
+			resultIds.add(m.getMovieId());
+		}
+		shownData.removeIf(m -> !resultIds.contains(m.getMovieId()));
+		Set<Integer> shownIds = new HashSet<>();
+		for (MovieSummary m : shownData) {
+			shownIds.add(m.getMovieId());
+		}
+		List<MovieSummary> added = new ArrayList<>();
+		for (MovieSummary m : results) {
+			if (shownIds.add(m.getMovieId())) {
+				added.add(m);
+			}
+		}
+		shownData.addAll(added);
+	}
+
 	// --- Private helpers for detail panel ---
 
 	/**
-	 * Displays the details of a selected movie in the input fields.
+	 * Displays the details of a selected movie in the input fields. For a
+	 * summary row the description is loaded in the background; Update stays
+	 * disabled until it has arrived, so a missing description is never saved
+	 * over the real one.
 	 * 
 	 * @param m the selected movie
 	 */
-	private void showMovieDetails(Movie m) {
+	private void showMovieDetails(MovieSummary m) {
 		titleField.setText(m.getTitle());
-		descriptionArea.setText(m.getDescription());
+		if (m instanceof Movie full) {
+			updateButton.setDisable(false);
+			descriptionArea.setText(full.getDescription());
+		} else {
+			descriptionArea.clear();
+			if (descriptionLoader != null) {
+				IntFunction<String> loader = descriptionLoader;
+				updateButton.setDisable(true);
+				AsyncExecutors.supply(() -> loader.apply(m.getMovieId())).whenComplete((description, ex) -> {
+					if (movieTable.getSelectionModel().getSelectedItem() != m) {
+						return;
+					}
+					if (ex != null) {
+						ex.printStackTrace();
+					} else if (description != null) {
+						descriptionArea.setText(description);
+						updateButton.setDisable(false);
+					}
+				});
+			}
+		}
 		genreField.setText(m.getGenre());
 		languageField.setText(m.getLanguage());
 		durationField.setText(String.valueOf(m.getDuration()));
@@ -191,6 +410,7 @@ public class MovieView extends VBox {
 	 * Clears all detail input fields.
 	 */
 	private void clearDetails() {
+		updateButton.setDisable(false);
 		titleField.clear();
 		descriptionArea.clear();
 		genreField.clear();
@@ -204,7 +424,7 @@ public class MovieView extends VBox {
 	/**
 	 * @return the movie table
 	 */
-	public TableView<Movie> getMovieTable() {
+	public TableView<MovieSummary> getMovieTable() {
 		return movieTable;
 	}
 
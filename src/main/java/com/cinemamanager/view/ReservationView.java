@@ -2,11 +2,17 @@ package com.cinemamanager.view;
 
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
 import com.cinemamanager.model.Customer;
 import com.cinemamanager.model.Reservation;
 import com.cinemamanager.model.Screening;
+import com.cinemamanager.model.ScreeningDetails;
+import com.cinemamanager.util.AsyncExecutors;
+import com.cinemamanager.util.KeyedObservableList;
 
+import javafx.animation.PauseTransition;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -22,15 +28,22 @@ import javafx.scene.control.TableView;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
 
 public class ReservationView extends VBox {
 
 	// Top controls (selection/form)
 	private final ComboBox<Customer> customerCombo = new ComboBox<>();
 	private final ComboBox<Screening> screeningCombo = new ComboBox<>();
+	// combo items indexed by id, so a reservation's customer/screening is selected in O(1)
+	private final KeyedObservableList<Customer> customerItems = new KeyedObservableList<>(Customer::getId);
+	private final KeyedObservableList<Screening> screeningItems = new KeyedObservableList<>(
+			Screening::getScreeningId);
 
 	// Action buttons
 	private final Button addButton = new Button("Add");
+	private final Button holdButton = new Button("Hold Seat");
 	private final Button updateButton = new Button("Update");
 	private final Button deleteButton = new Button("Delete");
 	private final Button refreshButton = new Button("Refresh Table");
@@ -39,8 +52,15 @@ public class ReservationView extends VBox {
 	private final TableView<Reservation> reservationTable = new TableView<>();
 	private final ObservableList<Reservation> reservationData = FXCollections.observableArrayList();
 
-	// Customers list for lookup
-	private List<Customer> customers;
+	// Customer typeahead: searched after a pause in typing, at least two characters
+	private static final int CUSTOMER_SEARCH_DELAY_MS = 200;
+	private static final int CUSTOMER_SEARCH_MIN_CHARS = 2;
+	private final PauseTransition customerSearchDelay = new PauseTransition(Duration.millis(CUSTOMER_SEARCH_DELAY_MS));
+	private Function<String, List<Customer>> customerSearch;
+	private int customerSearchGeneration;
+
+	// Customer id -> display name for the table; null (or a null result) shows the id
+	private IntFunction<String> customerNames;
 
 	// Date formatting
 	private static final DateTimeFormatter DT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
@@ -52,29 +72,43 @@ public class ReservationView extends VBox {
 		Label header = new Label("Reservations");
 		header.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
 
-		// --- Customer picker
-		customerCombo.setPromptText("Select customer");
+		// --- Customer picker: type a last name, "first last" or e-mail, pick a match
+		customerCombo.setPromptText("Type a name or e-mail");
 		customerCombo.setMinWidth(260);
-		customerCombo.setCellFactory(cb -> new ListCell<>() {
+		customerCombo.setEditable(true);
+		customerCombo.setItems(customerItems);
+		customerCombo.setConverter(new StringConverter<>() {
 			@Override
-			protected void updateItem(Customer c, boolean empty) {
-				super.updateItem(c, empty);
-				setText(empty || c == null ? null
-						: c.getFirstName() + " " + c.getLastName() + " (" + c.getEmail() + ")");
+			public String toString(Customer c) {
+				return c == null ? "" : formatCustomer(c);
+			}
+
+			@Override
+			public Customer fromString(String text) {
+				return customerCombo.getItems().stream().filter(c -> formatCustomer(c).equals(text)).findFirst()
+						.orElse(null);
 			}
 		});
-		customerCombo.setButtonCell(new ListCell<>() {
+		customerCombo.setCellFactory(cb -> new ListCell<>() {
 			@Override
 			protected void updateItem(Customer c, boolean empty) {
 				super.updateItem(c, empty);
-				setText(empty || c == null ? "Select customer"
-						: c.getFirstName() + " " + c.getLastName() + " (" + c.getEmail() + ")");
+				setText(empty || c == null ? null : formatCustomer(c));
 			}
 		});
+		customerCombo.getEditor().textProperty().addListener((obs, old, text) -> {
+			Customer current = customerCombo.getValue();
+			// the editor shows the picked customer: nothing was typed
+			if (current == null || !formatCustomer(current).equals(text)) {
+				customerSearchDelay.playFromStart();
+			}
+		});
+		customerSearchDelay.setOnFinished(e -> searchCustomers());
 
 		// --- Screening picker
 		screeningCombo.setPromptText("Select screening");
 		screeningCombo.setMinWidth(360);
+		screeningCombo.setItems(screeningItems);
 		screeningCombo.setCellFactory(cb -> new ListCell<>() {
 			@Override
 			protected void updateItem(Screening s, boolean empty) {
@@ -91,7 +125,7 @@ public class ReservationView extends VBox {
 		});
 
 		// --- Actions
-		HBox actions = new HBox(10, addButton, updateButton, deleteButton);
+		HBox actions = new HBox(10, holdButton, addButton, updateButton, deleteButton);
 
 		// --- Form layout (top right)
 		GridPane form = new GridPane();
@@ -112,30 +146,37 @@ public class ReservationView extends VBox {
 
 		TableColumn<Reservation, Number> idCol = new TableColumn<>("ID");
 		idCol.setPrefWidth(70);
-		idCol.setCellValueFactory(c -> new SimpleIntegerProperty(c.getValue().getReservationId()));
+		// rows are null while their page is loading (paged items), so every factory checks
+		idCol.setCellValueFactory(
+				c -> c.getValue() == null ? null : new SimpleIntegerProperty(c.getValue().getReservationId()));
 
 		TableColumn<Reservation, String> customerNameCol = new TableColumn<>("Customer");
 		customerNameCol.setPrefWidth(200);
 		customerNameCol.setCellValueFactory(c -> {
-			int customerId = c.getValue().getCustomerId();
-			if (customers != null) {
-				return new SimpleStringProperty(customers.stream().filter(cust -> cust.getId() == customerId)
-						.map(cust -> cust.getFirstName() + " " + cust.getLastName()).findFirst().orElse("Unknown"));
-			} else {
-				return new SimpleStringProperty("Unknown");
+			if (c.getValue() == null) {
+				return null;
 			}
+			int customerId = c.getValue().getCustomerId();
+			String name = customerNames != null ? customerNames.apply(customerId) : null;
+			return new SimpleStringProperty(name != null ? name : "Customer #" + customerId);
 		});
 
 		TableColumn<Reservation, Number> screeningIdCol = new TableColumn<>("Screening ID");
 		screeningIdCol.setPrefWidth(110);
-		screeningIdCol.setCellValueFactory(c -> new SimpleIntegerProperty(c.getValue().getScreeningId()));
+		screeningIdCol.setCellValueFactory(
+				c -> c.getValue() == null ? null : new SimpleIntegerProperty(c.getValue().getScreeningId()));
 
 		TableColumn<Reservation, String> timeCol = new TableColumn<>("Reservation Time");
 		timeCol.setPrefWidth(180);
-		timeCol.setCellValueFactory(c -> new SimpleStringProperty(
-				c.getValue().getReservationTime() != null ? c.getValue().getReservationTime().toString() : ""));
+		timeCol.setCellValueFactory(c -> c.getValue() == null ? null
+				: new SimpleStringProperty(
+						c.getValue().getReservationTime() != null ? c.getValue().getReservationTime().toString() : ""));
 
 		reservationTable.getColumns().addAll(idCol, customerNameCol, screeningIdCol, timeCol);
+		// the database keeps the order (newest first); a paged list cannot be sorted client-side
+		reservationTable.getColumns().forEach(col -> col.setSortable(false));
+		// fixed row height lets the virtual flow size the scrollbar without measuring rows
+		reservationTable.setFixedCellSize(24);
 
 		// --- Table with refresh button below it
 		HBox refreshBar = new HBox(refreshButton);
@@ -145,25 +186,46 @@ public class ReservationView extends VBox {
 		// --- Layout: table + refresh (left), form (right)
 		HBox center = new HBox(20, tableWithRefresh, rightPane);
 		getChildren().addAll(header, center);
+	}
 
-		// Reflect selected row -> form
-		reservationTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSel, sel) -> {
-			if (sel == null) {
-				clearForm();
+	// --- Helpers
+	private static String formatCustomer(Customer c) {
+		return c.getFirstName() + " " + c.getLastName() + " (" + c.getEmail() + ")";
+	}
+
+	// runs the customer search for the editor text; results of older searches are dropped
+	private void searchCustomers() {
+		String text = customerCombo.getEditor().getText().trim();
+		int generation = ++customerSearchGeneration;
+		if (customerSearch == null || text.length() < CUSTOMER_SEARCH_MIN_CHARS) {
+			customerCombo.hide();
+			return;
+		}
+		Function<String, List<Customer>> search = customerSearch;
+		AsyncExecutors.supply(() -> search.apply(text)).whenComplete((matches, ex) -> {
+			if (ex != null) {
+				ex.printStackTrace();
+				return;
+			}
+			if (generation != customerSearchGeneration) {
 				return;
 			}
-			if (sel.getCustomerId() > 0 && customers != null) {
-				customers.stream().filter(cust -> cust.getId() == sel.getCustomerId()).findFirst()
-						.ifPresent(cust -> customerCombo.getSelectionModel().select(cust));
+			// replacing the items may reset the editor; keep what the user typed
+			String typed = customerCombo.getEditor().getText();
+			int caret = customerCombo.getEditor().getCaretPosition();
+			customerItems.setAll(matches);
+			if (!typed.equals(customerCombo.getEditor().getText())) {
+				customerCombo.getEditor().setText(typed);
+				customerCombo.getEditor().positionCaret(caret);
 			}
-			if (sel.getScreeningId() > 0) {
-				screeningCombo.getItems().stream().filter(s -> s.getScreeningId() == sel.getScreeningId()).findFirst()
-						.ifPresent(s -> screeningCombo.getSelectionModel().select(s));
+			if (matches.isEmpty()) {
+				customerCombo.hide();
+			} else if (customerCombo.getEditor().isFocused()) {
+				customerCombo.show();
 			}
 		});
 	}
 
-	// --- Helpers
 	private String formatScreeningForCombo(Screening s, boolean empty) {
 		if (empty || s == null)
 			return null;
@@ -172,6 +234,10 @@ public class ReservationView extends VBox {
 		String end = s.getEndTime() == null ? "?" : DT.format(s.getEndTime());
 
 		// Better label: "Movie X @ Hall Y (start → end)"
+		if (s instanceof ScreeningDetails d) {
+			return d.getMovieTitle() + " @ " + d.getHallName() + " (" + start + " → " + end + ") " + d.getSeatsSold()
+					+ "/" + d.getHallCapacity();
+		}
 		return "Movie #" + s.getMovieId() + " @ Hall #" + s.getHallId() + " (" + start + " → " + end + ")";
 	}
 
@@ -180,21 +246,61 @@ public class ReservationView extends VBox {
 		reservationData.setAll(reservations);
 	}
 
-	public void setCustomers(List<Customer> customers) {
-		this.customers = customers;
-		customerCombo.setItems(FXCollections.observableArrayList(customers));
-		if (!customers.isEmpty())
-			customerCombo.getSelectionModel().selectFirst();
+	/**
+	 * Sets the typeahead query of the customer picker; it is called on a
+	 * background thread with the typed text.
+	 */
+	public void setCustomerSearch(Function<String, List<Customer>> search) {
+		this.customerSearch = search;
+	}
+
+	/**
+	 * Sets the id -> name lookup of the customer column. It is called for every
+	 * visible cell on the FX thread, so it must not query the database.
+	 */
+	public void setCustomerNames(IntFunction<String> names) {
+		this.customerNames = names;
+		reservationTable.refresh();
+	}
+
+	/** Shows {@code customer} as the picked customer, e.g. for a selected reservation. */
+	public void selectCustomer(Customer customer) {
+		if (customer != null && customerItems.indexOfKey(customer.getId()) < 0) {
+			customerItems.setAll(customer);
+		}
+		customerCombo.setValue(customer);
+	}
+
+	/**
+	 * Picks the customer with the given id if it is among the picker's items.
+	 *
+	 * @return {@code false} if it is not, so the caller has to load it
+	 */
+	public boolean selectCustomer(int customerId) {
+		Customer customer = customerItems.getByKey(customerId);
+		if (customer == null) {
+			return false;
+		}
+		customerCombo.setValue(customer);
+		return true;
 	}
 
-	public void setScreenings(List<Screening> screenings) {
-		screeningCombo.setItems(FXCollections.observableArrayList(screenings));
+	/** Picks the screening with the given id, if the combo lists it. */
+	public void selectScreening(int screeningId) {
+		int index = screeningItems.indexOfKey(screeningId);
+		if (index >= 0) {
+			screeningCombo.getSelectionModel().select(index);
+		}
+	}
+
+	public void setScreenings(List<? extends Screening> screenings) {
+		screeningItems.setAll(screenings);
 		if (!screenings.isEmpty())
 			screeningCombo.getSelectionModel().selectFirst();
 	}
 
 	public Customer getSelectedCustomer() {
-		return customerCombo.getSelectionModel().getSelectedItem();
+		return customerCombo.getValue();
 	}
 
 	public Screening getSelectedScreening() {
@@ -202,7 +308,9 @@ public class ReservationView extends VBox {
 	}
 
 	public void clearForm() {
-		customerCombo.getSelectionModel().clearSelection();
+		customerCombo.setValue(null);
+		customerCombo.getEditor().clear();
+		customerItems.clear();
 		screeningCombo.getSelectionModel().clearSelection();
 		reservationTable.getSelectionModel().clearSelection();
 	}
@@ -212,6 +320,10 @@ public class ReservationView extends VBox {
 		return addButton;
 	}
 
+	public Button getHoldButton() {
+		return holdButton;
+	}
+
 	public Button getUpdateButton() {
 		return updateButton;
 	}
@@ -0,0 +1,53 @@
+package com.cinemamanager.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/** Runs a task on many threads at once, for the concurrency tests. */
+public final class Concurrently {
+
+	/** Task {@code i} of a concurrent run. */
+	public interface Task<T> {
+		T run(int i) throws Exception;
+	}
+
+	private Concurrently() {
+	}
+
+	/**
+	 * Runs tasks {@code 0 .. threads - 1}, each on its own thread, all released
+	 * at the same moment.
+	 *
+	 * @return the results in task order
+	 * @throws Exception the first task failure
+	 */
+	public static <T> List<T> run(int threads, Task<T> task) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<T>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				int n = i;
+				Callable<T> call = () -> {
+					start.await();
+					return task.run(n);
+				};
+				futures.add(pool.submit(call));
+			}
+			start.countDown();
+			List<T> results = new ArrayList<>();
+			for (Future<T> f : futures) {
+				results.add(f.get(60, TimeUnit.SECONDS));
+			}
+			return results;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
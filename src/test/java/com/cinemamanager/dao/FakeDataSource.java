@@ -0,0 +1,236 @@
+package com.cinemamanager.dao;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * A {@link DataSource} without a database behind it, for running
+ * {@link TransactionManager} and the fake DAOs in tests.
+ *
+ * <p>
+ * Each connection keeps an undo log of the writes the fake DAOs made through
+ * it and the row locks it took. Commit forgets the log, rollback replays it
+ * backwards (down to a savepoint, if given), and both release the locks, like
+ * an InnoDB transaction. In
+ * auto-commit mode every write is final and a lock ends with the statement.
+ * Writes are visible to other connections right away (there is no isolation);
+ * row locks are what keeps check-then-write sequences apart.
+ * </p>
+ */
+public final class FakeDataSource implements DataSource {
+
+	private static final long LOCK_TIMEOUT_SECONDS = 30;
+
+	private final Map<Object, ReentrantLock> rowLocks = new ConcurrentHashMap<>();
+
+	@Override
+	public Connection getConnection() {
+		return new FakeConnection().proxy;
+	}
+
+	/**
+	 * Runs {@code op} on the connection {@code dataSource} hands out, i.e. the
+	 * current transaction's connection or a fresh auto-commit one.
+	 */
+	static <T> T withConnection(DataSource dataSource, Function<FakeConnection, T> op) {
+		try (Connection c = dataSource.getConnection()) {
+			return op.apply(c.unwrap(FakeConnection.class));
+		} catch (SQLException e) {
+			throw new DataAccessException(e.getMessage(), e);
+		}
+	}
+
+	/** One fake connection; reached from a {@link Connection} via {@code unwrap}. */
+	public final class FakeConnection implements InvocationHandler {
+		private final Connection proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, this);
+		private final Deque<Runnable> undo = new ArrayDeque<>();
+		private final List<ReentrantLock> locks = new ArrayList<>();
+		private boolean autoCommit = true;
+		private int isolation = Connection.TRANSACTION_REPEATABLE_READ;
+		private boolean closed;
+
+		/** Records how to undo a write; forgotten on commit, run on rollback. */
+		public void onRollback(Runnable action) {
+			if (!autoCommit) {
+				undo.push(action);
+			}
+		}
+
+		/**
+		 * Locks a row (any key, e.g. {@code "hall:1"}) until the transaction ends,
+		 * like {@code SELECT ... FOR UPDATE}. Does nothing in auto-commit mode.
+		 */
+		public void lock(Object row) {
+			if (autoCommit) {
+				return;
+			}
+			ReentrantLock lock = rowLocks.computeIfAbsent(row, r -> new ReentrantLock());
+			if (lock.isHeldByCurrentThread()) {
+				return;
+			}
+			try {
+				if (!lock.tryLock(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+					throw new DataAccessException("Lock wait timeout exceeded on " + row, null);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new DataAccessException("Interrupted while waiting for " + row, e);
+			}
+			locks.add(lock);
+		}
+
+		@Override
+		public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "unwrap":
+				return this;
+			case "isWrapperFor":
+				return args[0] == FakeConnection.class;
+			case "getAutoCommit":
+				return autoCommit;
+			case "setAutoCommit":
+				if (!autoCommit && (Boolean) args[0]) {
+					commit();
+				}
+				autoCommit = (Boolean) args[0];
+				return null;
+			case "getTransactionIsolation":
+				return isolation;
+			case "setTransactionIsolation":
+				isolation = (Integer) args[0];
+				return null;
+			case "commit":
+				commit();
+				return null;
+			case "rollback":
+				if (args != null) {
+					rollbackTo(((UndoMark) args[0]).depth);
+				} else {
+					rollback();
+				}
+				return null;
+			case "setSavepoint":
+				return new UndoMark(undo.size());
+			case "releaseSavepoint":
+				return null;
+			case "close":
+				if (!autoCommit) {
+					rollback();
+				}
+				closed = true;
+				return null;
+			case "isClosed":
+				return closed;
+			case "isValid":
+				return !closed;
+			case "equals":
+				return p == args[0];
+			case "hashCode":
+				return System.identityHashCode(p);
+			case "toString":
+				return "FakeConnection@" + Integer.toHexString(System.identityHashCode(p));
+			default:
+				throw new SQLFeatureNotSupportedException(method.getName());
+			}
+		}
+
+		private void commit() {
+			undo.clear();
+			unlockAll();
+		}
+
+		private void rollback() {
+			rollbackTo(0);
+			unlockAll();
+		}
+
+		private void rollbackTo(int depth) {
+			while (undo.size() > depth) {
+				undo.pop().run();
+			}
+		}
+
+		private void unlockAll() {
+			for (ReentrantLock lock : locks) {
+				lock.unlock();
+			}
+			locks.clear();
+		}
+	}
+
+	/** A savepoint: how long the undo log was when it was set. */
+	private static final class UndoMark implements Savepoint {
+		final int depth;
+
+		UndoMark(int depth) {
+			this.depth = depth;
+		}
+
+		@Override
+		public int getSavepointId() {
+			return depth;
+		}
+
+		@Override
+		public String getSavepointName() {
+			return "undo-" + depth;
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) {
+		return getConnection();
+	}
+
+	@Override
+	public PrintWriter getLogWriter() {
+		return null;
+	}
+
+	@Override
+	public void setLogWriter(PrintWriter out) {
+	}
+
+	@Override
+	public void setLoginTimeout(int seconds) {
+	}
+
+	@Override
+	public int getLoginTimeout() {
+		return 0;
+	}
+
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		throw new SQLException("Not a wrapper");
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) {
+		return false;
+	}
+}
@@ -0,0 +1,72 @@
+package com.cinemamanager.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import com.cinemamanager.model.Hall;
+
+/** In-memory {@link HallDao} on a {@link FakeDataSource}. */
+public final class FakeHallDao implements HallDao {
+
+	private final DataSource dataSource;
+	private final Map<Integer, Hall> rows = new ConcurrentHashMap<>();
+
+	/** @param dataSource a {@link FakeDataSource}, or a transaction manager's view of one */
+	public FakeHallDao(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	/** Adds a hall with an explicit seat layout and returns it. */
+	public Hall add(int hallId, int seatRows, int seatsPerRow) {
+		Hall hall = new Hall();
+		hall.setHallId(hallId);
+		hall.setName("Hall " + hallId);
+		hall.setSeatRows(seatRows);
+		hall.setSeatsPerRow(seatsPerRow);
+		hall.setCapacity(seatRows * seatsPerRow);
+		rows.put(hallId, hall);
+		return hall;
+	}
+
+	@Override
+	public Hall findById(int id) {
+		return rows.get(id);
+	}
+
+	@Override
+	public Hall lockById(int id) {
+		return FakeDataSource.withConnection(dataSource, c -> {
+			c.lock("hall:" + id);
+			return rows.get(id);
+		});
+	}
+
+	@Override
+	public List<Hall> findAll() {
+		return new ArrayList<>(rows.values());
+	}
+
+	@Override
+	public Page<Hall> findPage(Hall after, int limit) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void save(Hall hall) {
+		rows.put(hall.getHallId(), hall);
+	}
+
+	@Override
+	public void update(Hall hall) {
+		rows.put(hall.getHallId(), hall);
+	}
+
+	@Override
+	public void delete(int id) {
+		rows.remove(id);
+	}
+}
@@ -0,0 +1,90 @@
+package com.cinemamanager.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import com.cinemamanager.model.Movie;
+import com.cinemamanager.model.MovieSummary;
+
+/** In-memory {@link MovieDao} for lookups by id. */
+public final class FakeMovieDao implements MovieDao {
+
+	private final Map<Integer, Movie> rows = new ConcurrentHashMap<>();
+
+	/** Adds a movie of the given length and returns it. */
+	public Movie add(int movieId, int durationMinutes) {
+		Movie m = new Movie();
+		m.setMovieId(movieId);
+		m.setTitle("Movie " + movieId);
+		m.setDuration(durationMinutes);
+		rows.put(movieId, m);
+		return m;
+	}
+
+	@Override
+	public Movie findById(int id) {
+		return rows.get(id);
+	}
+
+	@Override
+	public List<Movie> findAll() {
+		return new ArrayList<>(rows.values());
+	}
+
+	@Override
+	public List<MovieSummary> findAllSummaries() {
+		return new ArrayList<>(rows.values());
+	}
+
+	@Override
+	public String findDescription(int id) {
+		Movie m = rows.get(id);
+		return m == null ? null : m.getDescription();
+	}
+
+	@Override
+	public Page<Movie> findPage(Movie after, int limit) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public int count() {
+		return rows.size();
+	}
+
+	@Override
+	public List<MovieSummary> search(String query, int limit, int offset) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Stream<Movie> streamAll() {
+		return findAll().stream();
+	}
+
+	@Override
+	public Movie save(Movie movie) {
+		rows.put(movie.getMovieId(), movie);
+		return movie;
+	}
+
+	@Override
+	public void saveAll(Collection<Movie> movies, int batchSize) {
+		movies.forEach(this::save);
+	}
+
+	@Override
+	public Movie update(Movie movie) {
+		rows.put(movie.getMovieId(), movie);
+		return movie;
+	}
+
+	@Override
+	public boolean delete(int id) {
+		return rows.remove(id) != null;
+	}
+}
@@ -0,0 +1,108 @@
+package com.cinemamanager.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import com.cinemamanager.model.Reservation;
+import com.cinemamanager.model.Seat;
+
+/**
+ * In-memory {@link ReservationSeatDao} on a {@link FakeDataSource}. Like the
+ * primary key {@code (screening_id, seat_row, seat_number)}, selling a seat
+ * twice fails with a {@link DataAccessException}.
+ */
+public final class FakeReservationSeatDao implements ReservationSeatDao {
+
+	private record Key(int screeningId, Seat seat) {
+	}
+
+	private final DataSource dataSource;
+	// seat of a screening -> reservation id
+	private final Map<Key, Integer> rows = new LinkedHashMap<>();
+
+	/** @param dataSource a {@link FakeDataSource}, or a transaction manager's view of one */
+	public FakeReservationSeatDao(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	/** @return the number of seats sold for a screening */
+	public synchronized int count(int screeningId) {
+		return findByScreening(screeningId).size();
+	}
+
+	@Override
+	public synchronized List<Seat> findByScreening(int screeningId) {
+		List<Seat> seats = new ArrayList<>();
+		rows.keySet().stream().filter(k -> k.screeningId() == screeningId).forEach(k -> seats.add(k.seat()));
+		return seats;
+	}
+
+	@Override
+	public synchronized List<Seat> findByReservation(int reservationId) {
+		List<Seat> seats = new ArrayList<>();
+		rows.forEach((k, id) -> {
+			if (id == reservationId) {
+				seats.add(k.seat());
+			}
+		});
+		return seats;
+	}
+
+	@Override
+	public void saveAll(Reservation reservation, Collection<Seat> seats) {
+		FakeDataSource.withConnection(dataSource, c -> {
+			synchronized (this) {
+				List<Key> keys = new ArrayList<>();
+				for (Seat seat : seats) {
+					keys.add(new Key(reservation.getScreeningId(), seat));
+				}
+				for (Key key : keys) {
+					if (rows.containsKey(key)) {
+						throw new DataAccessException("Duplicate entry '" + key + "' for key 'PRIMARY'", null);
+					}
+				}
+				for (Key key : keys) {
+					rows.put(key, reservation.getReservationId());
+				}
+				c.onRollback(() -> removeAll(keys));
+			}
+			return null;
+		});
+	}
+
+	@Override
+	public void saveAll(Map<Reservation, ? extends Collection<Seat>> seatsByReservation) {
+		seatsByReservation.forEach(this::saveAll);
+	}
+
+	@Override
+	public void deleteByReservation(int reservationId) {
+		FakeDataSource.withConnection(dataSource, c -> {
+			synchronized (this) {
+				Map<Key, Integer> removed = new LinkedHashMap<>();
+				rows.entrySet().removeIf(e -> {
+					if (e.getValue() == reservationId) {
+						removed.put(e.getKey(), e.getValue());
+						return true;
+					}
+					return false;
+				});
+				c.onRollback(() -> putAll(removed));
+			}
+			return null;
+		});
+	}
+
+	private synchronized void removeAll(List<Key> keys) {
+		keys.forEach(rows::remove);
+	}
+
+	private synchronized void putAll(Map<Key, Integer> removed) {
+		rows.putAll(removed);
+	}
+}
@@ -0,0 +1,123 @@
+package com.cinemamanager.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import com.cinemamanager.model.Reservation;
+
+/**
+ * In-memory {@link ReservationsDao} on a {@link FakeDataSource}. Like the
+ * unique key on {@code request_token}, a second insert with the same token
+ * fails with a {@link DataAccessException}.
+ */
+public final class FakeReservationsDao implements ReservationsDao {
+
+	private final DataSource dataSource;
+	private final Map<Integer, Reservation> rows = new LinkedHashMap<>();
+	private final Map<String, Reservation> byToken = new HashMap<>();
+	private int nextId = 1;
+	private volatile Runnable beforeInsert = () -> {
+	};
+
+	/** @param dataSource a {@link FakeDataSource}, or a transaction manager's view of one */
+	public FakeReservationsDao(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	/** Runs {@code hook} at the start of every insert, e.g. to line up racing threads. */
+	public void setBeforeInsert(Runnable hook) {
+		this.beforeInsert = hook;
+	}
+
+	@Override
+	public synchronized Reservation findById(int id) {
+		return rows.get(id);
+	}
+
+	@Override
+	public synchronized List<Reservation> findAll() {
+		return new ArrayList<>(rows.values());
+	}
+
+	@Override
+	public Page<Reservation> findPage(Reservation after, int limit) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public synchronized int count() {
+		return rows.size();
+	}
+
+	@Override
+	public List<Reservation> findSlice(int offset, int limit) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public synchronized List<Reservation> findByCustomerId(int customerId) {
+		return rows.values().stream().filter(r -> r.getCustomerId() == customerId).toList();
+	}
+
+	@Override
+	public Stream<Reservation> streamAll() {
+		return findAll().stream();
+	}
+
+	@Override
+	public Reservation save(Reservation reservation) {
+		beforeInsert.run();
+		return FakeDataSource.withConnection(dataSource, c -> {
+			synchronized (this) {
+				String token = reservation.getRequestToken();
+				if (token != null && byToken.containsKey(token)) {
+					throw new DataAccessException("Duplicate entry '" + token + "' for key 'request_token'", null);
+				}
+				int id = nextId++;
+				reservation.setReservationId(id);
+				rows.put(id, reservation);
+				if (token != null) {
+					byToken.put(token, reservation);
+				}
+				c.onRollback(() -> remove(id));
+				return reservation;
+			}
+		});
+	}
+
+	@Override
+	public synchronized Reservation findByRequestToken(String requestToken) {
+		return byToken.get(requestToken);
+	}
+
+	@Override
+	public void saveAll(Collection<Reservation> reservations, int batchSize) {
+		reservations.forEach(this::save);
+	}
+
+	@Override
+	public synchronized Reservation update(Reservation reservation) {
+		rows.put(reservation.getReservationId(), reservation);
+		return reservation;
+	}
+
+	@Override
+	public boolean delete(int id) {
+		return remove(id);
+	}
+
+	private synchronized boolean remove(int id) {
+		Reservation r = rows.remove(id);
+		if (r != null && r.getRequestToken() != null) {
+			byToken.remove(r.getRequestToken());
+		}
+		return r != null;
+	}
+}
@@ -0,0 +1,177 @@
+package com.cinemamanager.dao;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import com.cinemamanager.model.Hall;
+import com.cinemamanager.model.Screening;
+import com.cinemamanager.model.ScreeningDetails;
+
+/**
+ * In-memory {@link ScreeningDao} on a {@link FakeDataSource}, with the
+ * {@code seats_sold} counter of each screening.
+ */
+public final class FakeScreeningDao implements ScreeningDao {
+
+	private final DataSource dataSource;
+	private final HallDao halls;
+	private final Map<Integer, Screening> rows = new LinkedHashMap<>();
+	private final Map<Integer, Integer> seatsSold = new HashMap<>();
+	private int nextId = 1;
+
+	/** @param dataSource a {@link FakeDataSource}, or a transaction manager's view of one */
+	public FakeScreeningDao(DataSource dataSource, HallDao halls) {
+		this.dataSource = dataSource;
+		this.halls = halls;
+	}
+
+	/** @return the screening's {@code seats_sold} counter */
+	public synchronized int getSeatsSold(int screeningId) {
+		return seatsSold.getOrDefault(screeningId, 0);
+	}
+
+	@Override
+	public synchronized Screening findById(int id) {
+		return rows.get(id);
+	}
+
+	@Override
+	public synchronized List<Screening> findAll() {
+		return new ArrayList<>(rows.values());
+	}
+
+	@Override
+	public Page<Screening> findPage(Screening after, int limit) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public synchronized List<Screening> findByMovieId(int movieId) {
+		return rows.values().stream().filter(s -> s.getMovieId() == movieId).toList();
+	}
+
+	@Override
+	public Stream<Screening> streamAll() {
+		return findAll().stream();
+	}
+
+	@Override
+	public synchronized List<Screening> findByHallId(int hallId) {
+		return rows.values().stream().filter(s -> s.getHallId() == hallId).toList();
+	}
+
+	@Override
+	public List<Screening> findUpcoming() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public List<ScreeningDetails> findAllDetails() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public List<ScreeningDetails> findUpcomingDetails() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public List<Screening> findByHallAndRange(int hallId, LocalDateTime from, LocalDateTime to) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public List<Screening> findByRange(LocalDateTime from, LocalDateTime to) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public List<Screening> findUpcomingByHall(int hallId, int limit) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void save(Screening screening) {
+		FakeDataSource.withConnection(dataSource, c -> {
+			synchronized (this) {
+				int id = nextId++;
+				screening.setScreeningId(id);
+				rows.put(id, screening);
+				c.onRollback(() -> remove(id));
+			}
+			return null;
+		});
+	}
+
+	@Override
+	public void saveAll(Collection<Screening> screenings, int batchSize) {
+		screenings.forEach(this::save);
+	}
+
+	@Override
+	public synchronized void update(Screening screening) {
+		rows.put(screening.getScreeningId(), screening);
+	}
+
+	@Override
+	public void delete(int id) {
+		remove(id);
+	}
+
+	@Override
+	public boolean tryReserveSeats(int screeningId, int seats) {
+		return FakeDataSource.withConnection(dataSource, c -> {
+			synchronized (this) {
+				Screening s = rows.get(screeningId);
+				Hall hall = s == null ? null : halls.findById(s.getHallId());
+				int sold = seatsSold.getOrDefault(screeningId, 0);
+				if (hall == null || sold + seats > hall.getCapacity()) {
+					return false;
+				}
+				seatsSold.put(screeningId, sold + seats);
+				c.onRollback(() -> addSold(screeningId, -seats));
+				return true;
+			}
+		});
+	}
+
+	@Override
+	public void releaseSeats(int screeningId, int seats) {
+		FakeDataSource.withConnection(dataSource, c -> {
+			synchronized (this) {
+				int sold = seatsSold.getOrDefault(screeningId, 0);
+				int released = Math.min(sold, seats);
+				seatsSold.put(screeningId, sold - released);
+				c.onRollback(() -> addSold(screeningId, released));
+			}
+			return null;
+		});
+	}
+
+	@Override
+	public synchronized boolean existsOverlap(int hallId, LocalDateTime startTime, LocalDateTime endTime) {
+		for (Screening s : rows.values()) {
+			if (s.getHallId() == hallId && s.getStartTime().isBefore(endTime) && s.getEndTime().isAfter(startTime)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private synchronized void remove(int id) {
+		rows.remove(id);
+		seatsSold.remove(id);
+	}
+
+	private synchronized void addSold(int screeningId, int seats) {
+		seatsSold.merge(screeningId, seats, Integer::sum);
+	}
+}
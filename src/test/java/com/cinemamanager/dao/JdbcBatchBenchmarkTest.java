@@ -0,0 +1,115 @@
+package com.cinemamanager.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+import org.junit.jupiter.api.Test;
+
+import com.cinemamanager.model.Movie;
+import com.cinemamanager.model.Screening;
+
+/**
+ * Rows/sec of the batched {@code saveAll} against the per-row {@code save}
+ * loop it replaces. Runs against MySQL; skipped without {@code -Dtest.db.url},
+ * see {@link TestDatabase}. The numbers depend on the server and on
+ * {@code rewriteBatchedStatements=true} in the URL, so only correctness is
+ * asserted.
+ */
+class JdbcBatchBenchmarkTest {
+
+	private static final int ROWS = 2000;
+
+	@Test
+	void movies() {
+		try (TestDatabase db = TestDatabase.open(2)) {
+			MovieDao dao = new MovieDaoImpl(db.getDataSource());
+			String prefix = "Batch benchmark " + System.nanoTime() + " ";
+
+			List<Movie> looped = movies(prefix + "loop ");
+			double loop = rowsPerSecond(looped, rows -> rows.forEach(dao::save));
+			List<Movie> batched = movies(prefix + "batch ");
+			double batch = rowsPerSecond(batched, dao::saveAll);
+
+			report("movie", loop, batch);
+			looped.forEach(m -> db.cleanUpMovie(m.getMovieId()));
+			batched.forEach(m -> db.cleanUpMovie(m.getMovieId()));
+			assertSaved(looped, Movie::getMovieId);
+			assertSaved(batched, Movie::getMovieId);
+			assertEquals(2 * ROWS, db.queryInt("SELECT COUNT(*) FROM movie WHERE title LIKE ?", prefix + "%"));
+		}
+	}
+
+	@Test
+	void screenings() {
+		try (TestDatabase db = TestDatabase.open(2)) {
+			int movieId = db.addMovie(90);
+			int hallId = db.addHall(10, 10);
+			ScreeningDao dao = new ScreeningDaoImpl(db.getDataSource());
+
+			List<Screening> looped = screenings(movieId, hallId, 0);
+			double loop = rowsPerSecond(looped, rows -> rows.forEach(dao::save));
+			List<Screening> batched = screenings(movieId, hallId, ROWS);
+			double batch = rowsPerSecond(batched, dao::saveAll);
+
+			report("screening", loop, batch);
+			looped.forEach(s -> db.cleanUpScreening(s.getScreeningId()));
+			batched.forEach(s -> db.cleanUpScreening(s.getScreeningId()));
+			assertSaved(looped, Screening::getScreeningId);
+			assertSaved(batched, Screening::getScreeningId);
+			assertEquals(2 * ROWS, db.queryInt("SELECT COUNT(*) FROM screening WHERE hall_id = ?", hallId));
+		}
+	}
+
+	private static List<Movie> movies(String titlePrefix) {
+		List<Movie> movies = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			Movie m = new Movie();
+			m.setTitle(titlePrefix + i);
+			m.setDescription("");
+			m.setGenre("Drama");
+			m.setLanguage("EN");
+			m.setDuration(90);
+			m.setReleaseYear(2024);
+			movies.add(m);
+		}
+		return movies;
+	}
+
+	// one screening every two hours from a fixed date, after the first {@code skip}
+	private static List<Screening> screenings(int movieId, int hallId, int skip) {
+		LocalDateTime first = LocalDateTime.of(2031, 1, 1, 0, 0);
+		List<Screening> screenings = new ArrayList<>(ROWS);
+		for (int i = skip; i < skip + ROWS; i++) {
+			Screening s = new Screening();
+			s.setMovieId(movieId);
+			s.setHallId(hallId);
+			s.setStartTime(first.plusHours(2L * i));
+			s.setEndTime(first.plusHours(2L * i).plusMinutes(90));
+			screenings.add(s);
+		}
+		return screenings;
+	}
+
+	private static <T> double rowsPerSecond(List<T> rows, Consumer<List<T>> insert) {
+		long started = System.nanoTime();
+		insert.accept(rows);
+		long nanos = Math.max(1, System.nanoTime() - started);
+		return rows.size() * 1e9 / nanos;
+	}
+
+	private static void report(String table, double loop, double batch) {
+		System.out.printf("%s inserts, %d rows: save() loop %.0f rows/s, saveAll() %.0f rows/s (%.1fx)%n", table,
+				ROWS, loop, batch, batch / loop);
+	}
+
+	private static <T> void assertSaved(List<T> rows, ToIntFunction<T> id) {
+		assertTrue(rows.stream().allMatch(r -> id.applyAsInt(r) > 0), "a row has no generated key");
+		assertEquals(rows.size(), rows.stream().mapToInt(id).distinct().count());
+	}
+}
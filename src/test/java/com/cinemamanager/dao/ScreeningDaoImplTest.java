@@ -0,0 +1,67 @@
+package com.cinemamanager.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/** Runs against MySQL; skipped without {@code -Dtest.db.url}, see {@link TestDatabase}. */
+class ScreeningDaoImplTest {
+
+	private static final int THREADS = 32;
+
+	@Test
+	void tryReserveSeatsNeverOversells() throws Exception {
+		try (TestDatabase db = TestDatabase.open(THREADS)) {
+			int capacity = 10 * 20;
+			int screeningId = db.addScreening(db.addMovie(120), db.addHall(10, 20));
+			ScreeningDao dao = new ScreeningDaoImpl(db.getDataSource());
+
+			// every thread takes 1-3 seats at a time until it is refused
+			long started = System.nanoTime();
+			List<int[]> outcomes = Concurrently.run(THREADS, i -> {
+				Random random = new Random(i);
+				int[] outcome = new int[2];
+				while (true) {
+					int seats = 1 + random.nextInt(3);
+					outcome[1]++;
+					if (!dao.tryReserveSeats(screeningId, seats)) {
+						return outcome;
+					}
+					outcome[0] += seats;
+				}
+			});
+			long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+			int granted = outcomes.stream().mapToInt(o -> o[0]).sum();
+			int calls = outcomes.stream().mapToInt(o -> o[1]).sum();
+			System.out.printf("tryReserveSeats: %d calls from %d threads in %d ms (%.0f calls/s), %d of %d seats%n",
+					calls, THREADS, millis, calls * 1000.0 / millis, granted, capacity);
+
+			// the counter only grows here, so a single oversell would still show
+			int sold = db.seatsSold(screeningId);
+			assertTrue(sold <= capacity, "seats_sold " + sold + " > capacity " + capacity);
+			assertEquals(granted, sold);
+			// one seat more than is left is refused
+			assertFalse(dao.tryReserveSeats(screeningId, capacity - sold + 1));
+		}
+	}
+
+	@Test
+	void releaseSeatsNeverGoesBelowZero() {
+		try (TestDatabase db = TestDatabase.open(2)) {
+			int screeningId = db.addScreening(db.addMovie(120), db.addHall(2, 5));
+			ScreeningDao dao = new ScreeningDaoImpl(db.getDataSource());
+
+			assertTrue(dao.tryReserveSeats(screeningId, 3));
+			dao.releaseSeats(screeningId, 5);
+			assertEquals(0, db.seatsSold(screeningId));
+			assertTrue(dao.tryReserveSeats(screeningId, 10));
+			assertFalse(dao.tryReserveSeats(screeningId, 1));
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package com.cinemamanager.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.cinemamanager.model.Screening;
+
+class ScreeningIntervalIndexTest {
+
+	private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+	@Test
+	void findsOverlapsAndAllowsBackToBack() {
+		ScreeningIntervalIndex index = new ScreeningIntervalIndex(
+				h -> h == 1 ? List.of(screening(1, 1, 14, 16), screening(2, 1, 18, 20)) : List.of());
+
+		assertTrue(index.overlaps(1, at(15), at(17)));
+		assertTrue(index.overlaps(1, at(13), at(21)));
+		assertTrue(index.overlaps(1, at(18), at(19)));
+		assertFalse(index.overlaps(1, at(16), at(18)));
+		assertFalse(index.overlaps(1, at(10), at(14)));
+		assertFalse(index.overlaps(1, at(20), at(22)));
+		assertFalse(index.overlaps(2, at(15), at(17)));
+	}
+
+	@Test
+	void longScreeningStartingEarlierStillOverlaps() {
+		// the running maximum of end times finds it behind shorter later ones
+		ScreeningIntervalIndex index = new ScreeningIntervalIndex(h -> List.of(screening(1, 1, 8, 23),
+				screening(2, 1, 9, 10), screening(3, 1, 11, 12)));
+
+		assertTrue(index.overlaps(1, at(21), at(22)));
+		assertFalse(index.overlaps(1, at(23), at(24)));
+	}
+
+	@Test
+	void excludedScreeningIsIgnored() {
+		ScreeningIntervalIndex index = new ScreeningIntervalIndex(h -> List.of(screening(1, 1, 14, 16)));
+
+		assertFalse(index.overlaps(1, at(15), at(17), 1));
+		assertTrue(index.overlaps(1, at(15), at(17), 2));
+	}
+
+	@Test
+	void putAndRemovePatchLoadedHall() {
+		AtomicInteger loads = new AtomicInteger();
+		ScreeningIntervalIndex index = new ScreeningIntervalIndex(h -> {
+			loads.incrementAndGet();
+			return List.of(screening(1, 1, 14, 16));
+		});
+		assertFalse(index.overlaps(1, at(18), at(19)));
+
+		index.put(screening(2, 1, 18, 20));
+		assertTrue(index.overlaps(1, at(18), at(19)));
+		// moving a screening replaces its slot
+		index.put(screening(2, 1, 21, 22));
+		assertFalse(index.overlaps(1, at(18), at(19)));
+		assertTrue(index.overlaps(1, at(21), at(22)));
+		index.remove(1);
+		assertFalse(index.overlaps(1, at(14), at(16)));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void invalidateReloadsFromLoader() {
+		List<Screening> table = new ArrayList<>(List.of(screening(1, 1, 14, 16)));
+		ScreeningIntervalIndex index = new ScreeningIntervalIndex(h -> List.copyOf(table));
+		assertFalse(index.overlaps(1, at(18), at(19)));
+
+		// written by another process: the index cannot know until reloaded
+		table.add(screening(2, 1, 18, 20));
+		assertFalse(index.overlaps(1, at(18), at(19)));
+		index.invalidate(1);
+		assertTrue(index.overlaps(1, at(18), at(19)));
+	}
+
+	@Test
+	void loadRacingAChangeIsNotInstalled() {
+		List<Screening> table = new ArrayList<>(List.of(screening(1, 1, 14, 16)));
+		AtomicInteger loads = new AtomicInteger();
+		ScreeningIntervalIndex[] index = new ScreeningIntervalIndex[1];
+		index[0] = new ScreeningIntervalIndex(h -> {
+			List<Screening> snapshot = List.copyOf(table);
+			if (loads.incrementAndGet() == 1) {
+				// a screening commits while the first query runs; its put finds no
+				// hall to patch, and the snapshot above does not contain it
+				Screening committed = screening(2, 1, 18, 20);
+				table.add(committed);
+				index[0].put(committed);
+			}
+			return snapshot;
+		});
+
+		assertTrue(index[0].overlaps(1, at(18), at(19)));
+		assertEquals(2, loads.get());
+		// the second load was installed
+		assertTrue(index[0].overlaps(1, at(14), at(15)));
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void constantWritesAnswerFromFreshLoadWithoutCaching() {
+		AtomicInteger loads = new AtomicInteger();
+		ScreeningIntervalIndex[] index = new ScreeningIntervalIndex[1];
+		index[0] = new ScreeningIntervalIndex(h -> {
+			loads.incrementAndGet();
+			// every query races a change to another hall
+			index[0].invalidate(99);
+			return List.of(screening(1, 1, 14, 16));
+		});
+
+		assertTrue(index[0].overlaps(1, at(15), at(17)));
+		int firstQuery = loads.get();
+		assertTrue(firstQuery > 1);
+		assertTrue(index[0].overlaps(1, at(15), at(17)));
+		assertEquals(2 * firstQuery, loads.get());
+	}
+
+	private static Screening screening(int id, int hallId, int fromHour, int toHour) {
+		Screening s = new Screening();
+		s.setScreeningId(id);
+		s.setMovieId(1);
+		s.setHallId(hallId);
+		s.setStartTime(at(fromHour));
+		s.setEndTime(at(toHour));
+		return s;
+	}
+
+	private static LocalDateTime at(int hour) {
+		return DAY.plusHours(hour);
+	}
+}
@@ -0,0 +1,170 @@
+package com.cinemamanager.dao;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import com.cinemamanager.util.ConnectionPool;
+
+/**
+ * A scratch MySQL database for the tests that need the real SQL (conditional
+ * {@code UPDATE}s, JDBC batching). Those tests are skipped unless
+ * {@code test.db.url} names a database with the schema from the README:
+ *
+ * <pre>
+ * mvn test -Dtest.db.url=jdbc:mysql://localhost:3306/cinema_test?rewriteBatchedStatements=true \
+ *          -Dtest.db.user=cinema_user -Dtest.db.password=cinema_pass
+ * </pre>
+ *
+ * <p>
+ * Rows created through this class are deleted again by {@link #close()}.
+ * </p>
+ */
+public final class TestDatabase implements AutoCloseable {
+
+	private final ConnectionPool pool;
+	private final TransactionManager transactions;
+	private final List<Integer> halls = new ArrayList<>();
+	private final List<Integer> movies = new ArrayList<>();
+	private final List<Integer> screenings = new ArrayList<>();
+
+	private TestDatabase(ConnectionPool pool) {
+		this.pool = pool;
+		this.transactions = new TransactionManager(pool, Connection.TRANSACTION_READ_COMMITTED);
+	}
+
+	/**
+	 * Connects to the database named by {@code -Dtest.db.url}, or skips the
+	 * calling test if there is none.
+	 *
+	 * @param poolSize most connections open at once
+	 */
+	public static TestDatabase open(int poolSize) {
+		String url = System.getProperty("test.db.url", "");
+		assumeTrue(!url.isBlank(), "set -Dtest.db.url to run the MySQL tests");
+		Properties props = new Properties();
+		props.setProperty("db.pool.minSize", "0");
+		props.setProperty("db.pool.maxSize", String.valueOf(poolSize));
+		props.setProperty("db.pool.borrowTimeoutMs", "30000");
+		return new TestDatabase(new ConnectionPool(url, System.getProperty("test.db.user"),
+				System.getProperty("test.db.password"), ConnectionPool.Settings.fromProperties(props)));
+	}
+
+	/** @return the data source DAOs under test should use */
+	public DataSource getDataSource() {
+		return transactions.getDataSource();
+	}
+
+	public TransactionManager getTransactions() {
+		return transactions;
+	}
+
+	/** Inserts a hall with the given layout and returns its id. */
+	public int addHall(int seatRows, int seatsPerRow) {
+		int id = insert("INSERT INTO hall (name, capacity, seat_rows, seats_per_row) VALUES (?, ?, ?, ?)",
+				"Test hall", seatRows * seatsPerRow, seatRows, seatsPerRow);
+		halls.add(id);
+		return id;
+	}
+
+	/** Inserts a movie and returns its id. */
+	public int addMovie(int durationMinutes) {
+		int id = insert("INSERT INTO movie (title, duration) VALUES (?, ?)", "Test movie", durationMinutes);
+		movies.add(id);
+		return id;
+	}
+
+	/** Inserts a screening tomorrow evening and returns its id. */
+	public int addScreening(int movieId, int hallId) {
+		int id = insert("INSERT INTO screening (movie_id, hall_id, start_time, end_time) "
+				+ "VALUES (?, ?, CURDATE() + INTERVAL 44 HOUR, CURDATE() + INTERVAL 46 HOUR)", movieId, hallId);
+		screenings.add(id);
+		return id;
+	}
+
+	/** Deletes a movie saved by the code under test in {@link #close()}. */
+	public void cleanUpMovie(int movieId) {
+		movies.add(movieId);
+	}
+
+	/** Deletes a screening saved by the code under test in {@link #close()}. */
+	public void cleanUpScreening(int screeningId) {
+		screenings.add(screeningId);
+	}
+
+	/** @return the screening's {@code seats_sold} counter */
+	public int seatsSold(int screeningId) {
+		return queryInt("SELECT seats_sold FROM screening WHERE screening_id = ?", screeningId);
+	}
+
+	/** Runs a query returning one int, e.g. a {@code COUNT(*)}. */
+	public int queryInt(String sql, Object... args) {
+		try (Connection c = pool.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+			bind(ps, args);
+			try (ResultSet rs = ps.executeQuery()) {
+				rs.next();
+				return rs.getInt(1);
+			}
+		} catch (SQLException e) {
+			throw new DataAccessException(e.getMessage(), e);
+		}
+	}
+
+	/** Deletes the rows this test created, then closes the pool. */
+	@Override
+	public void close() {
+		try {
+			for (int id : screenings) {
+				update("DELETE FROM reservation_seat WHERE screening_id = ?", id);
+				update("DELETE FROM reservation WHERE screening_id = ?", id);
+				update("DELETE FROM screening WHERE screening_id = ?", id);
+			}
+			for (int id : movies) {
+				update("DELETE FROM movie WHERE movie_id = ?", id);
+			}
+			for (int id : halls) {
+				update("DELETE FROM hall WHERE hall_id = ?", id);
+			}
+		} finally {
+			pool.close();
+		}
+	}
+
+	private int insert(String sql, Object... args) {
+		try (Connection c = pool.getConnection();
+				PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			bind(ps, args);
+			ps.executeUpdate();
+			try (ResultSet keys = ps.getGeneratedKeys()) {
+				keys.next();
+				return keys.getInt(1);
+			}
+		} catch (SQLException e) {
+			throw new DataAccessException(e.getMessage(), e);
+		}
+	}
+
+	private void update(String sql, Object... args) {
+		try (Connection c = pool.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+			bind(ps, args);
+			ps.executeUpdate();
+		} catch (SQLException e) {
+			throw new DataAccessException(e.getMessage(), e);
+		}
+	}
+
+	private static void bind(PreparedStatement ps, Object... args) throws SQLException {
+		for (int i = 0; i < args.length; i++) {
+			ps.setObject(i + 1, args[i]);
+		}
+	}
+}
@@ -0,0 +1,264 @@
+package com.cinemamanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.cinemamanager.dao.Concurrently;
+import com.cinemamanager.dao.DataAccessException;
+import com.cinemamanager.dao.FakeDataSource;
+import com.cinemamanager.dao.FakeHallDao;
+import com.cinemamanager.dao.FakeReservationSeatDao;
+import com.cinemamanager.dao.FakeReservationsDao;
+import com.cinemamanager.dao.FakeScreeningDao;
+import com.cinemamanager.dao.TransactionManager;
+import com.cinemamanager.model.Reservation;
+import com.cinemamanager.model.Screening;
+import com.cinemamanager.model.Seat;
+
+class ReservationServiceImplTest {
+
+	private static final int THREADS = 32;
+	private static final int ROWS = 5;
+	private static final int SEATS_PER_ROW = 10;
+	private static final int CAPACITY = ROWS * SEATS_PER_ROW;
+	// hall 2, for the overbooking stress tests
+	private static final int BIG_ROWS = 40;
+	private static final int BIG_SEATS_PER_ROW = 50;
+	private static final int BIG_CAPACITY = BIG_ROWS * BIG_SEATS_PER_ROW;
+	private static final String TOKEN = "request-1";
+
+	private TransactionManager transactions;
+	private FakeHallDao halls;
+	private FakeScreeningDao screenings;
+	private FakeReservationsDao reservations;
+	private FakeReservationSeatDao reservationSeats;
+	private int screeningId;
+	private int bigScreeningId;
+
+	@BeforeEach
+	void setUp() {
+		transactions = new TransactionManager(new FakeDataSource(), -1);
+		halls = new FakeHallDao(transactions.getDataSource());
+		screenings = new FakeScreeningDao(transactions.getDataSource(), halls);
+		reservations = new FakeReservationsDao(transactions.getDataSource());
+		reservationSeats = new FakeReservationSeatDao(transactions.getDataSource());
+
+		halls.add(1, ROWS, SEATS_PER_ROW);
+		halls.add(2, BIG_ROWS, BIG_SEATS_PER_ROW);
+		screeningId = addScreening(1);
+		bigScreeningId = addScreening(2);
+	}
+
+	private int addScreening(int hallId) {
+		Screening s = new Screening();
+		s.setMovieId(1);
+		s.setHallId(hallId);
+		s.setStartTime(LocalDateTime.of(2030, 1, 1, 20, 0));
+		s.setEndTime(LocalDateTime.of(2030, 1, 1, 22, 0));
+		screenings.save(s);
+		return s.getScreeningId();
+	}
+
+	@Test
+	void duplicateTokenFromManyThreadsBooksOnce() throws Exception {
+		SeatInventory inventory = newInventory();
+		ReservationService service = newService(inventory);
+
+		List<Reservation> results = Concurrently.run(THREADS, i -> service.reserve(i, screeningId, TOKEN));
+
+		assertOneBooking(results);
+		assertEquals(CAPACITY - 1, inventory.get(screeningId).getAvailable());
+	}
+
+	@Test
+	void duplicateTokenAcrossInstancesReleasesLosersSeats() throws Exception {
+		// one service per thread, like separate application instances sharing the
+		// database: in-process deduplication cannot help, the unique key decides
+		List<SeatInventory> inventories = new ArrayList<>();
+		List<ReservationService> services = new ArrayList<>();
+		List<SeatMap> maps = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			SeatInventory inventory = newInventory();
+			inventories.add(inventory);
+			services.add(newService(inventory));
+			maps.add(inventory.get(screeningId));
+		}
+		// every thread reaches the insert before any of them commits
+		CountDownLatch allInserting = new CountDownLatch(THREADS);
+		reservations.setBeforeInsert(() -> {
+			allInserting.countDown();
+			await(allInserting);
+		});
+
+		List<Reservation> results = Concurrently.run(THREADS, i -> services.get(i).reserve(i, screeningId, TOKEN));
+
+		assertOneBooking(results);
+		int winners = 0;
+		for (int i = 0; i < THREADS; i++) {
+			// not invalidated: the same map, with only the winner's seat taken
+			assertSame(maps.get(i), inventories.get(i).get(screeningId));
+			if (maps.get(i).getAvailable() == CAPACITY - 1) {
+				winners++;
+			} else {
+				assertEquals(CAPACITY, maps.get(i).getAvailable(), "loser " + i + " kept its seat");
+			}
+		}
+		assertEquals(1, winners);
+	}
+
+	@Test
+	void manyThreadsFillOneScreeningExactly() throws Exception {
+		ReservationService service = newService(newInventory());
+		int threads = THREADS * 4;
+
+		Booked booked = bookConcurrently(threads, i -> service);
+
+		assertEquals(BIG_CAPACITY, booked.count);
+		assertEquals(0, booked.conflicts);
+		assertConsistent(booked);
+	}
+
+	@Test
+	void instancesWithSeparateSeatMapsNeverOverbook() throws Exception {
+		// each instance claims seats in its own map, so they collide on the same
+		// seats; only the seats_sold counter and the seat keys keep them apart
+		int instances = 4;
+		List<ReservationService> services = new ArrayList<>();
+		for (int i = 0; i < instances; i++) {
+			services.add(newService(newInventory()));
+		}
+
+		Booked booked = bookConcurrently(THREADS * 4, i -> services.get(i % instances));
+
+		assertTrue(booked.count > 0);
+		assertConsistent(booked);
+	}
+
+	@Test
+	void replayAfterRestartReturnsStoredBooking() {
+		Reservation first = newService(newInventory()).reserve(7, screeningId, TOKEN);
+
+		// a fresh instance has an empty recent-token cache
+		SeatInventory inventory = newInventory();
+		Reservation replay = newService(inventory).reserve(7, screeningId, TOKEN);
+
+		assertEquals(first.getReservationId(), replay.getReservationId());
+		assertEquals(1, reservations.count());
+		assertEquals(CAPACITY - 1, inventory.get(screeningId).getAvailable());
+	}
+
+	@Test
+	void replayOfHeldSeatsReleasesTheHold() {
+		SeatInventory inventory = newInventory();
+		ReservationService service = newService(inventory);
+		Reservation first = service.reserve(7, screeningId, TOKEN);
+
+		Seat held = new Seat(1, 1);
+		SeatInventory.Claim claim = inventory.claim(screeningId, List.of(held), true);
+		assertNotNull(claim);
+		Reservation replay = service.reserveHeldSeats(7, claim, TOKEN);
+
+		assertEquals(first.getReservationId(), replay.getReservationId());
+		assertFalse(inventory.get(screeningId).isTaken(held));
+		assertEquals(1, screenings.getSeatsSold(screeningId));
+	}
+
+	private void assertOneBooking(List<Reservation> results) {
+		assertEquals(1, reservations.count());
+		Reservation stored = reservations.findByRequestToken(TOKEN);
+		assertNotNull(stored);
+		Set<Integer> ids = new HashSet<>();
+		results.forEach(r -> ids.add(r.getReservationId()));
+		assertEquals(Set.of(stored.getReservationId()), ids);
+		assertEquals(1, screenings.getSeatsSold(screeningId));
+		assertEquals(1, reservationSeats.count(screeningId));
+	}
+
+	/** Outcome of a booking run. */
+	private record Booked(int count, int soldOut, int conflicts, int maxSeatsSold) {
+	}
+
+	// every thread books one seat of the big screening at a time until it is
+	// sold out, while another thread samples seats_sold
+	private Booked bookConcurrently(int threads, IntFunction<ReservationService> serviceOf) throws Exception {
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicInteger maxSeatsSold = new AtomicInteger();
+		Thread sampler = new Thread(() -> {
+			while (running.get()) {
+				maxSeatsSold.accumulateAndGet(screenings.getSeatsSold(bigScreeningId), Math::max);
+			}
+		});
+		sampler.start();
+		long started = System.nanoTime();
+		List<int[]> outcomes;
+		try {
+			outcomes = Concurrently.run(threads, i -> {
+				int[] outcome = new int[3];
+				while (true) {
+					try {
+						serviceOf.apply(i).reserve(i, bigScreeningId);
+						outcome[0]++;
+					} catch (IllegalStateException e) {
+						// sold out: in this instance's seat map or in the counter
+						outcome[1]++;
+						break;
+					} catch (DataAccessException e) {
+						// another instance sold the seat first; try the next best one
+						outcome[2]++;
+					}
+				}
+				return outcome;
+			});
+		} finally {
+			running.set(false);
+			sampler.join();
+		}
+		long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+		Booked booked = new Booked(outcomes.stream().mapToInt(o -> o[0]).sum(),
+				outcomes.stream().mapToInt(o -> o[1]).sum(), outcomes.stream().mapToInt(o -> o[2]).sum(),
+				Math.max(maxSeatsSold.get(), screenings.getSeatsSold(bigScreeningId)));
+		System.out.printf("Booking: %d threads, %d booked, %d sold out, %d seat conflicts in %d ms (%.0f bookings/s)%n",
+				threads, booked.count, booked.soldOut, booked.conflicts, millis, booked.count * 1000.0 / millis);
+		return booked;
+	}
+
+	private void assertConsistent(Booked booked) {
+		assertTrue(booked.maxSeatsSold <= BIG_CAPACITY, "seats_sold reached " + booked.maxSeatsSold);
+		assertEquals(booked.count, screenings.getSeatsSold(bigScreeningId));
+		assertEquals(booked.count, reservations.count());
+		assertEquals(booked.count, reservationSeats.count(bigScreeningId));
+	}
+
+	private SeatInventory newInventory() {
+		return new SeatInventory(screenings, halls, reservationSeats);
+	}
+
+	private ReservationService newService(SeatInventory inventory) {
+		return new ReservationServiceImpl(reservations, screenings, reservationSeats, inventory, transactions);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
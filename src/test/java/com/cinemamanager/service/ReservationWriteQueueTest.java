@@ -0,0 +1,129 @@
+package com.cinemamanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.cinemamanager.dao.Concurrently;
+import com.cinemamanager.dao.FakeDataSource;
+import com.cinemamanager.dao.FakeHallDao;
+import com.cinemamanager.dao.FakeReservationSeatDao;
+import com.cinemamanager.dao.FakeReservationsDao;
+import com.cinemamanager.dao.FakeScreeningDao;
+import com.cinemamanager.dao.TransactionManager;
+import com.cinemamanager.model.Reservation;
+import com.cinemamanager.model.Screening;
+import com.cinemamanager.model.Seat;
+
+class ReservationWriteQueueTest {
+
+	private static final int THREADS = 16;
+	private static final int ROWS = 20;
+	private static final int SEATS_PER_ROW = 50;
+
+	private TransactionManager transactions;
+	private FakeScreeningDao screenings;
+	private FakeReservationsDao reservations;
+	private FakeReservationSeatDao reservationSeats;
+	private int screeningId;
+
+	@BeforeEach
+	void setUp() {
+		transactions = new TransactionManager(new FakeDataSource(), -1);
+		FakeHallDao halls = new FakeHallDao(transactions.getDataSource());
+		screenings = new FakeScreeningDao(transactions.getDataSource(), halls);
+		reservations = new FakeReservationsDao(transactions.getDataSource());
+		reservationSeats = new FakeReservationSeatDao(transactions.getDataSource());
+
+		halls.add(1, ROWS, SEATS_PER_ROW);
+		Screening s = new Screening();
+		s.setMovieId(1);
+		s.setHallId(1);
+		s.setStartTime(LocalDateTime.of(2030, 1, 1, 20, 0));
+		s.setEndTime(LocalDateTime.of(2030, 1, 1, 22, 0));
+		screenings.save(s);
+		screeningId = s.getScreeningId();
+	}
+
+	private ReservationWriteQueue newQueue(int capacity) {
+		return new ReservationWriteQueue(reservations, screenings, reservationSeats, transactions, capacity, 50, 5);
+	}
+
+	@Test
+	void soldOutBookingFailsAloneInItsGroup() throws Exception {
+		List<CompletableFuture<Reservation>> futures = new ArrayList<>();
+		try (ReservationWriteQueue queue = newQueue(100)) {
+			// one row per booking; the last row asks for one seat more than is left
+			for (int row = 1; row <= ROWS; row++) {
+				futures.add(queue.submit(row, screeningId, seatsInRow(row, SEATS_PER_ROW), "token-" + row));
+			}
+			futures.add(queue.submit(0, screeningId, List.of(new Seat(1, 1)), "token-extra"));
+		}
+
+		for (int i = 0; i < ROWS; i++) {
+			assertTrue(futures.get(i).get().getReservationId() > 0);
+		}
+		ExecutionException refused = assertThrows(ExecutionException.class, () -> futures.get(ROWS).get());
+		assertInstanceOf(IllegalStateException.class, refused.getCause());
+		assertEquals(ROWS, reservations.count());
+		assertEquals(ROWS * SEATS_PER_ROW, screenings.getSeatsSold(screeningId));
+		assertEquals(ROWS * SEATS_PER_ROW, reservationSeats.count(screeningId));
+	}
+
+	@Test
+	void closeLeavesNoBookingWaiting() throws Exception {
+		// a queue of one keeps submitters blocked in offer() while close() runs
+		ReservationWriteQueue queue = newQueue(1);
+		Thread closer = new Thread(queue::close);
+		List<List<CompletableFuture<Reservation>>> accepted = Concurrently.run(THREADS, i -> {
+			List<CompletableFuture<Reservation>> futures = new ArrayList<>();
+			for (int n = 0;; n++) {
+				if (i == 0 && n == 20) {
+					closer.start();
+				}
+				try {
+					futures.add(queue.submit(i, screeningId, List.of(new Seat(1 + i, 1 + n % SEATS_PER_ROW)),
+							"token-" + i + "-" + n));
+				} catch (IllegalStateException closed) {
+					return futures;
+				}
+			}
+		});
+		closer.join();
+
+		int written = 0;
+		for (List<CompletableFuture<Reservation>> futures : accepted) {
+			for (CompletableFuture<Reservation> f : futures) {
+				try {
+					f.get(10, TimeUnit.SECONDS);
+					written++;
+				} catch (ExecutionException refusedOrClosed) {
+					// done either way; only a future left pending would hang its caller
+				}
+			}
+		}
+		assertEquals(written, queue.getWrittenCount());
+		assertEquals(written, reservations.count());
+		assertEquals(0, queue.getQueued());
+		assertThrows(IllegalStateException.class, () -> queue.submit(0, screeningId, List.of(), "late"));
+	}
+
+	private static List<Seat> seatsInRow(int row, int count) {
+		List<Seat> seats = new ArrayList<>(count);
+		for (int n = 1; n <= count; n++) {
+			seats.add(new Seat(row, n));
+		}
+		return seats;
+	}
+}
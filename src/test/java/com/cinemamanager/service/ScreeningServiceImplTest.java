@@ -0,0 +1,114 @@
+package com.cinemamanager.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.cinemamanager.dao.Concurrently;
+import com.cinemamanager.dao.FakeDataSource;
+import com.cinemamanager.dao.FakeHallDao;
+import com.cinemamanager.dao.FakeMovieDao;
+import com.cinemamanager.dao.FakeScreeningDao;
+import com.cinemamanager.dao.IndexedScreeningDao;
+import com.cinemamanager.dao.TransactionManager;
+import com.cinemamanager.model.Screening;
+
+class ScreeningServiceImplTest {
+
+	private static final int THREADS = 32;
+	private static final int ATTEMPTS_PER_THREAD = 200;
+	private static final int HALLS = 4;
+	private static final int MOVIE_MINUTES = 90;
+	// start times are drawn from a week of quarter hours
+	private static final int SLOTS = 7 * 24 * 4;
+	private static final LocalDateTime WEEK = LocalDateTime.of(2030, 1, 7, 0, 0);
+
+	private FakeScreeningDao screenings;
+	private IndexedScreeningDao indexed;
+	private ScreeningService service;
+
+	@BeforeEach
+	void setUp() {
+		TransactionManager transactions = new TransactionManager(new FakeDataSource(), -1);
+		FakeHallDao halls = new FakeHallDao(transactions.getDataSource());
+		FakeMovieDao movies = new FakeMovieDao();
+		screenings = new FakeScreeningDao(transactions.getDataSource(), halls);
+		// wired like AppController: overlap checks go through the interval index
+		indexed = new IndexedScreeningDao(screenings, transactions);
+		service = new ScreeningServiceImpl(indexed, movies, halls, transactions);
+
+		for (int h = 1; h <= HALLS; h++) {
+			halls.add(h, 10, 10);
+		}
+		movies.add(1, MOVIE_MINUTES);
+	}
+
+	@Test
+	void refusesOverlapInSameHallOnly() {
+		LocalDateTime eight = WEEK.withHour(20);
+		service.scheduleScreening(1, 1, eight);
+
+		assertThrows(IllegalStateException.class, () -> service.scheduleScreening(1, 1, eight.plusMinutes(30)));
+		service.scheduleScreening(1, 2, eight.plusMinutes(30));
+		// back to back is not an overlap
+		service.scheduleScreening(1, 1, eight.plusMinutes(MOVIE_MINUTES));
+		assertThrows(IllegalArgumentException.class, () -> service.scheduleScreening(1, HALLS + 1, eight));
+	}
+
+	@Test
+	void concurrentSchedulingNeverOverlaps() throws Exception {
+		long started = System.nanoTime();
+		List<int[]> counts = Concurrently.run(THREADS, i -> {
+			Random random = new Random(i);
+			int scheduled = 0;
+			int refused = 0;
+			for (int k = 0; k < ATTEMPTS_PER_THREAD; k++) {
+				int hallId = 1 + random.nextInt(HALLS);
+				LocalDateTime start = WEEK.plusMinutes(15L * random.nextInt(SLOTS));
+				try {
+					service.scheduleScreening(1, hallId, start);
+					scheduled++;
+				} catch (IllegalStateException e) {
+					refused++;
+				}
+			}
+			return new int[] { scheduled, refused };
+		});
+		long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+		int scheduled = counts.stream().mapToInt(c -> c[0]).sum();
+		int refused = counts.stream().mapToInt(c -> c[1]).sum();
+		int attempts = THREADS * ATTEMPTS_PER_THREAD;
+		System.out.printf("Scheduling: %d attempts from %d threads in %d ms (%.0f attempts/s), %d scheduled, %d refused%n",
+				attempts, THREADS, millis, attempts * 1000.0 / millis, scheduled, refused);
+
+		assertEquals(attempts, scheduled + refused);
+		assertTrue(scheduled > 0);
+		List<Screening> saved = screenings.findAll();
+		assertEquals(scheduled, saved.size());
+		for (int h = 1; h <= HALLS; h++) {
+			List<Screening> hall = new ArrayList<>(screenings.findByHallId(h));
+			hall.sort(Comparator.comparing(Screening::getStartTime));
+			for (int i = 1; i < hall.size(); i++) {
+				Screening before = hall.get(i - 1);
+				Screening after = hall.get(i);
+				assertFalse(before.getEndTime().isAfter(after.getStartTime()),
+						"hall " + h + ": " + before.getStartTime() + " overlaps " + after.getStartTime());
+			}
+		}
+		// every committed screening reached the index
+		for (Screening s : saved) {
+			assertTrue(indexed.existsOverlap(s.getHallId(), s.getStartTime(), s.getEndTime()));
+		}
+	}
+}